@@ -0,0 +1,57 @@
+package net.dean.jraw.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import net.dean.jraw.models.CommentNode;
+import net.dean.jraw.models.CommentSort;
+import net.dean.jraw.models.Submission;
+import net.dean.jraw.models.meta.SubmissionSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Measures how long it takes to turn a parsed /comments/{id} response into a Submission with a CommentNode tree */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CommentTreeBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private JsonNode thread;
+    private CommentNode tree;
+
+    @Setup
+    public void setUp() {
+        thread = Fixtures.thread(size);
+        tree = build().getComments();
+        if (tree.getTotalSize() != size)
+            throw new IllegalStateException("Expected " + size + " comments, got " + tree.getTotalSize());
+    }
+
+    @Benchmark
+    public Submission build() {
+        return SubmissionSerializer.withComments(thread, CommentSort.CONFIDENCE);
+    }
+
+    @Benchmark
+    public int walk() {
+        int score = 0;
+        for (CommentNode node : tree.walkTree()) {
+            score += node.getComment().getScoreValue();
+        }
+        return score;
+    }
+}
@@ -0,0 +1,83 @@
+package net.dean.jraw.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.io.Resources;
+import net.dean.jraw.util.JrawUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Loads the JSON fixtures in {@code src/jmh/resources/fixtures}. {@code listing.json} is a page of 25 submissions and
+ * {@code comment.json} is a single comment, which is copied to build comment threads of any size.
+ */
+public final class Fixtures {
+    /** How many replies each comment in a generated thread has */
+    private static final int BRANCHING = 4;
+
+    private Fixtures() {
+        // no instances
+    }
+
+    /** Reads a fixture into a String */
+    public static String read(String name) {
+        try {
+            return Resources.toString(Resources.getResource(Fixtures.class, "/fixtures/" + name), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read fixture " + name, e);
+        }
+    }
+
+    /** Reads a fixture into a JsonNode */
+    public static JsonNode json(String name) {
+        return JrawUtils.fromString(read(name));
+    }
+
+    /**
+     * Creates the response to a request for a submission and its comments, as returned by /comments/{id}
+     *
+     * @param size The total amount of comments in the thread
+     */
+    public static JsonNode thread(int size) {
+        JsonNodeFactory factory = JsonNodeFactory.instance;
+        ObjectNode submission = (ObjectNode) json("listing.json").get("data").get("children").get(0).deepCopy();
+        String linkId = submission.get("data").get("name").asText();
+        ObjectNode comment = (ObjectNode) json("comment.json");
+
+        ArrayNode response = factory.arrayNode();
+        ObjectNode submissionListing = response.addObject().put("kind", "Listing");
+        submissionListing.putObject("data").putArray("children").add(submission);
+
+        // Comments are numbered breadth first, so the replies to comment i start at BRANCHING * (i + 1)
+        ObjectNode commentListing = response.addObject().put("kind", "Listing");
+        ArrayNode topLevel = commentListing.putObject("data").putArray("children");
+        for (int i = 0; i < BRANCHING && i < size; i++) {
+            topLevel.add(comment(comment, i, linkId, linkId, size));
+        }
+        return response;
+    }
+
+    private static ObjectNode comment(ObjectNode template, int index, String linkId, String parentId, int size) {
+        ObjectNode node = template.deepCopy();
+        ObjectNode data = (ObjectNode) node.get("data");
+        String id = Integer.toString(index, 36);
+        data.put("id", id);
+        data.put("name", "t1_" + id);
+        data.put("link_id", linkId);
+        data.put("parent_id", parentId);
+
+        int firstChild = BRANCHING * (index + 1);
+        if (firstChild >= size) {
+            data.put("replies", "");
+        } else {
+            ArrayNode replies = data.putObject("replies").put("kind", "Listing").putObject("data").putArray("children");
+            for (int i = firstChild; i < firstChild + BRANCHING && i < size; i++) {
+                replies.add(comment(template, i, linkId, "t1_" + id, size));
+            }
+        }
+        return node;
+    }
+}
@@ -0,0 +1,53 @@
+package net.dean.jraw.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.Submission;
+import net.dean.jraw.models.meta.ModelManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Measures binding already parsed JSON to models, and turning models back into Strings */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ModelBenchmark {
+    private JsonNode listingNode;
+    private JsonNode submissionNode;
+    private Submission submission;
+
+    @Setup
+    public void setUp() {
+        listingNode = Fixtures.json("listing.json");
+        submissionNode = listingNode.get("data").get("children").get(0);
+        submission = ModelManager.create(submissionNode, Submission.class);
+    }
+
+    @Benchmark
+    public Listing<Submission> bindListing() {
+        return new Listing<>(listingNode.get("data"), Submission.class);
+    }
+
+    @Benchmark
+    public Submission createModel() {
+        return ModelManager.create(submissionNode, Submission.class);
+    }
+
+    @Benchmark
+    public String toStringModel() {
+        return submission.toString();
+    }
+}
@@ -0,0 +1,81 @@
+package net.dean.jraw.benchmark;
+
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.Submission;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading the score and creation date of a page of submissions through their JSON data with reading the
+ * values that are decoded once when each submission is created
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PropertyAccessBenchmark {
+    private Submission[] submissions;
+
+    @Setup
+    public void setUp() {
+        Listing<Submission> listing = new Listing<>(Fixtures.json("listing.json").get("data"), Submission.class);
+        submissions = listing.toArray(new Submission[listing.size()]);
+    }
+
+    /** Looks the properties up by name using JsonModel.data(), converting and boxing them every time */
+    @Benchmark
+    public long jsonModelData() {
+        long sum = 0;
+        for (Submission s : submissions) {
+            sum += s.data("score", Integer.class);
+            sum += s.data("created_utc", Date.class).getTime();
+        }
+        return sum;
+    }
+
+    /** What getScore() and getCreated() did before the values were decoded eagerly */
+    @Benchmark
+    public long dataNodeLookup() {
+        long sum = 0;
+        for (Submission s : submissions) {
+            sum += s.getDataNode().get("score").intValue();
+            sum += new Date(s.getDataNode().get("created_utc").longValue() * 1000).getTime();
+        }
+        return sum;
+    }
+
+    /** getScore() and getCreated(), which still box the score and allocate a Date */
+    @Benchmark
+    public long eagerGetters() {
+        long sum = 0;
+        for (Submission s : submissions) {
+            sum += s.getScore();
+            sum += s.getCreated().getTime();
+        }
+        return sum;
+    }
+
+    /** The primitive getters, which only read fields */
+    @Benchmark
+    public long eagerPrimitives() {
+        long sum = 0;
+        for (Submission s : submissions) {
+            sum += s.getScoreValue();
+            sum += s.getCreatedMillis();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,99 @@
+package net.dean.jraw.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import net.dean.jraw.models.CommentNode;
+import net.dean.jraw.models.CommentSort;
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.Submission;
+import net.dean.jraw.models.meta.SubmissionSerializer;
+import net.dean.jraw.models.meta.Snapshots;
+import net.dean.jraw.util.JrawUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading and writing snapshots with reading and writing JSON, for a page of submissions and a thread of 10,000
+ * comments. The sizes of both formats are noted in the javadoc of {@link Snapshots}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SnapshotBenchmark {
+    private static final int THREAD_SIZE = 10000;
+
+    private Listing<Submission> listing;
+    private String listingJson;
+    private byte[] listingSnapshot;
+
+    private CommentNode tree;
+    private String treeJson;
+    private byte[] treeSnapshot;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Without the fixture's indentation
+        listingJson = Fixtures.json("listing.json").toString();
+        listing = new Listing<>(JrawUtils.fromString(listingJson).get("data"), Submission.class);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Snapshots.writeListing(listing, out);
+        listingSnapshot = out.toByteArray();
+
+        JsonNode thread = Fixtures.thread(THREAD_SIZE);
+        treeJson = thread.toString();
+        tree = SubmissionSerializer.withComments(thread, CommentSort.CONFIDENCE).getComments();
+        out = new ByteArrayOutputStream();
+        Snapshots.writeTree(tree, out);
+        treeSnapshot = out.toByteArray();
+
+    }
+
+    @Benchmark
+    public Listing<Submission> readListingJson() {
+        return new Listing<>(JrawUtils.fromString(listingJson).get("data"), Submission.class);
+    }
+
+    @Benchmark
+    public Listing<Submission> readListingSnapshot() throws IOException {
+        return Snapshots.readListing(new ByteArrayInputStream(listingSnapshot), Submission.class);
+    }
+
+    @Benchmark
+    public byte[] writeListingSnapshot() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(listingSnapshot.length);
+        Snapshots.writeListing(listing, out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public CommentNode readTreeJson() {
+        return SubmissionSerializer.withComments(JrawUtils.fromString(treeJson), CommentSort.CONFIDENCE).getComments();
+    }
+
+    @Benchmark
+    public CommentNode readTreeSnapshot() throws IOException {
+        return Snapshots.readTree(new ByteArrayInputStream(treeSnapshot));
+    }
+
+    @Benchmark
+    public byte[] writeTreeSnapshot() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(treeSnapshot.length);
+        Snapshots.writeTree(tree, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,54 @@
+package net.dean.jraw.http;
+
+import net.dean.jraw.benchmark.Fixtures;
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.Submission;
+import okhttp3.Headers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures turning a response body into a Listing, the way {@link RestClient} does for every response. Lives in this
+ * package to use RestResponse's package-private constructor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ResponseBenchmark {
+    private HttpRequest origin;
+    private Headers headers;
+    private String body;
+
+    @Setup
+    public void setUp() {
+        origin = new HttpRequest.Builder()
+                .host("oauth.reddit.com")
+                .path("/r/programming/hot")
+                .build();
+        headers = Headers.of("Content-Type", "application/json; charset=UTF-8");
+        body = Fixtures.read("listing.json");
+    }
+
+    @Benchmark
+    public RestResponse parse() {
+        return new RestResponse(origin, body, headers, 200, "OK", "http/1.1");
+    }
+
+    @Benchmark
+    public Listing<Submission> parseListing() {
+        return new RestResponse(origin, body, headers, 200, "OK", "http/1.1").asListing(Submission.class);
+    }
+}
@@ -1,6 +1,14 @@
 package net.dean.jraw;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import net.dean.jraw.auth.AuthenticationListener;
 import net.dean.jraw.http.*;
 import net.dean.jraw.http.oauth.Credentials;
@@ -14,11 +22,16 @@ import net.dean.jraw.paginators.Sorting;
 import net.dean.jraw.paginators.SubredditPaginator;
 import net.dean.jraw.util.JrawUtils;
 
+import java.io.IOException;
 import java.lang.System;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class provides a gateway to the services this library provides
@@ -33,6 +46,8 @@ public class RedditClient extends RestClient {
 
     /** The default amount of times a request will be retried if a server-side error is encountered. */
     public static final int DEFAULT_RETRY_LIMIT = 5;
+    /** The maximum amount of fullnames that can be looked up in one request to /api/info */
+    public static final int MAX_INFO_FULLNAMES = 100;
     /** The amount of trending subreddits that appear in each /r/trendingsubreddits post */
     private static final int NUM_TRENDING_SUBREDDITS = 5;
     private static final String HEADER_AUTHORIZATION = "Authorization";
@@ -41,13 +56,16 @@ public class RedditClient extends RestClient {
     /** The username of the user who is currently authenticated */
     private String authenticatedUser;
     private boolean adjustRatelimit;
-    private int retryLimit;
+    private volatile RetryPolicy retryPolicy;
+    private volatile CircuitBreaker circuitBreaker;
+    private ScheduledExecutorService retryExecutor;
 
     /** The method of authentication currently being used */
-    private AuthenticationMethod authMethod;
+    private volatile AuthenticationMethod authMethod;
     private AuthenticationListener authListener;
-    private OAuthData authData;
+    private volatile OAuthData authData;
     private OAuthHelper authHelper;
+    private ThingCache thingCache;
 
     /**
      * Instantiates a new RedditClient and adds the given user agent to the default headers
@@ -69,7 +87,7 @@ public class RedditClient extends RestClient {
         this.authMethod = AuthenticationMethod.NOT_YET;
         this.authHelper = new OAuthHelper(this);
         this.adjustRatelimit = true;
-        this.retryLimit = DEFAULT_RETRY_LIMIT;
+        this.retryPolicy = RetryPolicy.DEFAULT;
         setHttpsDefault(true);
     }
 
@@ -139,32 +157,171 @@ public class RedditClient extends RestClient {
 
     @Override
     public RestResponse execute(HttpRequest request) throws NetworkException, InvalidScopeException {
-        return execute(request, 0);
+        long delay = 0;
+        for (int retryCount = 0; ; retryCount++) {
+            CircuitBreaker breaker = circuitBreaker;
+            allow(breaker, request);
+
+            RestResponse response;
+            try {
+                response = super.execute(request);
+            } catch (RuntimeException e) {
+                recordResult(breaker, request, e);
+                if (!(e instanceof NetworkException))
+                    throw e;
+                // Throws the appropriate exception if the request shouldn't be retried
+                delay = checkRetry((NetworkException) e, retryCount, delay);
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ie) {
+                    // Give up on the request, but let the caller know it was interrupted
+                    Thread.currentThread().interrupt();
+                    e.addSuppressed(ie);
+                    throw e;
+                }
+                continue;
+            }
+            recordResult(breaker, request, null);
+
+            if (adjustRatelimit && !response.isFromCache())
+                adjustRatelimit(response);
+            return response;
+        }
     }
 
-    private RestResponse execute(HttpRequest request, int retryCount) throws NetworkException, InvalidScopeException {
-        RestResponse response;
+    @Override
+    public ListenableFuture<RestResponse> executeAsync(HttpRequest request) {
+        return Futures.transform(executeAsync(request, 0, 0), new Function<RestResponse, RestResponse>() {
+            @Override
+            public RestResponse apply(RestResponse input) {
+                if (adjustRatelimit && !input.isFromCache())
+                    adjustRatelimit(input);
+                return input;
+            }
+        });
+    }
+
+    private ListenableFuture<RestResponse> executeAsync(final HttpRequest request, final int retryCount,
+                                                        final long previousDelay) {
+        final CircuitBreaker breaker = circuitBreaker;
         try {
-            response = super.execute(request);
-        } catch (NetworkException e) {
-            RestResponse errorResponse = e.getResponse();
-            final int code = errorResponse.getStatusCode();
-            if (code == 403 && errorResponse.getHeaders().get("WWW-Authenticate") != null) {
-                // Invalid scope
-                throw new InvalidScopeException(errorResponse.getOrigin().getUrl());
-            } else if (code >= 500 && code < 600) {
-                // Server-side error, retry
-                if (retryCount++ > retryLimit) {
-                    throw new IllegalStateException("Reached retry limit", e);
+            allow(breaker, request);
+        } catch (CircuitOpenException e) {
+            return Futures.immediateFailedFuture(e);
+        }
+
+        ListenableFuture<RestResponse> attempt = super.executeAsync(request);
+        if (breaker != null) {
+            Futures.addCallback(attempt, new FutureCallback<RestResponse>() {
+                @Override
+                public void onSuccess(RestResponse result) {
+                    recordResult(breaker, request, null);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    recordResult(breaker, request, t);
                 }
-                return execute(request, retryCount);
+            }, MoreExecutors.directExecutor());
+        }
+
+        return Futures.catchingAsync(attempt, NetworkException.class, new AsyncFunction<NetworkException, RestResponse>() {
+            @Override
+            public ListenableFuture<RestResponse> apply(NetworkException e) {
+                final long delay = checkRetry(e, retryCount, previousDelay);
+                if (delay == 0)
+                    return executeAsync(request, retryCount + 1, delay);
+
+                // Wait without blocking a thread
+                final SettableFuture<RestResponse> retry = SettableFuture.create();
+                getRetryExecutor().schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        retry.setFuture(executeAsync(request, retryCount + 1, delay));
+                    }
+                }, delay, TimeUnit.MILLISECONDS);
+                return retry;
             }
+        });
+    }
+
+    /**
+     * Determines if a request that failed with the given exception should be retried. Returns how long to wait before
+     * retrying if it should, otherwise the appropriate exception is thrown.
+     *
+     * @param e The exception the request failed with
+     * @param retryCount How many times the request has already been retried
+     * @param previousDelay How long was waited before the previous attempt in milliseconds
+     * @return How long to wait before retrying in milliseconds
+     */
+    private long checkRetry(NetworkException e, int retryCount, long previousDelay)
+            throws NetworkException, InvalidScopeException {
+        RestResponse errorResponse = e.getResponse();
+        final int code = errorResponse.getStatusCode();
+        RequestListener listener = getRequestListener();
+        if (code == 403 && errorResponse.getHeaders().get("WWW-Authenticate") != null) {
+            // Invalid scope
+            if (listener != null)
+                listener.invalidScope(errorResponse.getOrigin());
+            throw new InvalidScopeException(errorResponse.getOrigin().getUrl());
+        }
+
+        RetryPolicy policy = retryPolicy;
+        if (!policy.shouldRetry(errorResponse, retryCount))
+            throw e;
+        if (listener != null)
+            listener.retrying(errorResponse.getOrigin(), retryCount);
+        return policy.getDelay(errorResponse, previousDelay);
+    }
+
+    /** Throws a CircuitOpenException if the breaker (if there is one) won't let the request through */
+    private void allow(CircuitBreaker breaker, HttpRequest request) throws CircuitOpenException {
+        if (breaker == null)
+            return;
+        try {
+            breaker.allow(request);
+        } catch (CircuitOpenException e) {
+            RequestListener listener = getRequestListener();
+            if (listener != null)
+                listener.circuitRejected(request);
             throw e;
         }
+    }
+
+    /**
+     * Tells the breaker (if there is one) how a request it let through went
+     *
+     * @param error What the request failed with, or null if it succeeded
+     */
+    private void recordResult(CircuitBreaker breaker, HttpRequest request, Throwable error) {
+        if (breaker == null)
+            return;
+        boolean healthy;
+        if (error instanceof NetworkException) {
+            int code = ((NetworkException) error).getResponse().getStatusCode();
+            healthy = code != 429 && (code < 500 || code >= 600);
+        } else {
+            // Anything other than not being able to reach the server is a problem with the request or the response
+            healthy = error == null || !(error.getCause() instanceof IOException);
+        }
+
+        if (breaker.recordResult(request, healthy)) {
+            JrawUtils.logger().warn("Too many failed requests to {}, opening its circuit", request.getUrl().getPath());
+            RequestListener listener = getRequestListener();
+            if (listener != null)
+                listener.circuitOpened(request);
+        }
+    }
 
-        if (adjustRatelimit)
-            adjustRatelimit(response);
-        return response;
+    /** Lazily creates the executor that sends asynchronous requests again after waiting for the retry delay */
+    private synchronized ScheduledExecutorService getRetryExecutor() {
+        if (retryExecutor == null) {
+            retryExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("jraw-retry-%d")
+                    .build());
+        }
+        return retryExecutor;
     }
 
     /** Adjust rate limit dynamically based off of X-Ratelimit-{Remaining,Reset} headers. */
@@ -186,13 +343,7 @@ public class RedditClient extends RestClient {
             remaining = 600.0;
         }
 
-        double resetMinutes = reset / 60.0;
-        int requestsPerMinute = (int) Math.floor(remaining / resetMinutes);
-        // Prevent an IllegalArgumentException
-        if (requestsPerMinute < 1) {
-            requestsPerMinute = 1;
-        }
-        setRatelimit(requestsPerMinute);
+        getRatelimiter().update(remaining, reset);
     }
 
     /** Checks whether the ratelimit will be changed based on specific headers returned from Reddit API responses. */
@@ -210,19 +361,62 @@ public class RedditClient extends RestClient {
 
     /** Gets the amount of times a request will be retried if a server-side error is encountered. */
     public int getRetryLimit() {
-        return retryLimit;
+        return retryPolicy.getMaxRetries();
     }
 
     /**
-     * Sets the amount of times a request will be retried if a server-side error is encountered. A negative value is not
-     * accepted.
+     * Sets the amount of times a request will be retried if a server-side error is encountered, keeping the rest of the
+     * {@link RetryPolicy}. A negative value is not accepted.
      *
      * @see #DEFAULT_RETRY_LIMIT
      */
     public void setRetryLimit(int retryLimit) {
         if (retryLimit < 0)
             throw new IllegalArgumentException("Limit cannot be less than 0");
-        this.retryLimit = retryLimit;
+        this.retryPolicy = retryPolicy.newBuilder().maxRetries(retryLimit).build();
+    }
+
+    /** Gets the policy that decides which failed requests are sent again, and when */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Sets the policy that decides which failed requests are sent again, and when. Defaults to
+     * {@link RetryPolicy#DEFAULT}. Use {@link RetryPolicy#NONE} to never retry requests. Once a request won't be retried
+     * anymore, the NetworkException of its last attempt is thrown.
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        if (retryPolicy == null)
+            throw new NullPointerException("retryPolicy cannot be null");
+        this.retryPolicy = retryPolicy;
+    }
+
+    /** Gets the CircuitBreaker that stops requests to endpoints that keep failing, or null if there is none */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Sets the CircuitBreaker that stops requests to endpoints that keep failing. While an endpoint's circuit is open,
+     * requests to it fail with a {@link CircuitOpenException} without being sent. Retries go through the breaker too.
+     * Set to null to disable, which is the default.
+     */
+    public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /** Gets the cache used by {@link #get(String...)}, {@link #getSubmission(String)} and {@link #getSubreddit(String)} */
+    public ThingCache getThingCache() {
+        return thingCache;
+    }
+
+    /**
+     * Sets the cache used by {@link #get(String...)}, {@link #getSubmission(String)} and {@link #getSubreddit(String)},
+     * or null to always request Things from reddit. Not set by default.
+     */
+    public void setThingCache(ThingCache thingCache) {
+        this.thingCache = thingCache;
     }
 
     /** Checks if this RedditClient is current authenticated. */
@@ -267,7 +461,19 @@ public class RedditClient extends RestClient {
      * @throws NetworkException If the request was not successful
      */
     public Submission getSubmission(String id) throws NetworkException {
-        return getSubmission(new SubmissionRequest(id));
+        ThingCache cache = thingCache;
+        String fullname = Model.Kind.LINK.getValue() + "_" + id;
+        if (cache != null) {
+            // Submissions returned by get(String...) don't have any comments
+            Thing cached = cache.get(fullname);
+            if (cached instanceof Submission && ((Submission) cached).getComments() != null)
+                return (Submission) cached;
+        }
+
+        Submission submission = getSubmission(new SubmissionRequest(id));
+        if (cache != null)
+            cache.put(submission);
+        return submission;
     }
 
     @EndpointImplementation(Endpoints.COMMENTS_ARTICLE)
@@ -306,6 +512,13 @@ public class RedditClient extends RestClient {
      */
     @EndpointImplementation(Endpoints.SUBREDDIT_ABOUT)
     public Subreddit getSubreddit(String name) throws NetworkException {
+        ThingCache cache = thingCache;
+        if (cache != null) {
+            Subreddit cached = cache.getSubreddit(name);
+            if (cached != null)
+                return cached;
+        }
+
         RestResponse response;
         try {
             response = execute(request()
@@ -321,7 +534,10 @@ public class RedditClient extends RestClient {
         String kind = response.getJson().get("kind").textValue();
         if (kind.startsWith(Model.Kind.LISTING.getValue()))
             throw new IllegalArgumentException("Subreddit does not exist");
-        return response.as(Subreddit.class);
+        Subreddit subreddit = response.as(Subreddit.class);
+        if (cache != null)
+            cache.put(subreddit);
+        return subreddit;
     }
 
     /**
@@ -493,7 +709,7 @@ public class RedditClient extends RestClient {
                 .endpoint(Endpoints.RECOMMEND_SR_SRNAMES, JrawUtils.join(subreddits))
                 .query("omit", omit != null ? JrawUtils.join(omit) : "")
                 .build());
-        JsonNode json = JrawUtils.fromString(response.getRaw());
+        JsonNode json = response.getJson();
         List<String> recommendations = new ArrayList<>();
         for (JsonNode node : json) {
             recommendations.add(node.get("sr_name").asText());
@@ -503,7 +719,10 @@ public class RedditClient extends RestClient {
     }
 
     /**
-     * Gets a Listing of the given fullnames. Only submissions, comments, and subreddits will be returned
+     * Gets a Listing of the given fullnames. Only submissions, comments, and subreddits will be returned. If a
+     * {@link ThingCache} is set, only the fullnames that aren't cached are requested, and the Things are returned in the
+     * order their fullnames were given. More than {@link #MAX_INFO_FULLNAMES} fullnames are requested in several
+     * batches. To combine lookups of single fullnames made by different threads, use a {@link ThingLoader}.
      * @param fullNames A list of fullnames
      * @return A Listing of Things
      * @throws NetworkException If the request was not successful
@@ -519,6 +738,59 @@ public class RedditClient extends RestClient {
                 JrawUtils.logger().warn("Name '{}' is not a submission, comment, or subreddit", name);
             }
         }
+
+        ThingCache cache = thingCache;
+        if (cache == null)
+            return getInfo(fullNames);
+
+        Map<String, Thing> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String name : fullNames) {
+            Thing cached = name == null ? null : cache.get(name);
+            if (cached != null)
+                found.put(name, cached);
+            else
+                missing.add(name);
+        }
+
+        if (found.isEmpty()) {
+            Listing<Thing> listing = getInfo(fullNames);
+            for (Thing thing : listing) {
+                cache.put(thing);
+            }
+            return listing;
+        }
+
+        if (!missing.isEmpty()) {
+            for (Thing thing : getInfo(missing.toArray(new String[missing.size()]))) {
+                cache.put(thing);
+                found.put(thing.getFullName(), thing);
+            }
+        }
+
+        List<Thing> things = new ArrayList<>(fullNames.length);
+        for (String name : fullNames) {
+            // Things that were deleted or don't exist aren't returned
+            Thing thing = found.get(name);
+            if (thing != null)
+                things.add(thing);
+        }
+        return new Listing<>(things, Thing.class);
+    }
+
+    private Listing<Thing> getInfo(String... fullNames) throws NetworkException {
+        if (fullNames.length <= MAX_INFO_FULLNAMES)
+            return getInfoBatch(fullNames);
+
+        List<Thing> things = new ArrayList<>(fullNames.length);
+        for (int i = 0; i < fullNames.length; i += MAX_INFO_FULLNAMES) {
+            things.addAll(getInfoBatch(Arrays.copyOfRange(fullNames, i,
+                    Math.min(fullNames.length, i + MAX_INFO_FULLNAMES))));
+        }
+        return new Listing<>(things, Thing.class);
+    }
+
+    private Listing<Thing> getInfoBatch(String... fullNames) throws NetworkException {
         return execute(request()
                 .endpoint(Endpoints.INFO)
                 .query("id", JrawUtils.join(fullNames))
@@ -0,0 +1,240 @@
+package net.dean.jraw;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.http.Ratelimiter;
+import net.dean.jraw.http.SharedRatelimiter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Spreads work over several authenticated RedditClients, for example one for each of several OAuth2 identities, so that
+ * the total amount of requests that can be sent grows with the amount of clients. Every client keeps its own ratelimit,
+ * which is adjusted using the X-Ratelimit headers of the responses it receives.
+ *
+ * <p>Each call to {@link #execute(Task)} is given to a client whose ratelimit allows a request to be sent right away.
+ * Clients are tried in turn, starting after the one that was used last, so the load is spread evenly. When no client
+ * can send a request, callers wait in the order they arrived.
+ *
+ * <pre>{@code
+ * RedditClientPool pool = new RedditClientPool();
+ * pool.add(firstAccount);
+ * pool.add(secondAccount);
+ * Submission submission = pool.execute(new RedditClientPool.Task<Submission>() {
+ *     public Submission run(RedditClient reddit) {
+ *         return reddit.getSubmission("92dd8");
+ *     }
+ * });
+ * }</pre>
+ *
+ * <p>The first request a task sends uses the ratelimit ticket that was taken when the client was chosen. Any further
+ * requests are subject to the client's ratelimit as usual.
+ */
+public class RedditClientPool {
+    /** The longest time to wait before checking the clients' ratelimits again, in milliseconds */
+    private static final long MAX_POLL_INTERVAL = 1000;
+    private static final long MIN_POLL_INTERVAL = 10;
+
+    /** Work to be done using one of the pool's clients */
+    public interface Task<T> {
+        /**
+         * Does the work
+         *
+         * @param reddit The client chosen to do the work
+         * @throws NetworkException If a request was not successful
+         */
+        T run(RedditClient reddit) throws NetworkException;
+    }
+
+    private final List<Member> members;
+    /** Makes waiting callers take turns in the order they arrived */
+    private final ReentrantLock queue;
+    private int next;
+
+    /** Instantiates a new, empty RedditClientPool */
+    public RedditClientPool() {
+        this.members = new CopyOnWriteArrayList<>();
+        this.queue = new ReentrantLock(true);
+        this.next = 0;
+    }
+
+    /**
+     * Adds a client to the pool. The client is given its own ratelimit of 600 requests every 10 minutes, which will be
+     * adjusted using the headers of its responses.
+     */
+    public void add(RedditClient reddit) {
+        add(reddit, new SharedRatelimiter());
+    }
+
+    /**
+     * Adds a client to the pool
+     *
+     * @param reddit The client to add. Should be authenticated as a different identity than the other clients, since
+     *               reddit's ratelimit applies per identity.
+     * @param ratelimiter The ratelimit of this client
+     */
+    public void add(RedditClient reddit, Ratelimiter ratelimiter) {
+        for (Member member : members) {
+            if (member.reddit == reddit)
+                throw new IllegalArgumentException("Client is already in this pool");
+        }
+        PrepaidRatelimiter prepaid = new PrepaidRatelimiter(ratelimiter);
+        reddit.setRatelimiter(prepaid);
+        reddit.setAdjustRatelimit(true);
+        members.add(new Member(reddit, prepaid));
+    }
+
+    /**
+     * Removes a client from the pool. Its ratelimiter is left in place.
+     *
+     * @return If the client was in this pool
+     */
+    public boolean remove(RedditClient reddit) {
+        for (Member member : members) {
+            if (member.reddit == reddit)
+                return members.remove(member);
+        }
+        return false;
+    }
+
+    /** Gets the clients in this pool */
+    public List<RedditClient> getClients() {
+        List<RedditClient> clients = new ArrayList<>(members.size());
+        for (Member member : members) {
+            clients.add(member.reddit);
+        }
+        return Collections.unmodifiableList(clients);
+    }
+
+    /** Gets the total amount of requests per minute that the clients in this pool are currently allowed to send */
+    public double getRate() {
+        double rate = 0;
+        for (Member member : members) {
+            rate += member.ratelimiter.getRate();
+        }
+        return rate;
+    }
+
+    /**
+     * Waits until one of the clients can send a request, and then runs the task with that client on the calling thread
+     *
+     * @throws IllegalStateException If the pool is empty
+     * @throws NetworkException If the task threw it
+     */
+    public <T> T execute(Task<T> task) throws NetworkException {
+        Member member = acquire();
+        member.ratelimiter.prepay();
+        try {
+            return task.run(member.reddit);
+        } finally {
+            member.ratelimiter.clearPrepaid();
+        }
+    }
+
+    /** Takes a ratelimit ticket from the next client that has one available, waiting for one if necessary */
+    private Member acquire() {
+        queue.lock();
+        try {
+            while (true) {
+                List<Member> current = new ArrayList<>(members);
+                if (current.isEmpty())
+                    throw new IllegalStateException("There are no clients in this pool");
+
+                for (int i = 0; i < current.size(); i++) {
+                    int index = (next + i) % current.size();
+                    Member member = current.get(index);
+                    if (member.ratelimiter.delegate.tryAcquire()) {
+                        next = index + 1;
+                        return member;
+                    }
+                }
+
+                Uninterruptibles.sleepUninterruptibly(pollInterval(current), TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            queue.unlock();
+        }
+    }
+
+    /** Aims to check about twice for every request the pool as a whole is allowed to send */
+    private static long pollInterval(List<Member> members) {
+        double rate = 0;
+        for (Member member : members) {
+            rate += member.ratelimiter.getRate();
+        }
+        if (rate <= 0)
+            return MAX_POLL_INTERVAL;
+        long interval = (long) (TimeUnit.MINUTES.toMillis(1) / rate / 2);
+        return Math.max(MIN_POLL_INTERVAL, Math.min(MAX_POLL_INTERVAL, interval));
+    }
+
+    private static final class Member {
+        private final RedditClient reddit;
+        private final PrepaidRatelimiter ratelimiter;
+
+        private Member(RedditClient reddit, PrepaidRatelimiter ratelimiter) {
+            this.reddit = reddit;
+            this.ratelimiter = ratelimiter;
+        }
+    }
+
+    /**
+     * Wraps a client's Ratelimiter so that the ticket taken by the pool when choosing the client is used by the first
+     * request the task sends, instead of that request taking a second ticket
+     */
+    private static final class PrepaidRatelimiter implements Ratelimiter {
+        private final Ratelimiter delegate;
+        private final ThreadLocal<Boolean> prepaid;
+
+        private PrepaidRatelimiter(Ratelimiter delegate) {
+            this.delegate = delegate;
+            this.prepaid = new ThreadLocal<>();
+        }
+
+        private void prepay() {
+            prepaid.set(Boolean.TRUE);
+        }
+
+        private void clearPrepaid() {
+            prepaid.remove();
+        }
+
+        /** Uses the prepaid ticket of the current thread, if it has one */
+        private boolean usePrepaid() {
+            if (prepaid.get() == null)
+                return false;
+            prepaid.remove();
+            return true;
+        }
+
+        @Override
+        public double acquire() {
+            return usePrepaid() ? 0 : delegate.acquire();
+        }
+
+        @Override
+        public boolean tryAcquire() {
+            return usePrepaid() || delegate.tryAcquire();
+        }
+
+        @Override
+        public double getRate() {
+            return delegate.getRate();
+        }
+
+        @Override
+        public void setRate(int requestsPerMinute) {
+            delegate.setRate(requestsPerMinute);
+        }
+
+        @Override
+        public void update(double remaining, int reset) {
+            delegate.update(remaining, reset);
+        }
+    }
+}
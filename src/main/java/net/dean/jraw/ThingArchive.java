@@ -0,0 +1,370 @@
+package net.dean.jraw;
+
+import net.dean.jraw.models.Subreddit;
+import net.dean.jraw.models.Thing;
+import net.dean.jraw.models.meta.Snapshots;
+import net.dean.jraw.util.JrawUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * An append-only file of {@link Thing Things} keyed by their fullnames, with indices by subreddit, author and creation
+ * time. Things that were crawled once, for example using a {@link net.dean.jraw.paginators.Paginator} or a
+ * {@link net.dean.jraw.paginators.CommentStream}, can be written here with {@link #putAll(Iterable)} and read again
+ * after a restart without sending any requests:
+ *
+ * <pre>{@code
+ * try (ThingArchive archive = new ThingArchive(new File("pics.jraw"))) {
+ *     SubredditPaginator paginator = new SubredditPaginator(reddit, "pics");
+ *     while (paginator.hasNext()) {
+ *         archive.putAll(paginator.next());
+ *     }
+ *     List<Thing> recent = archive.getCreatedBetween(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1),
+ *             System.currentTimeMillis());
+ * }
+ * }</pre>
+ *
+ * <p>Every Thing is stored as a {@link Snapshots snapshot}. Putting a Thing whose fullname is already in the archive
+ * appends the new version, which replaces the old one. The file is read through a memory mapping, and the indices are
+ * kept in memory and rebuilt from the file when it is opened, which only reads the small header of each record. An
+ * archive file can hold up to 2 GB; use several archives, for example one per subreddit or per month, to store more.
+ *
+ * <p>This class is thread-safe. A file must only be opened by one ThingArchive at a time.
+ */
+public class ThingArchive implements Closeable {
+    private static final byte[] MAGIC = {'J', 'R', 'A', 'W', 'A', 'R', 'C'};
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = MAGIC.length + 1;
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    /** The latest version of every Thing, keyed by fullname */
+    private final Map<String, Record> records;
+    private final Map<String, Set<String>> bySubreddit;
+    private final Map<String, Set<String>> byAuthor;
+    private final NavigableMap<Long, Set<String>> byCreated;
+    private MappedByteBuffer mapped;
+    private long end;
+
+    /**
+     * Opens an archive, creating it if it does not exist
+     *
+     * @throws IOException If the file could not be opened or is not an archive
+     */
+    public ThingArchive(File file) throws IOException {
+        this.file = new RandomAccessFile(file, "rw");
+        this.channel = this.file.getChannel();
+        this.records = new HashMap<>();
+        this.bySubreddit = new HashMap<>();
+        this.byAuthor = new HashMap<>();
+        this.byCreated = new TreeMap<>();
+
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.put(MAGIC).put((byte) VERSION).flip();
+                write(header, 0);
+                this.end = HEADER_SIZE;
+            } else {
+                load();
+            }
+        } catch (IOException | RuntimeException e) {
+            this.file.close();
+            throw e;
+        }
+    }
+
+    /** Reads the header of every record to rebuild the indices */
+    private void load() throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE)
+            throw new IOException("Archive is larger than 2 GB");
+        ByteBuffer buffer = map(size);
+
+        for (byte b : MAGIC) {
+            if (buffer.remaining() == 0 || buffer.get() != b)
+                throw new IOException("Not a JRAW archive");
+        }
+        int version = buffer.remaining() == 0 ? -1 : buffer.get();
+        if (version != VERSION)
+            throw new IOException("Unsupported archive version: " + version);
+
+        while (buffer.remaining() > 0) {
+            int offset = buffer.position();
+            if (buffer.remaining() < 4 || buffer.getInt(offset) < 0 || buffer.remaining() - 4 < buffer.getInt(offset)) {
+                // The process writing the archive was stopped while writing this record
+                JrawUtils.logger().warn("Discarding incomplete record at the end of the archive (offset {})", offset);
+                mapped = null;
+                channel.truncate(offset);
+                break;
+            }
+
+            int length = buffer.getInt();
+            String fullname = readString(buffer);
+            String subreddit = readString(buffer);
+            String author = readString(buffer);
+            long created = buffer.getLong();
+            index(new Record(fullname, subreddit, author, created, offset));
+            buffer.position(offset + 4 + length);
+        }
+        this.end = buffer.position();
+    }
+
+    /**
+     * Adds a Thing to the archive, replacing any other version of it
+     *
+     * @throws IOException If the Thing could not be written
+     */
+    public void put(Thing thing) throws IOException {
+        putAll(Collections.singletonList(thing));
+    }
+
+    /**
+     * Adds several Things to the archive, for example a page returned by a Paginator. Things whose fullnames are already
+     * in the archive are replaced.
+     *
+     * @throws IOException If the Things could not be written
+     */
+    public synchronized void putAll(Iterable<? extends Thing> things) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        List<Record> added = new ArrayList<>();
+
+        for (Thing thing : things) {
+            JsonNode data = thing.getDataNode();
+            String subreddit = thing instanceof Subreddit ? ((Subreddit) thing).getDisplayName() : text(data, "subreddit");
+            String author = text(data, "author");
+            JsonNode createdNode = data.get("created_utc");
+            long created = createdNode == null || !createdNode.isNumber() ? NO_DATE : (long) (createdNode.asDouble() * 1000);
+            byte[] snapshot = Snapshots.toBytes(thing);
+
+            int start = out.size();
+            // The length is filled in once the rest of the record has been written
+            out.writeInt(0);
+            writeString(out, thing.getFullName());
+            writeString(out, subreddit);
+            writeString(out, author);
+            out.writeLong(created);
+            out.write(snapshot);
+            added.add(new Record(thing.getFullName(), subreddit, author, created, end + start));
+        }
+        if (added.isEmpty())
+            return;
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        for (int i = 0; i < added.size(); i++) {
+            int start = (int) (added.get(i).offset - end);
+            int next = i + 1 < added.size() ? (int) (added.get(i + 1).offset - end) : buffer.limit();
+            buffer.putInt(start, next - start - 4);
+        }
+        if (end + buffer.limit() > Integer.MAX_VALUE)
+            throw new IOException("Archive would be larger than 2 GB");
+
+        write(buffer, end);
+        end += buffer.limit();
+        for (Record record : added) {
+            index(record);
+        }
+    }
+
+    /**
+     * Gets the latest version of a Thing
+     *
+     * @return The Thing, or null if it is not in the archive
+     * @throws IOException If the Thing could not be read
+     */
+    public synchronized Thing get(String fullname) throws IOException {
+        Record record = records.get(fullname);
+        return record == null ? null : read(record);
+    }
+
+    /** Checks if a Thing with the given fullname is in the archive */
+    public synchronized boolean contains(String fullname) {
+        return records.containsKey(fullname);
+    }
+
+    /**
+     * Gets every Thing that was posted in the given subreddit, or the subreddit itself, in the order they were last
+     * added
+     */
+    public synchronized List<Thing> getBySubreddit(String subreddit) throws IOException {
+        return read(bySubreddit.get(subreddit.toLowerCase()));
+    }
+
+    /** Gets every Thing written by the given user, in the order they were last added */
+    public synchronized List<Thing> getByAuthor(String author) throws IOException {
+        return read(byAuthor.get(author.toLowerCase()));
+    }
+
+    /**
+     * Gets every Thing created within the given time span, oldest first
+     *
+     * @param from The earliest creation time in milliseconds since the epoch, inclusive
+     * @param to The latest creation time in milliseconds since the epoch, exclusive
+     */
+    public synchronized List<Thing> getCreatedBetween(long from, long to) throws IOException {
+        List<String> fullnames = new ArrayList<>();
+        for (Set<String> set : byCreated.subMap(from, true, to, false).values()) {
+            fullnames.addAll(set);
+        }
+        return read(fullnames);
+    }
+
+    /** Gets how many Things are in the archive, not counting old versions */
+    public synchronized int size() {
+        return records.size();
+    }
+
+    /** Makes sure everything that has been added is stored on the disk */
+    public synchronized void flush() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            channel.force(false);
+        } finally {
+            file.close();
+            mapped = null;
+        }
+    }
+
+    private void index(Record record) {
+        Record old = records.put(record.fullname, record);
+        if (old != null) {
+            remove(bySubreddit, old.subreddit, old.fullname);
+            remove(byAuthor, old.author, old.fullname);
+            remove(byCreated, old.created, old.fullname);
+        }
+        add(bySubreddit, record.subreddit, record.fullname);
+        add(byAuthor, record.author, record.fullname);
+        add(byCreated, record.created, record.fullname);
+    }
+
+    private static <K> void add(Map<K, Set<String>> index, K key, String fullname) {
+        if (key == null || (key instanceof Long && (Long) key == NO_DATE))
+            return;
+        Set<String> set = index.get(key);
+        if (set == null) {
+            set = new LinkedHashSet<>();
+            index.put(key, set);
+        }
+        set.add(fullname);
+    }
+
+    private static <K> void remove(Map<K, Set<String>> index, K key, String fullname) {
+        Set<String> set = index.get(key);
+        if (set != null) {
+            set.remove(fullname);
+            if (set.isEmpty())
+                index.remove(key);
+        }
+    }
+
+    private List<Thing> read(Collection<String> fullnames) throws IOException {
+        if (fullnames == null)
+            return new ArrayList<>();
+        List<Thing> things = new ArrayList<>(fullnames.size());
+        for (String fullname : fullnames) {
+            things.add(read(records.get(fullname)));
+        }
+        return things;
+    }
+
+    private Thing read(Record record) throws IOException {
+        ByteBuffer buffer = map(end);
+        buffer.position((int) record.offset);
+        int length = buffer.getInt();
+        int recordEnd = buffer.position() + length;
+        // Skip the header
+        readString(buffer);
+        readString(buffer);
+        readString(buffer);
+        buffer.getLong();
+
+        byte[] snapshot = new byte[recordEnd - buffer.position()];
+        buffer.get(snapshot);
+        return Snapshots.fromBytes(snapshot, Thing.class);
+    }
+
+    /** Returns a view of the file's mapping that covers at least {@code size} bytes */
+    private ByteBuffer map(long size) throws IOException {
+        if (mapped == null || mapped.capacity() < size) {
+            // Things that were added since the last mapping are not covered by it
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        ByteBuffer view = mapped.duplicate();
+        view.limit((int) size);
+        return view;
+    }
+
+    private void write(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static String text(JsonNode data, String key) {
+        JsonNode node = data.get(key);
+        return node == null || node.isNull() ? null : node.asText();
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeShort(-1);
+        } else {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeShort(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0)
+            return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** The location and index keys of one version of a Thing */
+    private static final class Record {
+        private final String fullname;
+        private final String subreddit;
+        private final String author;
+        private final long created;
+        private final long offset;
+
+        private Record(String fullname, String subreddit, String author, long created, long offset) {
+            this.fullname = fullname;
+            this.subreddit = subreddit == null ? null : subreddit.toLowerCase();
+            this.author = author == null ? null : author.toLowerCase();
+            this.created = created;
+            this.offset = offset;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package net.dean.jraw;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import net.dean.jraw.models.Subreddit;
+import net.dean.jraw.models.Thing;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An in-process cache of parsed {@link Thing Things} keyed by their fullnames, which can be given to a RedditClient
+ * using {@link RedditClient#setThingCache(ThingCache)}. Things are evicted once they're older than the time to live, or
+ * once there are more than the maximum amount of them, least recently used first. Thread-safe.
+ *
+ * <p>Cached Things are shared between everyone who asks for them and are not updated, so votes, scores and the like
+ * will be as old as the time to live.
+ */
+public class ThingCache {
+    private final Cache<String, Thing> things;
+    /** Maps lowercase subreddit names to their fullnames */
+    private final Cache<String, String> subredditNames;
+
+    /**
+     * Instantiates a new ThingCache
+     *
+     * @param maxSize The maximum amount of Things to keep
+     * @param ttl How long a Thing will be kept after it has been added
+     * @param unit The unit of {@code ttl}
+     */
+    public ThingCache(long maxSize, long ttl, TimeUnit unit) {
+        this.things = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl, unit)
+                .recordStats()
+                .build();
+        this.subredditNames = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl, unit)
+                .build();
+    }
+
+    /** Gets the Thing with the given fullname, or null if it isn't cached */
+    public Thing get(String fullname) {
+        return things.getIfPresent(fullname);
+    }
+
+    /** Gets the Subreddit with the given name, or null if it isn't cached */
+    public Subreddit getSubreddit(String name) {
+        String fullname = subredditNames.getIfPresent(name.toLowerCase());
+        if (fullname == null)
+            return null;
+        Thing thing = get(fullname);
+        return thing instanceof Subreddit ? (Subreddit) thing : null;
+    }
+
+    /** Adds a Thing, replacing any other Thing with the same fullname */
+    public void put(Thing thing) {
+        things.put(thing.getFullName(), thing);
+        if (thing instanceof Subreddit) {
+            subredditNames.put(((Subreddit) thing).getDisplayName().toLowerCase(), thing.getFullName());
+        }
+    }
+
+    /** Removes the Thing with the given fullname, if it is cached */
+    public void invalidate(String fullname) {
+        things.invalidate(fullname);
+    }
+
+    /** Removes every Thing */
+    public void invalidateAll() {
+        things.invalidateAll();
+        subredditNames.invalidateAll();
+    }
+
+    /** Gets the approximate amount of cached Things */
+    public long size() {
+        return things.size();
+    }
+
+    /** Gets the hit and miss counts of lookups by fullname */
+    public CacheStats stats() {
+        return things.stats();
+    }
+}
@@ -0,0 +1,180 @@
+package net.dean.jraw;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.models.Thing;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Combines lookups of single fullnames, made by any amount of threads, into requests to /api/info for up to
+ * {@link RedditClient#MAX_INFO_FULLNAMES} fullnames at a time. Lookups are collected for a short window after the first
+ * one, or until a full batch has been collected, and then requested together using {@link RedditClient#get(String...)}
+ * on a background thread. Every caller receives only the Thing it asked for.
+ *
+ * <pre>{@code
+ * ThingLoader loader = new ThingLoader(reddit);
+ * // On any amount of threads
+ * Thing thing = loader.get("t3_92dd8");
+ * }</pre>
+ *
+ * <p>Hydrating a stream of IDs this way takes about one request for every hundred IDs instead of one for each.
+ * Thread-safe.
+ */
+public class ThingLoader implements Closeable {
+    /** The default amount of milliseconds lookups are collected for before they are requested */
+    public static final long DEFAULT_WINDOW = 50;
+
+    private final RedditClient reddit;
+    private final long window;
+    private final ScheduledExecutorService executor;
+    /** Lookups that haven't been requested yet, in the order they were made */
+    private Map<String, SettableFuture<Thing>> pending;
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean closed;
+
+    /**
+     * Instantiates a new ThingLoader that collects lookups for {@link #DEFAULT_WINDOW} milliseconds
+     *
+     * @param reddit The RedditClient that will be used to send HTTP requests
+     */
+    public ThingLoader(RedditClient reddit) {
+        this(reddit, DEFAULT_WINDOW, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Instantiates a new ThingLoader
+     *
+     * @param reddit The RedditClient that will be used to send HTTP requests
+     * @param window How long to collect lookups for after the first one before requesting them. A longer window means
+     *               fuller batches, but lookups take longer.
+     * @param unit The unit of {@code window}
+     */
+    public ThingLoader(RedditClient reddit, long window, TimeUnit unit) {
+        if (window < 0)
+            throw new IllegalArgumentException("window must not be negative");
+        this.reddit = reddit;
+        this.window = unit.toMillis(window);
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("jraw-thing-loader-%d")
+                .build());
+        this.pending = new LinkedHashMap<>();
+    }
+
+    /**
+     * Looks up a Thing by its fullname as part of the next batch
+     *
+     * @param fullname The fullname of a submission, comment or subreddit
+     * @return A future that completes with the Thing, or with null if reddit didn't return it (for example, because it
+     *         doesn't exist). Fails with a NetworkException if the batch's request was not successful.
+     */
+    public synchronized ListenableFuture<Thing> load(String fullname) {
+        if (closed)
+            throw new IllegalStateException("This ThingLoader has been closed");
+        if (fullname == null)
+            throw new NullPointerException("fullname cannot be null");
+
+        SettableFuture<Thing> future = pending.get(fullname);
+        if (future == null) {
+            future = SettableFuture.create();
+            pending.put(fullname, future);
+            if (pending.size() >= RedditClient.MAX_INFO_FULLNAMES) {
+                flush();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = executor.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        flush();
+                    }
+                }, window, TimeUnit.MILLISECONDS);
+            }
+        }
+        // Several callers can be waiting for the same fullname, one of them cancelling shouldn't affect the rest
+        return Futures.nonCancellationPropagating(future);
+    }
+
+    /**
+     * Looks up a Thing by its fullname as part of the next batch, and waits for it
+     *
+     * @param fullname The fullname of a submission, comment or subreddit
+     * @return The Thing, or null if reddit didn't return it
+     * @throws NetworkException If the batch's request was not successful
+     */
+    public Thing get(String fullname) throws NetworkException {
+        try {
+            return Uninterruptibles.getUninterruptibly(load(fullname));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /** Requests every lookup that has been collected so far without waiting for the window to end */
+    public synchronized void flush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        if (pending.isEmpty())
+            return;
+
+        final Map<String, SettableFuture<Thing>> batch = pending;
+        pending = new LinkedHashMap<>();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                request(batch);
+            }
+        });
+    }
+
+    /** Gets the amount of lookups that haven't been requested yet */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /** Requests the lookups that are still pending and then stops the background thread */
+    @Override
+    public synchronized void close() {
+        if (closed)
+            return;
+        flush();
+        closed = true;
+        executor.shutdown();
+    }
+
+    private void request(Map<String, SettableFuture<Thing>> batch) {
+        Map<String, Thing> found = new HashMap<>();
+        try {
+            for (Thing thing : reddit.get(batch.keySet().toArray(new String[batch.size()]))) {
+                found.put(thing.getFullName(), thing);
+            }
+        } catch (Throwable t) {
+            for (SettableFuture<Thing> future : batch.values()) {
+                future.setException(t);
+            }
+            return;
+        }
+
+        for (Map.Entry<String, SettableFuture<Thing>> entry : batch.entrySet()) {
+            entry.getValue().set(found.get(entry.getKey()));
+        }
+    }
+}
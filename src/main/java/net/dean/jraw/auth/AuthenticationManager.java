@@ -1,12 +1,16 @@
 package net.dean.jraw.auth;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import net.dean.jraw.RedditClient;
+import net.dean.jraw.http.AuthenticationMethod;
 import net.dean.jraw.http.oauth.Credentials;
 import net.dean.jraw.http.oauth.OAuthData;
 import net.dean.jraw.http.oauth.OAuthException;
 import net.dean.jraw.http.oauth.OAuthHelper;
+import net.dean.jraw.http.oauth.TokenRefresher;
 
 import java.util.Date;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Helps developers manage the OAuth2 authentication process better, especially if the app will need to be
@@ -23,6 +27,9 @@ import java.util.Date;
  * will automatically be stored in a {@link TokenStore} as long as the RedditClient calls
  * {@link #onAuthenticated(OAuthData)}. A call to {@link #checkAuthState()} will tell a developer exactly what the
  * library knows and how the developer can go about getting the client authenticated.
+ *
+ * <p>Once authenticated, {@link #startAutoRefresh(Credentials)} will keep the access token fresh on a background thread,
+ * so that checking the state and refreshing before sending requests is no longer necessary.
  */
 public final class AuthenticationManager {
     private static final AuthenticationManager INSTANCE = new AuthenticationManager();
@@ -35,6 +42,7 @@ public final class AuthenticationManager {
 
     private RedditClient reddit;
     private RefreshTokenHandler tokenHandler;
+    private TokenRefresher refresher;
 
     private AuthenticationManager() {}
 
@@ -82,18 +90,35 @@ public final class AuthenticationManager {
 
     /**
      * If a refresh token exists already, this method will retrieve a new access token and update the RedditClient with
-     * the new information
+     * the new information. Callers that ask for a refresh at the same time share a single one: if
+     * {@link #startAutoRefresh(Credentials) automatic refreshing} is running, this waits for the TokenRefresher instead
+     * of sending a request of its own, and otherwise a caller that waited while another one refreshed the access token
+     * does not refresh it again.
      *
      * @param credentials The Credentials used to request the initial access token
      */
     public void refreshAccessToken(Credentials credentials) throws NoSuchTokenException, OAuthException {
-        OAuthHelper oauth = getRedditClient().getOAuthHelper();
+        // What the caller saw when it decided a refresh was needed
+        OAuthData seen = getRedditClient().getOAuthData();
+        TokenRefresher refresher;
+        synchronized (this) {
+            refresher = this.refresher;
+        }
+        if (refresher != null) {
+            awaitRefresh(refresher.refresh());
+            return;
+        }
 
-        if (oauth.getRefreshToken() == null) {
-            if (!tokenHandler.isStored(getUsername()))
-                throw new IllegalStateException("Cannot refresh the access token without a refresh token");
-            oauth.setRefreshToken(tokenHandler.readToken(getUsername()));
+        synchronized (this) {
+            // Someone else refreshed the access token while this caller was waiting
+            if (getRedditClient().getOAuthData() != seen)
+                return;
+            refreshInline(credentials);
         }
+    }
+
+    private void refreshInline(Credentials credentials) throws NoSuchTokenException, OAuthException {
+        OAuthHelper oauth = loadRefreshToken();
 
         // Write the refresh token if the client has one and it's either not already stored or the stored version is
         // different from the client's
@@ -105,6 +130,66 @@ public final class AuthenticationManager {
         getRedditClient().authenticate(data);
     }
 
+    /** Waits for a refresh done by the TokenRefresher, rethrowing its exception if it failed */
+    private static void awaitRefresh(ListenableFuture<OAuthData> future) throws OAuthException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OAuthException("Interrupted while waiting for the access token to be refreshed", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof OAuthException)
+                throw (OAuthException) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Starts refreshing the access token on a background thread shortly before it expires. The RedditClient must
+     * already be authenticated. Any refresh token is read from the RefreshTokenHandler now, so that the background
+     * thread doesn't have to.
+     *
+     * @param credentials The Credentials used to request the initial access token
+     * @return The TokenRefresher, which can be used to request a refresh right away
+     * @see TokenRefresher
+     */
+    public synchronized TokenRefresher startAutoRefresh(Credentials credentials) throws NoSuchTokenException {
+        if (refresher != null)
+            throw new IllegalStateException("Already refreshing automatically");
+        if (!credentials.getAuthenticationMethod().isUserless() &&
+                credentials.getAuthenticationMethod() != AuthenticationMethod.SCRIPT)
+            loadRefreshToken();
+
+        refresher = new TokenRefresher(getRedditClient(), credentials);
+        refresher.start();
+        return refresher;
+    }
+
+    /** Stops refreshing the access token in the background, if it was started */
+    public synchronized void stopAutoRefresh() {
+        if (refresher != null) {
+            refresher.close();
+            refresher = null;
+        }
+    }
+
+    /** Makes sure the OAuthHelper has a refresh token, reading it from the RefreshTokenHandler if necessary */
+    private OAuthHelper loadRefreshToken() throws NoSuchTokenException {
+        OAuthHelper oauth = getRedditClient().getOAuthHelper();
+
+        if (oauth.getRefreshToken() == null) {
+            if (!tokenHandler.isStored(getUsername()))
+                throw new IllegalStateException("Cannot refresh the access token without a refresh token");
+            oauth.setRefreshToken(tokenHandler.readToken(getUsername()));
+        }
+        return oauth;
+    }
+
     /**
      * Writes the OAuthData's refresh token to the RefreshTokenHandler. For optimal results this method should be called
      * by the RedditClient's implementation of {@link RedditClient#authenticate(OAuthData)}.
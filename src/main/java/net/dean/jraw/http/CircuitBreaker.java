@@ -0,0 +1,204 @@
+package net.dean.jraw.http;
+
+import net.dean.jraw.Endpoints;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stops sending requests to an endpoint while it appears to be down, so that requests fail right away instead of
+ * waiting for a response that is most likely a server error, and so that a struggling service isn't overwhelmed by
+ * retries. Every endpoint (or, for requests that weren't created for an {@link Endpoints} value, every path) has its
+ * own circuit:
+ *
+ * <ul>
+ *     <li>A circuit starts out {@link State#CLOSED closed}, letting every request through.
+ *     <li>Once a certain amount of requests in a row have failed, it <em>trips</em> and becomes
+ *     {@link State#OPEN open}. Requests are then rejected with a {@link CircuitOpenException} without being sent.
+ *     <li>After a while it becomes {@link State#HALF_OPEN half-open}, letting a single trial request through. If that
+ *     request succeeds the circuit closes again, otherwise it opens for another while.
+ * </ul>
+ *
+ * A request fails if it receives a server error (5xx) or 429 Too Many Requests, or no response at all. Other
+ * unsuccessful responses, such as 404 Not Found, show that the service is working and count as successes.
+ *
+ * <p>Thread-safe. See {@link net.dean.jraw.RedditClient#setCircuitBreaker(CircuitBreaker)}.
+ */
+public class CircuitBreaker {
+    /** The amount of failures in a row after which a circuit opens by default */
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    /** How long a circuit stays open by default before letting a trial request through, in milliseconds */
+    public static final long DEFAULT_OPEN_DURATION = TimeUnit.SECONDS.toMillis(30);
+
+    /** The states a circuit can be in */
+    public enum State {
+        /** Requests are sent normally */
+        CLOSED,
+        /** Requests are rejected without being sent */
+        OPEN,
+        /** A single trial request is let through to see if the endpoint has recovered */
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDuration;
+    private final ConcurrentMap<String, Circuit> circuits;
+    private final AtomicLong tripCount;
+    private final AtomicLong rejectedCount;
+
+    /** Instantiates a new CircuitBreaker using {@link #DEFAULT_FAILURE_THRESHOLD} and {@link #DEFAULT_OPEN_DURATION} */
+    public CircuitBreaker() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_DURATION, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Instantiates a new CircuitBreaker
+     *
+     * @param failureThreshold The amount of failures in a row after which a circuit opens
+     * @param openDuration How long a circuit stays open before letting a trial request through
+     * @param unit The unit of {@code openDuration}
+     */
+    public CircuitBreaker(int failureThreshold, long openDuration, TimeUnit unit) {
+        if (failureThreshold < 1)
+            throw new IllegalArgumentException("failureThreshold must be at least 1");
+        if (openDuration < 0)
+            throw new IllegalArgumentException("openDuration must not be negative");
+        this.failureThreshold = failureThreshold;
+        this.openDuration = unit.toMillis(openDuration);
+        this.circuits = new ConcurrentHashMap<>();
+        this.tripCount = new AtomicLong();
+        this.rejectedCount = new AtomicLong();
+    }
+
+    /**
+     * Checks if a request may be sent. Every request that is allowed must be followed by a call to
+     * {@link #recordResult(HttpRequest, boolean)} once it completes.
+     *
+     * @throws CircuitOpenException If the request's circuit is open
+     */
+    public void allow(HttpRequest request) throws CircuitOpenException {
+        String key = keyOf(request);
+        Circuit circuit = circuitOf(key);
+        long retryAt;
+        synchronized (circuit) {
+            long now = System.currentTimeMillis();
+            if (circuit.state == State.OPEN && now - circuit.openedAt >= openDuration) {
+                circuit.state = State.HALF_OPEN;
+                circuit.trialInFlight = false;
+            }
+            if (circuit.state == State.CLOSED)
+                return;
+            if (circuit.state == State.HALF_OPEN && !circuit.trialInFlight) {
+                circuit.trialInFlight = true;
+                return;
+            }
+            retryAt = circuit.openedAt + openDuration;
+        }
+        rejectedCount.incrementAndGet();
+        throw new CircuitOpenException(key, retryAt);
+    }
+
+    /**
+     * Records the outcome of a request that was allowed by {@link #allow(HttpRequest)}
+     *
+     * @param successful If the request received a response that shows the endpoint is working
+     * @return True if this caused the circuit to trip
+     */
+    public boolean recordResult(HttpRequest request, boolean successful) {
+        Circuit circuit = circuitOf(keyOf(request));
+        synchronized (circuit) {
+            circuit.trialInFlight = false;
+            if (successful) {
+                circuit.state = State.CLOSED;
+                circuit.failures = 0;
+                return false;
+            }
+
+            circuit.failures++;
+            if (circuit.state == State.HALF_OPEN || (circuit.state == State.CLOSED && circuit.failures >= failureThreshold)) {
+                circuit.state = State.OPEN;
+                circuit.openedAt = System.currentTimeMillis();
+                circuit.trips++;
+                tripCount.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /** Gets the state of the circuit of an endpoint */
+    public State getState(Endpoints endpoint) {
+        return getState(endpoint.name());
+    }
+
+    /**
+     * Gets the state of a circuit
+     *
+     * @param key The name of an {@link Endpoints} value, or the path of requests that weren't created for one
+     */
+    public State getState(String key) {
+        Circuit circuit = circuits.get(key);
+        if (circuit == null)
+            return State.CLOSED;
+        synchronized (circuit) {
+            // Report a circuit that is ready for a trial request as such, even if none has been made yet
+            if (circuit.state == State.OPEN && System.currentTimeMillis() - circuit.openedAt >= openDuration)
+                return State.HALF_OPEN;
+            return circuit.state;
+        }
+    }
+
+    /** Gets how many times any circuit has tripped */
+    public long getTripCount() {
+        return tripCount.get();
+    }
+
+    /** Gets how many times each circuit has tripped, by key. Circuits that never tripped are not included. */
+    public Map<String, Long> getTripCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        for (Map.Entry<String, Circuit> entry : circuits.entrySet()) {
+            synchronized (entry.getValue()) {
+                if (entry.getValue().trips > 0)
+                    counts.put(entry.getKey(), entry.getValue().trips);
+            }
+        }
+        return counts;
+    }
+
+    /** Gets how many requests have been rejected because their circuit was open */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /** Closes every circuit */
+    public void reset() {
+        circuits.clear();
+    }
+
+    /** Gets the key of the circuit a request belongs to */
+    static String keyOf(HttpRequest request) {
+        return request.getEndpoint() != null ? request.getEndpoint().name() : request.getUrl().getPath();
+    }
+
+    private Circuit circuitOf(String key) {
+        Circuit circuit = circuits.get(key);
+        if (circuit != null)
+            return circuit;
+        Circuit created = new Circuit();
+        circuit = circuits.putIfAbsent(key, created);
+        return circuit != null ? circuit : created;
+    }
+
+    /** The state of a single endpoint. Guarded by its own monitor. */
+    private static class Circuit {
+        private State state = State.CLOSED;
+        private int failures;
+        private long openedAt;
+        private boolean trialInFlight;
+        private long trips;
+    }
+}
@@ -0,0 +1,37 @@
+package net.dean.jraw.http;
+
+import java.util.Date;
+
+/**
+ * Thrown when a request is rejected without being sent because a {@link CircuitBreaker} has stopped letting requests
+ * through to its endpoint
+ */
+public class CircuitOpenException extends RuntimeException {
+    private final String circuit;
+    private final long retryAt;
+
+    /**
+     * Instantiates a new CircuitOpenException
+     *
+     * @param circuit The key of the open circuit
+     * @param retryAt When the circuit will let a trial request through, in milliseconds since the epoch
+     */
+    public CircuitOpenException(String circuit, long retryAt) {
+        super("Circuit for " + circuit + " is open until " + new Date(retryAt));
+        this.circuit = circuit;
+        this.retryAt = retryAt;
+    }
+
+    /** Gets the name of the endpoint, or the path for requests that weren't created for one, whose circuit is open */
+    public String getCircuit() {
+        return circuit;
+    }
+
+    /**
+     * Gets when the circuit will let a trial request through, in milliseconds since the epoch. Another request may have
+     * been let through by then.
+     */
+    public long getRetryAt() {
+        return retryAt;
+    }
+}
@@ -0,0 +1,115 @@
+package net.dean.jraw.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A fixed-size ring of reusable slots that any amount of threads can put finished HTTP exchanges into, and a single
+ * thread takes them out of to be logged. Adding an exchange never blocks or allocates; if the ring is full the exchange
+ * is dropped and counted instead.
+ */
+final class ExchangeBuffer {
+    /** A request and its outcome. Slots are reused, so they must not be kept after being released. */
+    static final class Exchange {
+        HttpRequest request;
+        /** The response, or null if the request failed */
+        RestResponse response;
+        /** Why no response was received, or null if there was one */
+        Exception error;
+        long nanos;
+        long timestamp;
+        /** The position in the ring this slot was last filled for, set last to publish the slot to the consumer */
+        volatile long sequence = -1;
+    }
+
+    private final Exchange[] slots;
+    private final int mask;
+    /** The next position a producer will fill */
+    private final AtomicLong claimed;
+    /** The next position the consumer will take */
+    private volatile long consumed;
+    private final AtomicLong dropped;
+    private volatile Thread consumer;
+    private volatile boolean consumerWaiting;
+
+    /** @param capacity The amount of slots, must be a power of two */
+    ExchangeBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("capacity must be a power of two");
+        this.slots = new Exchange[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Exchange();
+        }
+        this.mask = capacity - 1;
+        this.claimed = new AtomicLong();
+        this.dropped = new AtomicLong();
+    }
+
+    /**
+     * Adds an exchange to the ring
+     *
+     * @return False if the ring was full and the exchange was dropped
+     */
+    boolean offer(HttpRequest request, RestResponse response, Exception error, long nanos) {
+        long position;
+        do {
+            position = claimed.get();
+            if (position - consumed >= slots.length) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!claimed.compareAndSet(position, position + 1));
+
+        // The consumer has released this slot, and no other producer can claim it until it has been consumed again
+        Exchange slot = slots[(int) (position & mask)];
+        slot.request = request;
+        slot.response = response;
+        slot.error = error;
+        slot.nanos = nanos;
+        slot.timestamp = System.currentTimeMillis();
+        slot.sequence = position;
+
+        if (consumerWaiting)
+            LockSupport.unpark(consumer);
+        return true;
+    }
+
+    /**
+     * Waits until the next exchange has been added and returns it. Must only be called by one thread, and every
+     * exchange must be {@link #release(Exchange) released} before taking the next one.
+     */
+    Exchange take() throws InterruptedException {
+        consumer = Thread.currentThread();
+        long position = consumed;
+        Exchange slot = slots[(int) (position & mask)];
+        while (slot.sequence != position) {
+            consumerWaiting = true;
+            // Check again now that producers know to wake this thread up
+            if (slot.sequence != position)
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+            consumerWaiting = false;
+            if (Thread.interrupted())
+                throw new InterruptedException();
+        }
+        return slot;
+    }
+
+    /** Clears a slot returned by {@link #take()} so that it can be filled again */
+    void release(Exchange slot) {
+        slot.request = null;
+        slot.response = null;
+        slot.error = null;
+        consumed = slot.sequence + 1;
+    }
+
+    /** Checks if every exchange that has been added has also been released */
+    boolean isEmpty() {
+        return consumed == claimed.get();
+    }
+
+    /** Gets how many exchanges were dropped because the ring was full */
+    long getDroppedCount() {
+        return dropped.get();
+    }
+}
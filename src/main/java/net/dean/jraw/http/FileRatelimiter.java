@@ -0,0 +1,192 @@
+package net.dean.jraw.http;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Works like a {@link SharedRatelimiter}, but its state is kept in a file so that several JVMs on the same host can
+ * stay within one ratelimit. Every operation takes an exclusive lock on the file, reads the current state, and writes it
+ * back before releasing the lock. Within one JVM, use a single instance per file and share it between clients; two
+ * instances pointing at the same file in the same JVM will fail with an
+ * {@link java.nio.channels.OverlappingFileLockException}.
+ *
+ * Since the file stores wall-clock times, the clocks of the processes sharing it must agree.
+ *
+ * The state is not forced to disk after each write. Processes on the same host already see each other's writes through
+ * the page cache, and the worst a lost write can do after a power loss is reset the window.
+ */
+public class FileRatelimiter implements Ratelimiter, Closeable {
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final RatelimitWindow window;
+
+    /**
+     * Instantiates a new FileRatelimiter that allows 600 requests every 10 minutes
+     *
+     * @param file Where to store the ratelimit state. Will be created if it does not exist.
+     * @throws IOException If the file could not be opened
+     */
+    public FileRatelimiter(File file) throws IOException {
+        this(file, SharedRatelimiter.DEFAULT_CAPACITY, SharedRatelimiter.DEFAULT_PERIOD, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Instantiates a new FileRatelimiter
+     *
+     * @param file Where to store the ratelimit state. Will be created if it does not exist.
+     * @param capacity The amount of requests that may be sent in one period, if the file does not already specify one
+     * @param period The length of one period
+     * @param unit The unit of {@code period}
+     * @throws IOException If the file could not be opened
+     */
+    public FileRatelimiter(File file, int capacity, long period, TimeUnit unit) throws IOException {
+        this.file = new RandomAccessFile(file, "rw");
+        this.channel = this.file.getChannel();
+        this.window = new RatelimitWindow(capacity, unit.toMillis(period));
+    }
+
+    @Override
+    public double acquire() {
+        long wait;
+        synchronized (window) {
+            FileLock lock = lock();
+            try {
+                load();
+                wait = window.reserve(now(), false);
+                save();
+            } finally {
+                release(lock);
+            }
+        }
+        Uninterruptibles.sleepUninterruptibly(wait, TimeUnit.MILLISECONDS);
+        return wait / 1000.0;
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        synchronized (window) {
+            FileLock lock = lock();
+            try {
+                load();
+                boolean acquired = window.reserve(now(), true) >= 0;
+                if (acquired)
+                    save();
+                return acquired;
+            } finally {
+                release(lock);
+            }
+        }
+    }
+
+    @Override
+    public double getRate() {
+        synchronized (window) {
+            FileLock lock = lock();
+            try {
+                load();
+                return window.getRate(now());
+            } finally {
+                release(lock);
+            }
+        }
+    }
+
+    @Override
+    public void setRate(int requestsPerMinute) {
+        synchronized (window) {
+            FileLock lock = lock();
+            try {
+                load();
+                window.setRate(requestsPerMinute);
+                save();
+            } finally {
+                release(lock);
+            }
+        }
+    }
+
+    @Override
+    public void update(double remaining, int reset) {
+        synchronized (window) {
+            FileLock lock = lock();
+            try {
+                load();
+                window.update(now(), remaining, TimeUnit.SECONDS.toMillis(reset));
+                save();
+            } finally {
+                release(lock);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (window) {
+            file.close();
+        }
+    }
+
+    /** Gets the current time in milliseconds */
+    protected long now() {
+        return System.currentTimeMillis();
+    }
+
+    private FileLock lock() {
+        try {
+            return channel.lock();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not lock the ratelimit file", e);
+        }
+    }
+
+    private void release(FileLock lock) {
+        try {
+            lock.release();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not release the lock on the ratelimit file", e);
+        }
+    }
+
+    /** Reads the state written by another process, if there is any */
+    private void load() {
+        try {
+            if (channel.size() < RatelimitWindow.SIZE) {
+                // Nothing has been written yet, use the values given in the constructor
+                return;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(RatelimitWindow.SIZE);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, buffer.position()) < 0)
+                    throw new IOException("Unexpected end of file");
+            }
+            window.read(new DataInputStream(new ByteArrayInputStream(buffer.array())));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read the ratelimit file", e);
+        }
+    }
+
+    private void save() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(RatelimitWindow.SIZE);
+            window.write(new DataOutputStream(bytes));
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, buffer.position());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write the ratelimit file", e);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package net.dean.jraw.http;
 
+import com.google.common.util.concurrent.ListenableFuture;
+
 import java.io.IOException;
 import java.net.CookieHandler;
 import java.net.CookieManager;
@@ -21,6 +23,15 @@ public interface HttpAdapter<T> {
      */
     RestResponse execute(HttpRequest request) throws IOException;
 
+    /**
+     * Executes an HTTP request without blocking the calling thread. Supports the same features as
+     * {@link #execute(HttpRequest)}.
+     *
+     * @return A future that will hold the RestResponse from the resulting request. If an implementation-specific error
+     *         occurred, the future will fail with an IOException.
+     */
+    ListenableFuture<RestResponse> executeAsync(HttpRequest request);
+
     /**
      * Gets the time in milliseconds the HTTP client will wait while trying to connect before timing out
      * @return Connection timeout in milliseconds
@@ -90,6 +101,13 @@ public interface HttpAdapter<T> {
     /** Gets a not-null, mutable Map of the headers that will be sent with every new HTTP request. */
     Map<String, String> getDefaultHeaders();
 
+    /**
+     * Sets the listener that will be notified of the phases of a request that only the adapter can observe: resolving
+     * the host, connecting, receiving the first byte and reading the body. Adapters that can't measure a phase don't
+     * report it. Set to null to stop reporting.
+     */
+    void setRequestListener(RequestListener listener);
+
     /**
      * Gets the object used to send HTTP requests for this adapter. For example, an HttpAdapter that utilizes OkHttp
      * will return an OkHttpClient.
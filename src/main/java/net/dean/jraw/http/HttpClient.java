@@ -1,10 +1,8 @@
 package net.dean.jraw.http;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import net.dean.jraw.http.oauth.InvalidScopeException;
 
-import java.util.Date;
-import java.util.LinkedHashMap;
-
 /**
  * Provides a high-level overview of basic features of a HTTP client.
  */
@@ -30,6 +28,16 @@ public interface HttpClient extends NetworkAccessible {
      */
     RestResponse execute(HttpRequest request) throws NetworkException, InvalidScopeException;
 
+    /**
+     * Executes a HTTP request without blocking the calling thread. The same features as {@link #execute(HttpRequest)}
+     * will be used. Waiting for a rate limit ticket will not block the caller either.
+     *
+     * @param request The request to send
+     * @return A future that will hold the RestResponse modeling the response sent from the server. It will fail with
+     *         the same exceptions {@link #execute(HttpRequest)} would throw.
+     */
+    ListenableFuture<RestResponse> executeAsync(HttpRequest request);
+
     /**
      * Gets the HttpLogger that will log the HTTP requests and responses that this class sends and receives.
      * @return This RestClient's HttpLogger
@@ -85,11 +93,12 @@ public interface HttpClient extends NetworkAccessible {
     boolean isSavingResponseHistory();
 
     /**
-     * Gets a map of responses to Dates, in which the Date refers to the time that the response was received. Will be
-     * empty unless saving response history was enabled changed using {@link #setSaveResponseHistory(boolean)}.
+     * Gets the most recent responses, including unsuccessful ones. Will be empty unless saving response history was
+     * enabled using {@link #setSaveResponseHistory(boolean)}. The returned object can be used to change how many
+     * responses are kept, for how long, and how much of their bodies.
      * @return The response history
      */
-    LinkedHashMap<RestResponse, Date> getHistory();
+    ResponseHistory getHistory();
 
     /** Gets the default value of the User-Agent header */
     String getUserAgent();
@@ -1,5 +1,7 @@
 package net.dean.jraw.http;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import okhttp3.Headers;
 import net.dean.jraw.util.JrawUtils;
 import okio.Buffer;
@@ -10,6 +12,8 @@ import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static net.dean.jraw.http.HttpLogger.Component.*;
 
@@ -18,16 +22,28 @@ import static net.dean.jraw.http.HttpLogger.Component.*;
  * and {@link RestResponse} classes. The parts of the request and response are broken into parts called
  * {@link Component components}. To enable or disable a Component, you can use {@link #enable(Component)} or
  * {@link #disable(Component)} respectively.
+ *
+ * <p>With {@link LoggingMode#ASYNC}, the request thread only puts a reference to the finished exchange into a
+ * preallocated ring buffer, and the exchange is formatted and logged on a background thread. Successful exchanges can be
+ * sampled using {@link #setSampleRate(int)}, and each exchange can be logged as a single JSON line instead of the usual
+ * multi-line format using {@link #setJsonLines(boolean)}.
  */
 public class HttpLogger {
     /** What will replace the latter part of the response body if it needs to be trimmed. */
     public static final String ELLIPSIS = "...";
+    /** How many exchanges can be waiting to be logged asynchronously before new ones are dropped */
+    public static final int ASYNC_BUFFER_SIZE = 1024;
     private static final String INDENT = "    ";
     private static final String CENSOR = "<sensitive>";
     private static final int RESPONSE_BODY_CUTOFF = 100 - ELLIPSIS.length();
     private final Logger l;
     private Map<Component, Boolean> components;
     private boolean responseBodyAlwaysFull;
+    private volatile int sampleRate;
+    private volatile boolean jsonLines;
+    private final AtomicLong successCount;
+    /** Lazily created along with the thread that drains it */
+    private volatile ExchangeBuffer buffer;
 
     /**
      * Instantiates a new HttpLogger
@@ -40,6 +56,9 @@ public class HttpLogger {
             components.put(c, true);
         }
         responseBodyAlwaysFull = false; // Short response bodies by default
+        this.sampleRate = 1;
+        this.jsonLines = false;
+        this.successCount = new AtomicLong();
     }
 
     /**
@@ -272,6 +291,192 @@ public class HttpLogger {
         }
     }
 
+    /**
+     * Queues a finished exchange to be logged on a background thread, unless it is successful and not part of the
+     * sample. Returns immediately without formatting anything.
+     *
+     * @param request The request that was sent
+     * @param response The response that was received, successful or not
+     * @param nanos How long the exchange took
+     */
+    public void logAsync(HttpRequest request, RestResponse response, long nanos) {
+        if (response.isSuccessful() && !isSampled())
+            return;
+        getBuffer().offer(request, response, null, nanos);
+    }
+
+    /**
+     * Queues a request that didn't receive any response to be logged on a background thread. Failures are never
+     * sampled out.
+     *
+     * @param request The request that was sent
+     * @param error Why no response was received
+     * @param nanos How long it took for the request to fail
+     */
+    public void logAsync(HttpRequest request, Exception error, long nanos) {
+        getBuffer().offer(request, null, error, nanos);
+    }
+
+    /**
+     * Waits until every exchange that has been queued so far has been logged
+     *
+     * @return False if the timeout elapsed first
+     */
+    public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+        ExchangeBuffer buffer = this.buffer;
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (buffer != null && !buffer.isEmpty()) {
+            if (System.nanoTime() >= deadline)
+                return false;
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    /** Gets how many exchanges weren't logged because the buffer was full */
+    public long getDroppedCount() {
+        ExchangeBuffer buffer = this.buffer;
+        return buffer == null ? 0 : buffer.getDroppedCount();
+    }
+
+    /** Gets how many successful exchanges are logged asynchronously, one out of every this many */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Sets how many successful exchanges are logged asynchronously. For example, 100 logs one out of every hundred
+     * successful exchanges. Unsuccessful ones are always logged. Defaults to 1, logging every exchange.
+     */
+    public void setSampleRate(int sampleRate) {
+        if (sampleRate < 1)
+            throw new IllegalArgumentException("sampleRate must be at least 1");
+        this.sampleRate = sampleRate;
+    }
+
+    /** Checks if asynchronously logged exchanges are written as a single JSON object per line */
+    public boolean isJsonLines() {
+        return jsonLines;
+    }
+
+    /**
+     * Sets whether asynchronously logged exchanges should be written as a single JSON object per line, which is easier
+     * for log aggregators to process. The enabled {@link Component components} decide which fields are included, except
+     * that bodies are never included. Disabled by default.
+     */
+    public void setJsonLines(boolean flag) {
+        this.jsonLines = flag;
+    }
+
+    private boolean isSampled() {
+        int rate = sampleRate;
+        return rate == 1 || successCount.getAndIncrement() % rate == 0;
+    }
+
+    private ExchangeBuffer getBuffer() {
+        ExchangeBuffer buffer = this.buffer;
+        if (buffer != null)
+            return buffer;
+        synchronized (this) {
+            if (this.buffer == null) {
+                final ExchangeBuffer created = new ExchangeBuffer(ASYNC_BUFFER_SIZE);
+                new ThreadFactoryBuilder()
+                        .setDaemon(true)
+                        .setNameFormat("jraw-http-logger-%d")
+                        .build()
+                        .newThread(new Runnable() {
+                            @Override
+                            public void run() {
+                                drain(created);
+                            }
+                        })
+                        .start();
+                this.buffer = created;
+            }
+            return this.buffer;
+        }
+    }
+
+    /** Logs exchanges from the buffer for as long as the application runs */
+    private void drain(ExchangeBuffer buffer) {
+        while (true) {
+            ExchangeBuffer.Exchange exchange;
+            try {
+                exchange = buffer.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            try {
+                if (jsonLines)
+                    logJsonLine(exchange);
+                else
+                    logExchange(exchange);
+            } catch (RuntimeException e) {
+                l.warn("Unable to log {}", exchange.request, e);
+            } finally {
+                buffer.release(exchange);
+            }
+        }
+    }
+
+    private void logExchange(ExchangeBuffer.Exchange exchange) {
+        if (exchange.response != null) {
+            log(exchange.request, exchange.response.isSuccessful());
+            log(exchange.response);
+        } else {
+            log(exchange.request, false);
+            l.error("{}request-failed: {}", INDENT, exchange.error.toString());
+        }
+    }
+
+    private void logJsonLine(ExchangeBuffer.Exchange exchange) {
+        HttpRequest r = exchange.request;
+        ObjectNode line = JrawUtils.objectMapper().createObjectNode();
+        line.put("timestamp", exchange.timestamp);
+        line.put("duration_ms", exchange.nanos / 1e6);
+        if (isEnabled(REQUEST)) {
+            if (isEnabled(REQUEST_DESCRIPTOR)) {
+                line.put("method", r.getMethod());
+                line.put("url", r.getUrl().toExternalForm());
+                if (r.getEndpoint() != null)
+                    line.put("endpoint", r.getEndpoint().name());
+            }
+            if (isEnabled(REQUEST_BODY) && isEnabled(REQUEST_FORMAT_FORM) && r.getBody() != null &&
+                    r.getBody().contentType() != null &&
+                    JrawUtils.isEqual(r.getBody().contentType(), MediaTypes.FORM_ENCODED.type())) {
+                ObjectNode form = line.putObject("form_data");
+                for (Map.Entry<String, String> entry : parseUrlEncoded(r.getBody()).entrySet()) {
+                    form.put(JrawUtils.urlDecode(entry.getKey()), contains(entry.getKey(), r.getSensitiveArgs()) ?
+                            CENSOR : JrawUtils.urlDecode(entry.getValue()));
+                }
+            }
+            if (isEnabled(REQUEST_HEADERS))
+                putHeaders(line.putObject("request_headers"), r.getHeaders());
+        }
+
+        RestResponse response = exchange.response;
+        if (response == null) {
+            line.put("error", exchange.error.toString());
+        } else if (isEnabled(RESPONSE)) {
+            line.put("protocol", response.getProtocol());
+            line.put("status", response.getStatusCode());
+            line.put("message", response.getStatusMessage());
+            if (isEnabled(RESPONSE_HEADERS))
+                putHeaders(line.putObject("response_headers"), response.getHeaders());
+        }
+
+        logBySuccess(response != null && response.isSuccessful(), "{}", JrawUtils.toJson(line));
+    }
+
+    private static void putHeaders(ObjectNode node, Headers headers) {
+        for (int i = 0; i < headers.size(); i++) {
+            String name = headers.name(i);
+            // Access tokens and basic auth credentials shouldn't end up in log aggregators
+            node.put(name, name.equalsIgnoreCase("Authorization") ? CENSOR : headers.value(i));
+        }
+    }
+
     /**
      * Sets whether or not to always log the full response body, regardless of the request's success. If this component
      * is disabled, the body will be trimmed and an ellipsis will be appended.
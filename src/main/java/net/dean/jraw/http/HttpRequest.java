@@ -29,6 +29,7 @@ public final class HttpRequest {
     private final BasicAuthData basicAuthData;
     private final MediaType expectedMediaType;
     private final String[] sensitiveArgs;
+    private final Endpoints endpoint;
 
     /**
      * Creates a RestRequest from the given URL
@@ -50,6 +51,31 @@ public final class HttpRequest {
         this.basicAuthData = b.basicAuthData;
         this.expectedMediaType = b.expectedMediaType;
         this.sensitiveArgs = b.sensitiveArgs;
+        this.endpoint = b.endpoint;
+    }
+
+    private HttpRequest(HttpRequest other, Headers headers) {
+        this.method = other.method;
+        this.url = other.url;
+        this.body = other.body;
+        this.headers = headers;
+        this.basicAuthData = other.basicAuthData;
+        this.expectedMediaType = other.expectedMediaType;
+        this.sensitiveArgs = other.sensitiveArgs;
+        this.endpoint = other.endpoint;
+    }
+
+    /** Creates a copy of this request with different headers */
+    HttpRequest withHeaders(Headers headers) {
+        return new HttpRequest(this, headers);
+    }
+
+    /**
+     * Gets the endpoint this request was created for using {@link Builder#endpoint(Endpoints, String...)}, or null if
+     * its path was set some other way
+     */
+    public Endpoints getEndpoint() {
+        return endpoint;
     }
 
     /** Get the HTTP verb (GET, POST, etc.) */
@@ -134,8 +160,10 @@ public final class HttpRequest {
         // URL properties
         private String protocol;
         private String host;
+        private int port = -1;
         private String path;
         private String[] pathParams;
+        private Endpoints endpoint;
         private Map<String, String> query;
 
         // Body
@@ -172,6 +200,7 @@ public final class HttpRequest {
             Builder b = new Builder()
                     .https(url.getProtocol().equals("https"))
                     .host(url.getHost())
+                    .port(url.getPort())
                     .path(url.getPath())
                     .query(query);
             if (formArgs.length != 0) {
@@ -268,6 +297,12 @@ public final class HttpRequest {
             return this;
         }
 
+        /** Sets the target URL's port. A value of -1 will use the protocol's default port. */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
         /**
          * Sets the URL's path. For example, "/thatJavaNerd/JRAW." Positional path parameters are supported, so if
          * {@code path} was "/api/{resource}" and {@code params} was a one-element array consisting of "foo", then the
@@ -282,12 +317,18 @@ public final class HttpRequest {
                 path = DEFAULT_PATH;
             this.path = path;
             this.pathParams = params;
+            this.endpoint = null;
             return this;
         }
 
-        /** Calls {@link #path(String, String...)} with {@code e.getEndpoint().getUri()} */
+        /**
+         * Calls {@link #path(String, String...)} with {@code e.getEndpoint().getUri()}, and remembers the endpoint so
+         * that it can be found with {@link HttpRequest#getEndpoint()}
+         */
         public Builder endpoint(Endpoints e, String... pathParams) {
-            return path(e.getEndpoint().getUri(), pathParams);
+            path(e.getEndpoint().getUri(), pathParams);
+            this.endpoint = e;
+            return this;
         }
 
         /**
@@ -402,10 +443,10 @@ public final class HttpRequest {
             }
 
             try {
-                this.url = new URL(protocol, host, effectivePath);
+                this.url = new URL(protocol, host, port, effectivePath);
             } catch (MalformedURLException e) {
-                throw new IllegalArgumentException(String.format("Malformed URL by new java.net.URL(protocol=%s, host=%s, file=%s)",
-                        protocol, host, effectivePath), e);
+                throw new IllegalArgumentException(String.format("Malformed URL by new java.net.URL(protocol=%s, host=%s, port=%s, file=%s)",
+                        protocol, host, port, effectivePath), e);
             }
 
             return new HttpRequest(this);
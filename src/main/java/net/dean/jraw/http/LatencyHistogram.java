@@ -0,0 +1,122 @@
+package net.dean.jraw.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size histogram of durations in nanoseconds, in the style of HdrHistogram. Buckets grow exponentially, and every
+ * power of two is split into 32 linear sub-buckets, so percentiles are accurate to within about 3% of the actual value
+ * across the entire range while only taking a few kilobytes of memory. Durations longer than about 68 seconds are
+ * counted in the last bucket.
+ *
+ * <p>Recording is lock-free and doesn't allocate, so it is cheap enough to do for every request. Reading while other
+ * threads are recording gives a consistent enough view for monitoring, but not an atomic snapshot.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /** The largest duration that gets a bucket of its own is 2^36 ns, about 68 seconds */
+    private static final int MAX_EXPONENT = 36;
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts;
+    private final AtomicLong count;
+    private final AtomicLong total;
+    private final AtomicLong max;
+
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKET_COUNT);
+        this.count = new AtomicLong();
+        this.total = new AtomicLong();
+        this.max = new AtomicLong();
+    }
+
+    /** Records a duration in nanoseconds. Negative durations are recorded as 0. */
+    public void record(long nanos) {
+        if (nanos < 0)
+            nanos = 0;
+        counts.incrementAndGet(indexOf(nanos));
+        count.incrementAndGet();
+        total.addAndGet(nanos);
+
+        long currentMax;
+        while (nanos > (currentMax = max.get())) {
+            if (max.compareAndSet(currentMax, nanos))
+                break;
+        }
+    }
+
+    /** Gets the amount of durations that have been recorded */
+    public long getCount() {
+        return count.get();
+    }
+
+    /** Gets the longest duration that has been recorded in nanoseconds, or 0 if there are none */
+    public long getMax() {
+        return max.get();
+    }
+
+    /** Gets the average of all recorded durations in nanoseconds, or 0 if there are none */
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) total.get() / n;
+    }
+
+    /**
+     * Gets the duration that the given percentage of recorded durations are shorter than or equal to
+     *
+     * @param percentile A percentage between 0 and 100, such as 99.9
+     * @return A duration in nanoseconds, or 0 if nothing has been recorded
+     */
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        long n = count.get();
+        if (n == 0)
+            return 0;
+
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= target)
+                // The highest value that falls in this bucket, but never more than what was actually recorded
+                return Math.min(lowestValueOf(i + 1) - 1, getMax());
+        }
+        return getMax();
+    }
+
+    /** Finds the bucket a duration belongs in */
+    static int indexOf(long nanos) {
+        if (nanos < SUB_BUCKET_COUNT)
+            return (int) nanos;
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent > MAX_EXPONENT)
+            return BUCKET_COUNT - 1;
+        // The bits right after the highest one decide the sub-bucket
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        int group = exponent - SUB_BUCKET_BITS + 1;
+        return group * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /** Gets the shortest duration that belongs in a bucket */
+    static long lowestValueOf(int index) {
+        int group = index >>> SUB_BUCKET_BITS;
+        int subBucket = index & (SUB_BUCKET_COUNT - 1);
+        if (group == 0)
+            return subBucket;
+        return (long) (SUB_BUCKET_COUNT + subBucket) << (group - 1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LatencyHistogram {count=%d, mean=%.2fms, p50=%.2fms, p90=%.2fms, p99=%.2fms, max=%.2fms}",
+                getCount(), getMean() / TimeUnit.MILLISECONDS.toNanos(1), millis(getPercentile(50)),
+                millis(getPercentile(90)), millis(getPercentile(99)), millis(getMax()));
+    }
+
+    private static double millis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -9,5 +9,10 @@ public enum LoggingMode {
      * Log HTTP requests and responses if and only if the request is not successful, which means it has a status code of
      * [200..300).
      */
-    ON_FAIL
+    ON_FAIL,
+    /**
+     * Log every HTTP request together with its response on a background thread, so that sending requests isn't slowed
+     * down by formatting them. See {@link HttpLogger#setSampleRate(int)} and {@link HttpLogger#setJsonLines(boolean)}.
+     */
+    ASYNC
 }
@@ -0,0 +1,214 @@
+package net.dean.jraw.http;
+
+import net.dean.jraw.Endpoints;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A RequestListener that keeps a {@link LatencyHistogram} for every phase of the requests to each {@link Endpoints}
+ * value, as well as counters for retries, server errors, rejected scopes and circuit breaker activity. Requests that weren't created with
+ * {@link HttpRequest.Builder#endpoint(Endpoints, String...)} are recorded under the {@code null} endpoint.
+ *
+ * <pre>{@code
+ * MetricsRecorder metrics = new MetricsRecorder();
+ * reddit.setRequestListener(metrics);
+ * // ...
+ * long p99 = metrics.getHistogram(Endpoints.INFO, MetricsRecorder.Phase.TOTAL).getPercentile(99);
+ * }</pre>
+ *
+ * <p>Thread-safe. The same MetricsRecorder can be given to several RedditClients to combine their metrics.
+ */
+public class MetricsRecorder extends RequestListener {
+    /** The phases of a request that are timed */
+    public enum Phase {
+        /** Waiting for a ticket from the Ratelimiter */
+        RATELIMIT_WAIT,
+        /** Resolving the host of a new connection */
+        DNS,
+        /** Getting a connection, including the TCP connect and TLS handshake if a new one had to be opened */
+        CONNECT,
+        /** Writing the request and waiting for the response's headers */
+        FIRST_BYTE,
+        /** Reading the response body */
+        BODY_READ,
+        /** Parsing the JSON body */
+        JSON_PARSE,
+        /** Creating a model from the JSON */
+        MODEL_BINDING,
+        /** The entire request, from waiting for a ratelimit ticket until the response was read */
+        TOTAL
+    }
+
+    private final ConcurrentMap<Endpoints, Map<Phase, LatencyHistogram>> histograms;
+    /** The histograms of requests without an endpoint, ConcurrentHashMap doesn't allow null keys */
+    private final Map<Phase, LatencyHistogram> unknownEndpoint;
+    private final AtomicLong responses;
+    private final AtomicLong failures;
+    private final AtomicLong retries;
+    private final AtomicLong serverErrors;
+    private final AtomicLong invalidScopes;
+    private final AtomicLong circuitsOpened;
+    private final AtomicLong circuitRejections;
+
+    public MetricsRecorder() {
+        this.histograms = new ConcurrentHashMap<>();
+        this.unknownEndpoint = newHistograms();
+        this.responses = new AtomicLong();
+        this.failures = new AtomicLong();
+        this.retries = new AtomicLong();
+        this.serverErrors = new AtomicLong();
+        this.invalidScopes = new AtomicLong();
+        this.circuitsOpened = new AtomicLong();
+        this.circuitRejections = new AtomicLong();
+    }
+
+    /**
+     * Gets the histogram of one phase of the requests sent to an endpoint
+     *
+     * @param endpoint The endpoint, or null for requests that weren't created for a specific endpoint
+     * @param phase The phase of the requests
+     * @return The histogram, which is empty if no requests have been sent to the endpoint
+     */
+    public LatencyHistogram getHistogram(Endpoints endpoint, Phase phase) {
+        Map<Phase, LatencyHistogram> map = endpoint == null ? unknownEndpoint : histograms.get(endpoint);
+        return map == null ? new LatencyHistogram() : map.get(phase);
+    }
+
+    /** Gets every endpoint that requests have been sent to so far */
+    public Set<Endpoints> getEndpoints() {
+        return histograms.keySet();
+    }
+
+    /** Gets the amount of responses that have been received, including unsuccessful ones */
+    public long getResponseCount() {
+        return responses.get();
+    }
+
+    /** Gets the amount of requests that didn't receive a response at all, for example because of a network error */
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    /** Gets the amount of times a request was sent again after a server error or 429 Too Many Requests */
+    public long getRetryCount() {
+        return retries.get();
+    }
+
+    /** Gets the amount of responses with a 5xx status code */
+    public long getServerErrorCount() {
+        return serverErrors.get();
+    }
+
+    /** Gets the amount of requests that failed with an {@link net.dean.jraw.http.oauth.InvalidScopeException} */
+    public long getInvalidScopeCount() {
+        return invalidScopes.get();
+    }
+
+    /** Gets the amount of times a {@link CircuitBreaker} circuit was opened */
+    public long getCircuitOpenedCount() {
+        return circuitsOpened.get();
+    }
+
+    /** Gets the amount of requests that were rejected by a {@link CircuitBreaker} without being sent */
+    public long getCircuitRejectedCount() {
+        return circuitRejections.get();
+    }
+
+    @Override
+    public void ratelimitWaited(HttpRequest request, long nanos) {
+        record(request, Phase.RATELIMIT_WAIT, nanos);
+    }
+
+    @Override
+    public void dnsResolved(HttpRequest request, String host, long nanos) {
+        record(request, Phase.DNS, nanos);
+    }
+
+    @Override
+    public void connected(HttpRequest request, long nanos) {
+        record(request, Phase.CONNECT, nanos);
+    }
+
+    @Override
+    public void firstByteReceived(HttpRequest request, long nanos) {
+        record(request, Phase.FIRST_BYTE, nanos);
+    }
+
+    @Override
+    public void bodyRead(HttpRequest request, long nanos) {
+        record(request, Phase.BODY_READ, nanos);
+    }
+
+    @Override
+    public void jsonParsed(HttpRequest request, long nanos) {
+        record(request, Phase.JSON_PARSE, nanos);
+    }
+
+    @Override
+    public void modelBound(HttpRequest request, Class<?> modelClass, long nanos) {
+        record(request, Phase.MODEL_BINDING, nanos);
+    }
+
+    @Override
+    public void responseReceived(HttpRequest request, RestResponse response, long nanos) {
+        responses.incrementAndGet();
+        if (response.getStatusCode() >= 500 && response.getStatusCode() < 600)
+            serverErrors.incrementAndGet();
+        record(request, Phase.TOTAL, nanos);
+    }
+
+    @Override
+    public void requestFailed(HttpRequest request, Exception error, long nanos) {
+        failures.incrementAndGet();
+    }
+
+    @Override
+    public void retrying(HttpRequest request, int retryCount) {
+        retries.incrementAndGet();
+    }
+
+    @Override
+    public void invalidScope(HttpRequest request) {
+        invalidScopes.incrementAndGet();
+    }
+
+    @Override
+    public void circuitOpened(HttpRequest request) {
+        circuitsOpened.incrementAndGet();
+    }
+
+    @Override
+    public void circuitRejected(HttpRequest request) {
+        circuitRejections.incrementAndGet();
+    }
+
+    private void record(HttpRequest request, Phase phase, long nanos) {
+        histogramsOf(request.getEndpoint()).get(phase).record(nanos);
+    }
+
+    private Map<Phase, LatencyHistogram> histogramsOf(Endpoints endpoint) {
+        if (endpoint == null)
+            return unknownEndpoint;
+        Map<Phase, LatencyHistogram> existing = histograms.get(endpoint);
+        if (existing != null)
+            return existing;
+
+        Map<Phase, LatencyHistogram> created = newHistograms();
+        existing = histograms.putIfAbsent(endpoint, created);
+        return existing != null ? existing : created;
+    }
+
+    /** Creates a histogram for every phase. The map is never modified afterwards, so it can be read concurrently. */
+    private static Map<Phase, LatencyHistogram> newHistograms() {
+        Map<Phase, LatencyHistogram> map = new EnumMap<>(Phase.class);
+        for (Phase phase : Phase.values()) {
+            map.put(phase, new LatencyHistogram());
+        }
+        return map;
+    }
+}
@@ -3,35 +3,59 @@ package net.dean.jraw.http;
 import java.io.IOException;
 import java.net.CookieManager;
 import java.net.CookiePolicy;
+import java.net.InetAddress;
 import java.net.Proxy;
+import java.net.UnknownHostException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.io.CountingInputStream;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
 import okhttp3.Authenticator;
+import okhttp3.Cache;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
 import okhttp3.Credentials;
+import okhttp3.Dns;
+import okhttp3.Interceptor;
 import okhttp3.JavaNetCookieJar;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
 import okhttp3.Route;
+import net.dean.jraw.util.JrawUtils;
 import okio.BufferedSink;
 
 /**
- * Provides a concrete HttpAdapter implementation using Square's OkHttp
+ * Provides a concrete HttpAdapter implementation using Square's OkHttp.
+ *
+ * <p>HTTP/2 is preferred by default, which lets any amount of concurrent requests to the same host share a single
+ * multiplexed connection. HTTP/2 is negotiated during the TLS handshake using ALPN, so a platform that doesn't support
+ * ALPN (for example a desktop JVM without ALPN on the boot classpath) will fall back to HTTP/1.1. In that case
+ * connections are still kept alive and reused through the {@link ConnectionPool}, which every adapter created with the
+ * default OkHttpClient shares (see {@link #getSharedConnectionPool()}).
  */
 public final class OkHttpAdapter implements HttpAdapter<OkHttpClient> {
-    private static final Protocol DEFAULT_PROTOCOL = Protocol.SPDY_3;
+    private static final Protocol DEFAULT_PROTOCOL = Protocol.HTTP_2;
     private static final Protocol FALLBACK_PROTOCOL = Protocol.HTTP_1_1;
+    /** Keeps connections alive across every adapter that uses the default OkHttpClient */
+    private static final ConnectionPool SHARED_CONNECTION_POOL = new ConnectionPool();
 
     private static OkHttpClient newOkHttpClient() {
         TimeUnit unit = TimeUnit.SECONDS;
         int timeout = 10;
         return new OkHttpClient.Builder()
+                .connectionPool(SHARED_CONNECTION_POOL)
                 .connectTimeout(timeout, unit)
                 .readTimeout(timeout, unit)
                 .writeTimeout(timeout, unit)
@@ -41,6 +65,10 @@ public final class OkHttpAdapter implements HttpAdapter<OkHttpClient> {
     private OkHttpClient http;
     private CookieManager cookieManager;
     private Map<String, String> defaultHeaders;
+    private boolean streamJson;
+    private volatile RequestListener listener;
+    /** The call that is being executed on this thread, if it is being timed */
+    private final ThreadLocal<CallTimer> currentCall = new ThreadLocal<>();
 
     public OkHttpAdapter() {
         this(DEFAULT_PROTOCOL);
@@ -53,21 +81,55 @@ public final class OkHttpAdapter implements HttpAdapter<OkHttpClient> {
     public OkHttpAdapter(OkHttpClient httpClient, Protocol protocol) {
         this.http = httpClient;
         this.cookieManager = new CookieManager(null, CookiePolicy.ACCEPT_ALL);
-        this.defaultHeaders = new HashMap<>();
+        // May be read by request threads while a background thread swaps the access token
+        this.defaultHeaders = new ConcurrentHashMap<>();
 
+        // Protocols are listed in order of preference, OkHttp requires HTTP/1.1 to be one of them
         List<Protocol> protocolList = new ArrayList<>();
-        protocolList.add(FALLBACK_PROTOCOL);
         if (FALLBACK_PROTOCOL != protocol) {
             protocolList.add(protocol);
         }
+        protocolList.add(FALLBACK_PROTOCOL);
         http = http.newBuilder()
                 .protocols(protocolList)
                 .cookieJar(new JavaNetCookieJar(cookieManager))
+                .dns(new TimingDns(http.dns()))
+                .addInterceptor(new TimingInterceptor())
+                .addNetworkInterceptor(new NetworkTimingInterceptor())
                 .build();
     }
 
     @Override
     public RestResponse execute(HttpRequest request) throws IOException {
+        Response response = newCall(request).execute();
+        return toRestResponse(request, response);
+    }
+
+    @Override
+    public ListenableFuture<RestResponse> executeAsync(final HttpRequest request) {
+        final SettableFuture<RestResponse> future = SettableFuture.create();
+        newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.setException(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try {
+                    future.set(toRestResponse(request, response));
+                } catch (Exception e) {
+                    // Don't let the exception escape to OkHttp's dispatcher, the caller would never hear about it
+                    future.setException(e);
+                }
+            }
+        });
+
+        return future;
+    }
+
+    /** Creates a new OkHttp Call that mirrors the given HttpRequest */
+    private Call newCall(HttpRequest request) {
         OkHttpClient perRequestClient = http;
         if (request.isUsingBasicAuth()) {
             BasicAuthenticator authenticator = new BasicAuthenticator(request.getBasicAuthData());
@@ -77,15 +139,160 @@ public final class OkHttpAdapter implements HttpAdapter<OkHttpClient> {
         Request.Builder builder = new Request.Builder()
                 .method(request.getMethod(), request.getBody() == null ? null : new OkHttpRequestBody(request.getBody()))
                 .url(request.getUrl())
-                .headers(request.getHeaders());
+                .headers(request.getHeaders())
+                .tag(request);
+
+        return perRequestClient.newCall(builder.build());
+    }
+
+    /** Reads the entirety of the given OkHttp Response and converts it into a RestResponse */
+    private RestResponse toRestResponse(HttpRequest request, Response response) throws IOException {
+        String protocol = response.protocol().toString().toUpperCase();
+        long start = System.nanoTime();
+        if (streamJson && isJson(response)) {
+            JsonNode json;
+            CountingInputStream in;
+            try (ResponseBody body = response.body()) {
+                // Parse straight from the socket instead of copying the body into a String first
+                in = new CountingInputStream(body.source().inputStream());
+                json = JrawUtils.fromStream(in);
+            }
+
+            // An empty body will not have produced a node
+            if (json != null) {
+                RestResponse restResponse = new RestResponse(request, json, response.headers(), response.code(),
+                        response.message(), protocol);
+                restResponse.parseNanos = System.nanoTime() - start;
+                restResponse.bodyBytes = in.getCount();
+                return restResponse;
+            }
+            return new RestResponse(request, "", response.headers(), response.code(), response.message(), protocol);
+        }
 
-        Response response = perRequestClient.newCall(builder.build()).execute();
+        String body = response.body().string();
+        RequestListener listener = this.listener;
+        if (listener != null)
+            listener.bodyRead(request, System.nanoTime() - start);
         return new RestResponse(request,
-                response.body().string(),
+                body,
                 response.headers(),
                 response.code(),
                 response.message(),
-                response.protocol().toString().toUpperCase());
+                protocol);
+    }
+
+    private static boolean isJson(Response response) {
+        String contentType = response.header("Content-Type");
+        return response.code() != 204 &&
+                contentType != null &&
+                JrawUtils.isEqual(JrawUtils.parseMediaType(contentType), MediaTypes.JSON.type());
+    }
+
+    /**
+     * Checks if JSON responses are parsed as they are read from the network instead of being buffered into a String
+     * first.
+     *
+     * @see #setStreamJson(boolean)
+     */
+    public boolean isStreamingJson() {
+        return streamJson;
+    }
+
+    /**
+     * Sets whether JSON responses should be parsed as they are read from the network. This avoids holding both the
+     * raw body and the parsed JSON in memory at the same time, which matters for large listings and comment threads.
+     * When enabled, {@link RestResponse#getRaw()} is only computed when it is first called. Disabled by default.
+     */
+    public void setStreamJson(boolean flag) {
+        this.streamJson = flag;
+    }
+
+    /**
+     * Gets OkHttp's disk cache, or null if there is none. Its hit, network and request counts can be used to see how
+     * effective it is.
+     */
+    public Cache getCache() {
+        return http.cache();
+    }
+
+    /**
+     * Sets the disk cache used by OkHttp, for example {@code new Cache(directory, 10 * 1024 * 1024)}. OkHttp evicts the
+     * least recently used responses once the cache exceeds its maximum size, and revalidates stale responses using
+     * their ETag and Last-Modified headers. Set to null to disable the disk cache, which is the default.
+     *
+     * @see RestClient#setResponseCache(ResponseCache)
+     */
+    public void setCache(Cache cache) {
+        http = http.newBuilder()
+                .cache(cache)
+                .build();
+    }
+
+    /**
+     * Gets the ConnectionPool that adapters created without an explicit OkHttpClient use. Pass it to
+     * {@link #setConnectionPool(ConnectionPool)} to let an adapter with a custom OkHttpClient share connections with
+     * the rest.
+     */
+    public static ConnectionPool getSharedConnectionPool() {
+        return SHARED_CONNECTION_POOL;
+    }
+
+    /** Gets the pool that keeps this adapter's idle connections alive for reuse */
+    public ConnectionPool getConnectionPool() {
+        return http.connectionPool();
+    }
+
+    /**
+     * Sets the pool that keeps this adapter's idle connections alive for reuse. Adapters that use the same pool reuse
+     * each other's connections, so several RedditClients talking to the same host don't need a connection each.
+     */
+    public void setConnectionPool(ConnectionPool pool) {
+        if (pool == null)
+            throw new NullPointerException("pool cannot be null");
+        http = http.newBuilder().connectionPool(pool).build();
+    }
+
+    /**
+     * Gets the maximum amount of requests sent by {@link #executeAsync(HttpRequest)} that can be in progress at the same
+     * time
+     */
+    public int getMaxRequests() {
+        return http.dispatcher().getMaxRequests();
+    }
+
+    /**
+     * Sets the maximum amount of requests sent by {@link #executeAsync(HttpRequest)} that can be in progress at the same
+     * time. Requests above this limit wait until another one completes. Defaults to 64. Synchronous requests are not
+     * limited.
+     *
+     * <p>The limit belongs to the OkHttpClient's Dispatcher, which is shared with the OkHttpClient this adapter was
+     * created from and every other adapter created from it. Changing it here changes it for all of them, and the limit
+     * applies to their requests combined. Give each adapter an OkHttpClient with its own Dispatcher to limit them
+     * separately.
+     */
+    public void setMaxRequests(int max) {
+        http.dispatcher().setMaxRequests(max);
+    }
+
+    /**
+     * Gets the maximum amount of requests sent by {@link #executeAsync(HttpRequest)} to any one host that can be in
+     * progress at the same time
+     */
+    public int getMaxRequestsPerHost() {
+        return http.dispatcher().getMaxRequestsPerHost();
+    }
+
+    /**
+     * Sets the maximum amount of requests sent by {@link #executeAsync(HttpRequest)} to any one host that can be in
+     * progress at the same time. Defaults to 5. Since almost every request goes to the same host, this is usually the
+     * limit that matters. Over HTTP/1.1 every concurrent request needs a connection of its own, while over HTTP/2 they
+     * are all multiplexed on one connection.
+     *
+     * <p>Like {@link #setMaxRequests(int)}, this changes the shared Dispatcher of every adapter created from the same
+     * OkHttpClient, and the limit applies to their requests combined.
+     */
+    public void setMaxRequestsPerHost(int max) {
+        http.dispatcher().setMaxRequestsPerHost(max);
     }
 
     @Override
@@ -154,11 +361,100 @@ public final class OkHttpAdapter implements HttpAdapter<OkHttpClient> {
         return defaultHeaders;
     }
 
+    @Override
+    public void setRequestListener(RequestListener listener) {
+        this.listener = listener;
+    }
+
     @Override
     public OkHttpClient getNativeClient() {
         return http;
     }
 
+    /** Keeps track of when the phases of the call on the current thread started */
+    private static class CallTimer {
+        private final RequestListener listener;
+        private final HttpRequest request;
+        /** When the current network request started trying to connect */
+        private long start;
+
+        CallTimer(RequestListener listener, HttpRequest request) {
+            this.listener = listener;
+            this.request = request;
+            this.start = System.nanoTime();
+        }
+    }
+
+    /** Starts timing a call. OkHttp runs every interceptor and DNS lookup of a call on the thread that executes it. */
+    private class TimingInterceptor implements Interceptor {
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            RequestListener listener = OkHttpAdapter.this.listener;
+            Object tag = chain.request().tag();
+            if (listener == null || !(tag instanceof HttpRequest))
+                return chain.proceed(chain.request());
+
+            currentCall.set(new CallTimer(listener, (HttpRequest) tag));
+            try {
+                return chain.proceed(chain.request());
+            } finally {
+                currentCall.remove();
+            }
+        }
+    }
+
+    /** Runs once a connection has been established, for every network request a call makes (including redirects) */
+    private class NetworkTimingInterceptor implements Interceptor {
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            CallTimer timer = currentCall.get();
+            if (timer == null)
+                return chain.proceed(chain.request());
+
+            long connected = System.nanoTime();
+            timer.listener.connected(timer.request, connected - timer.start);
+            Response response = chain.proceed(chain.request());
+            long now = System.nanoTime();
+            timer.listener.firstByteReceived(timer.request, now - connected);
+            // A redirect will need another connection
+            timer.start = now;
+            return response;
+        }
+    }
+
+    /** Times the host lookups made when OkHttp opens a new connection */
+    private class TimingDns implements Dns {
+        private final Dns delegate;
+
+        TimingDns(Dns delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+            CallTimer timer = currentCall.get();
+            if (timer == null)
+                return delegate.lookup(hostname);
+
+            long start = System.nanoTime();
+            List<InetAddress> addresses = delegate.lookup(hostname);
+            timer.listener.dnsResolved(timer.request, hostname, System.nanoTime() - start);
+            return addresses;
+        }
+
+        // OkHttp only reuses a pooled connection for an Address with an equal Dns. Adapters that share a ConnectionPool
+        // each have their own TimingDns, which must not keep them from reusing each other's connections.
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof TimingDns && delegate.equals(((TimingDns) o).delegate);
+        }
+
+        @Override
+        public int hashCode() {
+            return delegate.hashCode();
+        }
+    }
+
     /** Mirrors a JRAW RequestBody to an OkHttp RequestBody */
     private static class OkHttpRequestBody extends okhttp3.RequestBody {
         private RequestBody mirror;
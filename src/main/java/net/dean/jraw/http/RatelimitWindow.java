@@ -0,0 +1,120 @@
+package net.dean.jraw.http;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Token bucket modeled after reddit's ratelimit: a fixed amount of requests may be sent per period, and the requests
+ * that are left in the current period are spread evenly over the time remaining in it. Not thread-safe; callers are
+ * responsible for synchronization. All times are in milliseconds.
+ */
+final class RatelimitWindow {
+    /** The amount of bytes written by {@link #write(DataOutput)} */
+    static final int SIZE = 4 + 8 + 8 + 8;
+
+    private int capacity;
+    private final long length;
+    private double remaining;
+    /** When the current period ends */
+    private long end;
+    /** The earliest time the next request may be sent */
+    private long next;
+
+    RatelimitWindow(int capacity, long length) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity cannot be less than 1");
+        if (length < 1)
+            throw new IllegalArgumentException("length cannot be less than 1");
+        this.capacity = capacity;
+        this.length = length;
+        this.remaining = capacity;
+        this.end = Long.MIN_VALUE;
+        this.next = Long.MIN_VALUE;
+    }
+
+    /**
+     * Reserves a request
+     *
+     * @param now The current time
+     * @param onlyIfFree If true, nothing will be reserved if the caller would have to wait
+     * @return How long the caller has to wait before sending the reserved request, or -1 if {@code onlyIfFree} was true
+     *         and the request could not be sent right away.
+     */
+    long reserve(long now, boolean onlyIfFree) {
+        if (now >= end) {
+            startPeriod(now);
+        }
+        long start = Math.max(now, next);
+        if (remaining < 1) {
+            // Nothing left in this period, wait for the next one
+            start = Math.max(start, end);
+        }
+        if (onlyIfFree && start > now) {
+            return -1;
+        }
+        if (start >= end) {
+            startPeriod(start);
+        }
+
+        remaining--;
+        // Spread what's left evenly over the rest of the period
+        next = start + (long) ((end - start) / (remaining + 1));
+        return start - now;
+    }
+
+    /**
+     * Corrects this window with the values returned by reddit. Responses can arrive out of order, so a response from the
+     * same period can only ever lower the amount of remaining requests.
+     */
+    void update(long now, double remaining, long resetMillis) {
+        long newEnd = now + resetMillis;
+        // Allow a bit of leeway since the reset value only has a resolution of one second
+        if (newEnd > end + 1000) {
+            // A new period has started
+            this.remaining = remaining;
+        } else {
+            this.remaining = Math.min(this.remaining, remaining);
+        }
+        this.end = newEnd;
+        if (this.remaining >= 1) {
+            // Don't let pacing calculated from outdated information hold requests back
+            next = Math.min(next, now + (long) (resetMillis / this.remaining));
+        }
+    }
+
+    /** Gets the amount of requests that may be sent per minute given what's left of the current period */
+    double getRate(long now) {
+        if (now >= end) {
+            return capacity * 60_000.0 / length;
+        }
+        return remaining * 60_000.0 / (end - now);
+    }
+
+    /** Sets the capacity so that it matches the given amount of requests per minute */
+    void setRate(int requestsPerMinute) {
+        if (requestsPerMinute < 1)
+            throw new IllegalArgumentException("requestsPerMinute cannot be less than 1");
+        this.capacity = (int) Math.max(1, Math.round(requestsPerMinute * length / 60_000.0));
+        this.remaining = Math.min(remaining, capacity);
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeInt(capacity);
+        out.writeDouble(remaining);
+        out.writeLong(end);
+        out.writeLong(next);
+    }
+
+    void read(DataInput in) throws IOException {
+        this.capacity = in.readInt();
+        this.remaining = in.readDouble();
+        this.end = in.readLong();
+        this.next = in.readLong();
+    }
+
+    private void startPeriod(long start) {
+        remaining = capacity;
+        end = start + length;
+    }
+}
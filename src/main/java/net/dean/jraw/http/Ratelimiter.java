@@ -0,0 +1,45 @@
+package net.dean.jraw.http;
+
+/**
+ * Decides when a {@link RestClient} may send its next request. One Ratelimiter can be shared by multiple RestClients
+ * (for example, several RedditClients authenticated with the same OAuth2 app) so that they stay within a common limit.
+ * All implementations must be thread-safe.
+ *
+ * @see SmoothRatelimiter
+ * @see SharedRatelimiter
+ * @see FileRatelimiter
+ */
+public interface Ratelimiter {
+    /**
+     * Blocks until a request may be sent
+     *
+     * @return The amount of seconds spent waiting
+     */
+    double acquire();
+
+    /**
+     * Takes permission to send a request only if it can be done without waiting
+     *
+     * @return True if a request may be sent now, false if the caller would have had to wait
+     */
+    boolean tryAcquire();
+
+    /** Gets the amount of requests that are currently allowed to be sent in one minute */
+    double getRate();
+
+    /**
+     * Sets the amount of requests that are allowed to be sent in one minute
+     *
+     * @param requestsPerMinute The amount of requests per minute. Must not be less than 1
+     */
+    void setRate(int requestsPerMinute);
+
+    /**
+     * Notifies this Ratelimiter of the values of the X-Ratelimit-Remaining and X-Ratelimit-Reset headers returned with
+     * a response
+     *
+     * @param remaining How many requests are left in the current period
+     * @param reset The amount of seconds until the current period ends
+     */
+    void update(double remaining, int reset);
+}
@@ -0,0 +1,84 @@
+package net.dean.jraw.http;
+
+/**
+ * Receives timing events for every request sent by a {@link RestClient}, for example to collect metrics. Every method
+ * does nothing by default, so subclasses only need to override the events they care about. See {@link MetricsRecorder}
+ * for a ready-made implementation.
+ *
+ * <p>Events are delivered on whichever thread is handling the request at the time, which for asynchronous requests is
+ * one of the HTTP library's threads. Implementations must therefore be thread-safe and fast. All durations are in
+ * nanoseconds. Which phases are reported for a request depends on the {@link HttpAdapter}; for example, a DNS event is
+ * only reported when a new connection had to be established.
+ *
+ * @see RestClient#setRequestListener(RequestListener)
+ */
+public abstract class RequestListener {
+    /**
+     * Called once the request has been given a ticket by the client's {@link Ratelimiter}
+     *
+     * @param nanos How long the request had to wait for the ticket, 0 if one was available right away
+     */
+    public void ratelimitWaited(HttpRequest request, long nanos) {}
+
+    /** Called after looking up the IP addresses of a host to open a new connection to */
+    public void dnsResolved(HttpRequest request, String host, long nanos) {}
+
+    /**
+     * Called once a connection is ready for the request to be written to. When a new connection had to be opened this
+     * includes the DNS lookup, TCP connect and TLS handshake; a pooled connection takes next to no time.
+     */
+    public void connected(HttpRequest request, long nanos) {}
+
+    /** Called once the response's status line and headers have been received, timed from when the request was written */
+    public void firstByteReceived(HttpRequest request, long nanos) {}
+
+    /** Called once the entire response body has been read */
+    public void bodyRead(HttpRequest request, long nanos) {}
+
+    /**
+     * Called once a JSON response body has been parsed. If the JSON was parsed while it was being read from the network
+     * (see {@link OkHttpAdapter#setStreamJson(boolean)}), this includes reading the body and no {@link #bodyRead} event
+     * is reported.
+     */
+    public void jsonParsed(HttpRequest request, long nanos) {}
+
+    /**
+     * Called after a model was created from the JSON of a response by {@link RestResponse#as(Class)} or
+     * {@link RestResponse#asListing(Class)}
+     */
+    public void modelBound(HttpRequest request, Class<?> modelClass, long nanos) {}
+
+    /**
+     * Called once a response has been received from the server, whether or not it was successful
+     *
+     * @param nanos The time from when the request started waiting for a ratelimit ticket until the response was fully
+     *              read
+     */
+    public void responseReceived(HttpRequest request, RestResponse response, long nanos) {}
+
+    /** Called if no response could be received at all, for example because the connection failed */
+    public void requestFailed(HttpRequest request, Exception error, long nanos) {}
+
+    /**
+     * Called when a request that received a server error or 429 Too Many Requests is about to be sent again
+     *
+     * @param retryCount How many times the request has been retried before this one
+     */
+    public void retrying(HttpRequest request, int retryCount) {}
+
+    /**
+     * Called when a {@link CircuitBreaker} stops letting requests through to an endpoint because too many of them failed
+     *
+     * @param request The request whose failure tripped the circuit
+     */
+    public void circuitOpened(HttpRequest request) {}
+
+    /** Called when a request is rejected by a {@link CircuitBreaker} without being sent */
+    public void circuitRejected(HttpRequest request) {}
+
+    /**
+     * Called when a request is rejected because the client's access token does not have the required scope, right
+     * before an {@link net.dean.jraw.http.oauth.InvalidScopeException} is thrown
+     */
+    public void invalidScope(HttpRequest request) {}
+}
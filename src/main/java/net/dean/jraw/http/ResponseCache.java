@@ -0,0 +1,211 @@
+package net.dean.jraw.http;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import okhttp3.CacheControl;
+import okhttp3.Headers;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in-memory cache of successful GET responses that can be given to a {@link RestClient} using
+ * {@link RestClient#setResponseCache(ResponseCache)}. Responses are evicted once the total size of their bodies exceeds
+ * the maximum size, least recently used first.
+ *
+ * <p>A response is served straight from memory while it's fresh, which costs neither a network round-trip nor a
+ * ratelimit ticket. Reddit marks most API responses as immediately stale, so by default every cached response is
+ * revalidated: the request is sent with If-None-Match and/or If-Modified-Since, and if the server answers with 304 Not
+ * Modified the cached response is used instead of downloading and parsing it again. Use
+ * {@link #setMinimumFreshness(long, TimeUnit)} to serve responses without revalidation for a while, which works well for
+ * data that rarely changes such as subreddit information, wiki pages and multireddit definitions.
+ *
+ * <p>Requests sent with {@code Cache-Control: no-cache} (for example, using {@link okhttp3.CacheControl#FORCE_NETWORK})
+ * always go to the network, and requests or responses with {@code no-store} are never cached.
+ */
+public class ResponseCache {
+    private final Cache<String, Entry> entries;
+    private final AtomicLong hitCount;
+    private final AtomicLong revalidationCount;
+    private final AtomicLong missCount;
+    private volatile long minimumFreshness;
+
+    /**
+     * Instantiates a new ResponseCache
+     *
+     * @param maxSize The maximum amount of characters in the bodies of all cached responses combined
+     */
+    public ResponseCache(long maxSize) {
+        this.entries = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize)
+                .weigher(new Weigher<String, Entry>() {
+                    @Override
+                    public int weigh(String key, Entry entry) {
+                        return entry.size;
+                    }
+                })
+                .build();
+        this.hitCount = new AtomicLong();
+        this.revalidationCount = new AtomicLong();
+        this.missCount = new AtomicLong();
+        this.minimumFreshness = 0;
+    }
+
+    /**
+     * Sets how long a response will be served without revalidation, even if the server asked for it to be revalidated
+     * sooner. If the server specifies a longer max-age, that will be used instead. Defaults to 0.
+     */
+    public void setMinimumFreshness(long duration, TimeUnit unit) {
+        if (duration < 0)
+            throw new IllegalArgumentException("duration must not be negative");
+        this.minimumFreshness = unit.toMillis(duration);
+    }
+
+    /** Gets how long a response will be served without revalidation, in milliseconds */
+    public long getMinimumFreshness() {
+        return minimumFreshness;
+    }
+
+    /**
+     * Finds the cached response for a request
+     *
+     * @return The entry, or null if there isn't one or the request can't be answered from the cache
+     */
+    Entry get(HttpRequest request) {
+        if (!isCacheable(request))
+            return null;
+        CacheControl cacheControl = CacheControl.parse(request.getHeaders());
+        if (cacheControl.noCache())
+            return null;
+        return entries.getIfPresent(key(request));
+    }
+
+    /** Returns a copy of the cached response to be used without contacting the server */
+    RestResponse hit(Entry entry) {
+        hitCount.incrementAndGet();
+        return new RestResponse(entry.response, entry.response.getHeaders(), true);
+    }
+
+    /** Adds validators from the cached response to the request so the server can answer with 304 Not Modified */
+    HttpRequest conditional(HttpRequest request, Entry entry) {
+        Headers.Builder headers = request.getHeaders().newBuilder();
+        if (entry.etag != null)
+            headers.set("If-None-Match", entry.etag);
+        if (entry.lastModified != null)
+            headers.set("If-Modified-Since", entry.lastModified);
+        return request.withHeaders(headers.build());
+    }
+
+    /**
+     * Called when the server answered a conditional request with 304 Not Modified
+     *
+     * @return The cached response, with its headers updated from the 304 response
+     */
+    RestResponse revalidated(HttpRequest request, Entry entry, RestResponse notModified) {
+        revalidationCount.incrementAndGet();
+
+        Headers.Builder merged = entry.response.getHeaders().newBuilder();
+        Headers updated = notModified.getHeaders();
+        for (String name : updated.names()) {
+            merged.removeAll(name);
+            for (String value : updated.values(name)) {
+                merged.add(name, value);
+            }
+        }
+        RestResponse response = new RestResponse(entry.response, merged.build(), false);
+        store(request, response);
+        return response;
+    }
+
+    /** Called with every successful response received from the server */
+    void put(HttpRequest request, RestResponse response) {
+        if (!isCacheable(request))
+            return;
+        missCount.incrementAndGet();
+        store(request, response);
+    }
+
+    private void store(HttpRequest request, RestResponse response) {
+        String key = key(request);
+        if (CacheControl.parse(request.getHeaders()).noStore() ||
+                CacheControl.parse(response.getHeaders()).noStore()) {
+            entries.invalidate(key);
+            return;
+        }
+        // Weigh streamed responses without serializing their JSON back into a String
+        long size = response.getBodyLength();
+        if (size < 0)
+            size = response.getRaw().length();
+        entries.put(key, new Entry(response, (int) Math.min(size, Integer.MAX_VALUE), freshUntil(response)));
+    }
+
+    private long freshUntil(RestResponse response) {
+        long freshness = minimumFreshness;
+        int maxAge = CacheControl.parse(response.getHeaders()).maxAgeSeconds();
+        if (maxAge > 0)
+            freshness = Math.max(freshness, TimeUnit.SECONDS.toMillis(maxAge));
+        return System.currentTimeMillis() + freshness;
+    }
+
+    /** Removes every cached response */
+    public void clear() {
+        entries.invalidateAll();
+    }
+
+    /** Gets how many cached responses there are */
+    public long size() {
+        return entries.size();
+    }
+
+    /** Gets how many requests were answered from memory without contacting the server */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /** Gets how many requests were answered with 304 Not Modified, so the cached response could be reused */
+    public long getRevalidationCount() {
+        return revalidationCount.get();
+    }
+
+    /** Gets how many cacheable requests required a full response from the server */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private static boolean isCacheable(HttpRequest request) {
+        return request.getMethod().equals("GET");
+    }
+
+    /** Responses depend on who is asking, so the key includes the Authorization header */
+    private static String key(HttpRequest request) {
+        String auth = request.getHeaders().get("Authorization");
+        return request.getUrl().toExternalForm() + (auth == null ? "" : '\n' + auth);
+    }
+
+    /** A cached response along with what's needed to revalidate it */
+    static final class Entry {
+        private final RestResponse response;
+        private final int size;
+        private final long freshUntil;
+        private final String etag;
+        private final String lastModified;
+
+        private Entry(RestResponse response, int size, long freshUntil) {
+            this.response = response;
+            this.size = size;
+            this.freshUntil = freshUntil;
+            this.etag = response.getHeaders().get("ETag");
+            this.lastModified = response.getHeaders().get("Last-Modified");
+        }
+
+        boolean isFresh() {
+            return System.currentTimeMillis() < freshUntil;
+        }
+
+        /** Checks if the server can be asked whether the response has changed */
+        boolean canRevalidate() {
+            return etag != null || lastModified != null;
+        }
+    }
+}
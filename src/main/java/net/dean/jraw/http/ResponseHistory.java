@@ -0,0 +1,393 @@
+package net.dean.jraw.http;
+
+import com.google.common.base.Charsets;
+import net.dean.jraw.Endpoints;
+import okhttp3.Headers;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed-capacity record of the most recent responses received by a {@link RestClient}, for looking into what happened
+ * after the fact. Once full, every new response replaces the oldest one. Responses are not kept themselves: each
+ * {@link Entry} only holds the response's metadata and (by default, truncated) body, so that the memory used by the
+ * history is bounded no matter how long the client runs.
+ *
+ * <p>Entries can also be evicted by age using {@link #setMaxAge(long, TimeUnit)}, and successful responses can be
+ * sampled using {@link #setSampleRate(int)}. Instead of keeping bodies in memory, they can be written to a spill file
+ * (see {@link #setSpillFile(File, long)}), which is reused from the beginning once it reaches its maximum size.
+ *
+ * <p>Thread-safe.
+ */
+public class ResponseHistory implements Closeable {
+    /** The amount of responses kept by default */
+    public static final int DEFAULT_CAPACITY = 100;
+    /** The amount of characters of each body that are kept by default */
+    public static final int DEFAULT_MAX_BODY_LENGTH = 8 * 1024;
+
+    private Entry[] entries;
+    /** The index of the oldest entry */
+    private int head;
+    private int size;
+    private long maxAge;
+    private int maxBodyLength;
+    private volatile int sampleRate;
+    private final AtomicLong successCount;
+
+    private RandomAccessFile spill;
+    private long maxSpillBytes;
+    /** Where the next body will be written to the spill file */
+    private long spillPosition;
+    /** Incremented every time the spill file wraps around, so that overwritten bodies can be detected */
+    private long spillGeneration;
+
+    /** Instantiates a new ResponseHistory that keeps up to {@link #DEFAULT_CAPACITY} responses */
+    public ResponseHistory() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Instantiates a new ResponseHistory
+     *
+     * @param capacity The maximum amount of responses to keep
+     */
+    public ResponseHistory(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be at least 1");
+        this.entries = new Entry[capacity];
+        this.maxBodyLength = DEFAULT_MAX_BODY_LENGTH;
+        this.sampleRate = 1;
+        this.successCount = new AtomicLong();
+    }
+
+    /**
+     * Records a response, replacing the oldest one if the history is full
+     *
+     * @param response The response, successful or not
+     * @param received When the response was received
+     */
+    public void add(RestResponse response, Date received) {
+        int rate = sampleRate;
+        if (response.isSuccessful() && rate > 1 && successCount.getAndIncrement() % rate != 0)
+            return;
+
+        String body = null;
+        int bodyLength;
+        if (getMaxBodyLength() == 0) {
+            // The body won't be kept, don't create it if the response was parsed as it was streamed
+            bodyLength = (int) Math.min(response.getBodyLength(), Integer.MAX_VALUE);
+        } else {
+            body = response.getRaw();
+            bodyLength = body == null ? 0 : body.length();
+        }
+        synchronized (this) {
+            if (maxBodyLength == 0)
+                body = null;
+            else if (body != null && maxBodyLength > 0 && body.length() > maxBodyLength)
+                body = body.substring(0, maxBodyLength);
+            boolean truncated = body != null && body.length() < bodyLength;
+
+            Entry entry;
+            if (spill != null && body != null) {
+                byte[] bytes = body.getBytes(Charsets.UTF_8);
+                entry = new Entry(response, received, bodyLength, truncated, null, writeSpill(bytes), bytes.length,
+                        spillGeneration);
+            } else {
+                entry = new Entry(response, received, bodyLength, truncated, body, -1, 0, 0);
+            }
+
+            evictExpired(System.currentTimeMillis());
+            if (size == entries.length) {
+                // Overwrite the oldest entry
+                entries[head] = entry;
+                head = (head + 1) % entries.length;
+            } else {
+                entries[(head + size) % entries.length] = entry;
+                size++;
+            }
+        }
+    }
+
+    /** Gets every entry that is still in the history, from the oldest to the newest */
+    public synchronized List<Entry> getEntries() {
+        evictExpired(System.currentTimeMillis());
+        List<Entry> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(entries[(head + i) % entries.length]);
+        }
+        return list;
+    }
+
+    /** Gets the amount of entries in the history */
+    public synchronized int size() {
+        evictExpired(System.currentTimeMillis());
+        return size;
+    }
+
+    /** Removes every entry */
+    public synchronized void clear() {
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = null;
+        }
+        head = 0;
+        size = 0;
+    }
+
+    /** Gets the maximum amount of responses that are kept */
+    public synchronized int getCapacity() {
+        return entries.length;
+    }
+
+    /** Sets the maximum amount of responses that are kept. If there are more, the oldest ones are removed. */
+    public synchronized void setCapacity(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be at least 1");
+        Entry[] resized = new Entry[capacity];
+        int kept = Math.min(size, capacity);
+        for (int i = 0; i < kept; i++) {
+            resized[i] = entries[(head + size - kept + i) % entries.length];
+        }
+        entries = resized;
+        head = 0;
+        size = kept;
+    }
+
+    /**
+     * Sets how long responses are kept for, at most. Set to 0 to keep them until they are replaced by newer ones, which
+     * is the default.
+     */
+    public synchronized void setMaxAge(long maxAge, TimeUnit unit) {
+        if (maxAge < 0)
+            throw new IllegalArgumentException("maxAge must not be negative");
+        this.maxAge = unit.toMillis(maxAge);
+    }
+
+    /** Gets how long responses are kept for in milliseconds, or 0 if they are kept until they are replaced */
+    public synchronized long getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     * Sets the maximum amount of characters of each body that are kept, the rest is discarded. Set to 0 to not keep
+     * bodies at all, or to -1 to keep them in full. Defaults to {@link #DEFAULT_MAX_BODY_LENGTH}.
+     */
+    public synchronized void setMaxBodyLength(int maxBodyLength) {
+        if (maxBodyLength < -1)
+            throw new IllegalArgumentException("maxBodyLength must be -1 or more");
+        this.maxBodyLength = maxBodyLength;
+    }
+
+    /** Gets the maximum amount of characters of each body that are kept, or -1 if they are kept in full */
+    public synchronized int getMaxBodyLength() {
+        return maxBodyLength;
+    }
+
+    /**
+     * Sets how many successful responses are recorded. For example, 10 records one out of every ten successful
+     * responses. Unsuccessful responses are always recorded. Defaults to 1, recording every response.
+     */
+    public void setSampleRate(int sampleRate) {
+        if (sampleRate < 1)
+            throw new IllegalArgumentException("sampleRate must be at least 1");
+        this.sampleRate = sampleRate;
+    }
+
+    /** Gets how many successful responses are recorded, one out of every this many */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Stores the bodies of new entries in a file instead of in memory. The file is overwritten from the start once it
+     * would grow past {@code maxBytes}, at which point the oldest bodies are lost even if their entries are still in
+     * the history. Set to null to keep bodies in memory again, which is the default.
+     *
+     * @param file The file to store bodies in. Its existing contents will be overwritten.
+     * @param maxBytes The maximum size of the file
+     * @throws IOException If the file could not be opened
+     */
+    public synchronized void setSpillFile(File file, long maxBytes) throws IOException {
+        if (file != null && maxBytes < 1)
+            throw new IllegalArgumentException("maxBytes must be positive");
+        closeSpill();
+        if (file == null)
+            return;
+        spill = new RandomAccessFile(file, "rw");
+        spill.setLength(0);
+        maxSpillBytes = maxBytes;
+    }
+
+    /** Closes the spill file, if there is one. Bodies of entries that were stored in it are no longer available. */
+    @Override
+    public synchronized void close() throws IOException {
+        closeSpill();
+    }
+
+    private void closeSpill() throws IOException {
+        if (spill != null) {
+            spill.close();
+            spill = null;
+            // Bodies written to the old file can't be read anymore
+            spillGeneration += 2;
+            spillPosition = 0;
+        }
+    }
+
+    /** Writes a body to the spill file and returns where it starts, or -1 if it could not be written */
+    private long writeSpill(byte[] bytes) {
+        if (bytes.length > maxSpillBytes)
+            return -1;
+        if (spillPosition + bytes.length > maxSpillBytes) {
+            spillPosition = 0;
+            spillGeneration++;
+        }
+        long position = spillPosition;
+        try {
+            spill.seek(position);
+            spill.write(bytes);
+        } catch (IOException e) {
+            return -1;
+        }
+        spillPosition += bytes.length;
+        return position;
+    }
+
+    /** Reads a body back from the spill file, or returns null if it has been overwritten since */
+    private synchronized String readSpill(long position, int length, long generation) {
+        boolean intact = spill != null && (generation == spillGeneration ||
+                // Written before the file wrapped around, but not reached again yet
+                (generation == spillGeneration - 1 && position >= spillPosition));
+        if (!intact)
+            return null;
+
+        byte[] bytes = new byte[length];
+        try {
+            spill.seek(position);
+            spill.readFully(bytes);
+        } catch (IOException e) {
+            return null;
+        }
+        return new String(bytes, Charsets.UTF_8);
+    }
+
+    private void evictExpired(long now) {
+        if (maxAge == 0)
+            return;
+        while (size > 0 && now - entries[head].received.getTime() > maxAge) {
+            entries[head] = null;
+            head = (head + 1) % entries.length;
+            size--;
+        }
+    }
+
+    /** What is known about a response in the history. Holds no reference to the response itself. */
+    public final class Entry {
+        private final String method;
+        private final String url;
+        private final Endpoints endpoint;
+        private final int statusCode;
+        private final String statusMessage;
+        private final String protocol;
+        private final Headers headers;
+        private final Date received;
+        private final int bodyLength;
+        private final boolean bodyTruncated;
+        private final String body;
+        private final long spillPosition;
+        private final int spillLength;
+        private final long spillGeneration;
+
+        private Entry(RestResponse response, Date received, int bodyLength, boolean bodyTruncated, String body,
+                      long spillPosition, int spillLength, long spillGeneration) {
+            HttpRequest origin = response.getOrigin();
+            this.method = origin.getMethod();
+            this.url = origin.getUrl().toExternalForm();
+            this.endpoint = origin.getEndpoint();
+            this.statusCode = response.getStatusCode();
+            this.statusMessage = response.getStatusMessage();
+            this.protocol = response.getProtocol();
+            this.headers = response.getHeaders();
+            this.received = received;
+            this.bodyLength = bodyLength;
+            this.bodyTruncated = bodyTruncated;
+            this.body = body;
+            this.spillPosition = spillPosition;
+            this.spillLength = spillLength;
+            this.spillGeneration = spillGeneration;
+        }
+
+        /** Gets the HTTP verb of the request */
+        public String getMethod() {
+            return method;
+        }
+
+        /** Gets the URL the request was sent to */
+        public String getUrl() {
+            return url;
+        }
+
+        /** Gets the endpoint the request was created for, or null if it wasn't created for a specific endpoint */
+        public Endpoints getEndpoint() {
+            return endpoint;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public String getStatusMessage() {
+            return statusMessage;
+        }
+
+        public String getProtocol() {
+            return protocol;
+        }
+
+        /** Gets the response's headers */
+        public Headers getHeaders() {
+            return headers;
+        }
+
+        /** Gets the time the response was received */
+        public Date getReceived() {
+            return received;
+        }
+
+        /**
+         * Gets the length of the body as it was received, before it was truncated. Returns -1 if bodies aren't being kept
+         * and the length of a streamed body isn't known.
+         *
+         * @see RestResponse#getBodyLength()
+         */
+        public int getBodyLength() {
+            return bodyLength;
+        }
+
+        /** Checks if only the start of the body was kept */
+        public boolean isBodyTruncated() {
+            return bodyTruncated;
+        }
+
+        /**
+         * Gets the body that was kept, which may have been truncated. Returns null if the response had no body, bodies
+         * aren't being kept, or the body was stored in the spill file and has been overwritten since.
+         */
+        public String getBody() {
+            if (body != null || spillPosition < 0)
+                return body;
+            return readSpill(spillPosition, spillLength, spillGeneration);
+        }
+
+        @Override
+        public String toString() {
+            return "Entry {" + method + " " + url + ", status=" + statusCode + ", received=" + received + "}";
+        }
+    }
+}
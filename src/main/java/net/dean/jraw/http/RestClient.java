@@ -1,11 +1,25 @@
 package net.dean.jraw.http;
 
-import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 import okhttp3.Headers;
 import net.dean.jraw.util.JrawUtils;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class provides a high-level API to send REST-oriented HTTP requests with.
@@ -15,10 +29,17 @@ public abstract class RestClient implements HttpClient {
     protected final HttpAdapter<?> httpAdapter;
     private final String defaultHost;
     /** The CookieStore that will contain all the cookies saved by {@link #httpAdapter} */
-    protected final HttpLogger logger;
-    /** A list of Requests sent in the past */
-    protected final LinkedHashMap<RestResponse, Date> history;
-    private RateLimiter rateLimiter;
+    protected volatile HttpLogger logger;
+    /** The most recent responses, recorded if {@link #saveResponseHistory} is enabled */
+    protected final ResponseHistory history;
+    private Ratelimiter ratelimiter;
+    private ListeningExecutorService ratelimitExecutor;
+    private ResponseCache responseCache;
+    /** Requests that are currently being sent, by {@link #coalescingKey(HttpRequest)} */
+    private final ConcurrentMap<String, ListenableFuture<RestResponse>> inFlight;
+    private final AtomicLong coalescedCount;
+    private volatile boolean coalesceRequests;
+    private volatile RequestListener requestListener;
     private boolean useHttpsDefault;
     private boolean saveResponseHistory;
     private LoggingMode loggingMode;
@@ -35,7 +56,10 @@ public abstract class RestClient implements HttpClient {
         this.defaultHost = defaultHost;
         this.saveResponseHistory = false;
         this.logger = new HttpLogger(JrawUtils.logger());
-        this.history = new LinkedHashMap<>();
+        this.history = new ResponseHistory();
+        this.inFlight = new ConcurrentHashMap<>();
+        this.coalescedCount = new AtomicLong();
+        this.coalesceRequests = false;
         this.useHttpsDefault = false;
         // Never log by default
         this.loggingMode = LoggingMode.NEVER;
@@ -53,7 +77,22 @@ public abstract class RestClient implements HttpClient {
 
     /** Gets the current amount of times a request can be executed in one minute. */
     public double getCurrentRatelimit() {
-        return rateLimiter.getRate() * 60;
+        return ratelimiter.getRate();
+    }
+
+    /** Gets the Ratelimiter that decides when requests can be sent */
+    public Ratelimiter getRatelimiter() {
+        return ratelimiter;
+    }
+
+    /**
+     * Sets the Ratelimiter that decides when requests can be sent. The same Ratelimiter can be given to multiple
+     * RestClients to make them share a ratelimit, see {@link SharedRatelimiter} and {@link FileRatelimiter}.
+     */
+    public void setRatelimiter(Ratelimiter ratelimiter) {
+        if (ratelimiter == null)
+            throw new NullPointerException("ratelimiter cannot be null");
+        this.ratelimiter = ratelimiter;
     }
 
     /**
@@ -66,11 +105,10 @@ public abstract class RestClient implements HttpClient {
     protected void setRatelimit(int requestsPerMinute) {
         if (requestsPerMinute < 1)
             throw new IllegalArgumentException("requestsPerMinute cannot be less than 1");
-        double perSecond = requestsPerMinute / 60.0;
-        if (rateLimiter == null)
-            rateLimiter = RateLimiter.create(perSecond);
+        if (ratelimiter == null)
+            ratelimiter = new SmoothRatelimiter(requestsPerMinute);
         else
-            rateLimiter.setRate(perSecond);
+            ratelimiter.setRate(requestsPerMinute);
     }
 
     @Override
@@ -97,54 +135,319 @@ public abstract class RestClient implements HttpClient {
 
     @Override
     public RestResponse execute(HttpRequest request) throws NetworkException {
+        if (!coalesceRequests || !isIdempotent(request))
+            return send(request);
+
+        String key = coalescingKey(request);
+        SettableFuture<RestResponse> future = SettableFuture.create();
+        ListenableFuture<RestResponse> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            // An identical request is already being sent, wait for its response instead of sending another one
+            coalescedCount.incrementAndGet();
+            return await(existing);
+        }
+
+        try {
+            RestResponse response = send(request);
+            future.set(response);
+            return response;
+        } catch (Throwable t) {
+            future.setException(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /** Sends a request without checking if an identical one is already being sent */
+    private RestResponse send(HttpRequest request) throws NetworkException {
         Headers.Builder builder = request.getHeaders().newBuilder();
         for (Map.Entry<String, String> defaultHeader : httpAdapter.getDefaultHeaders().entrySet()) {
             builder.add(defaultHeader.getKey(), defaultHeader.getValue());
         }
 
+        final ResponseCache.Entry cached = responseCache != null ? responseCache.get(request) : null;
+        if (cached != null && cached.isFresh())
+            // No need to contact the server at all
+            return responseCache.hit(cached);
+        HttpRequest toSend = cached != null && cached.canRevalidate() ? responseCache.conditional(request, cached) : request;
+
+        long start = System.nanoTime();
         // Try to get a ticket without waiting
-        if (!rateLimiter.tryAcquire()) {
+        if (!ratelimiter.tryAcquire()) {
             // Could not get a ticket immediately, block until we can
-            double time = rateLimiter.acquire();
-            // We're not sure about whether this will fail, so be on the safe side
-            if (loggingMode == LoggingMode.ALWAYS) {
-                JrawUtils.logger().info("Slept for {} seconds", time);
-            }
+            waitForTicket();
         }
+        reportRatelimitWait(request, start);
 
+        RestResponse response;
         try {
-            // We're always logging, so we can be proactive and log the request before it's executed
-            if (loggingMode == LoggingMode.ALWAYS)
-                logger.log(request);
-
-            RestResponse response = httpAdapter.execute(request);
-            // Log the response as well
-            if (loggingMode == LoggingMode.ALWAYS)
-                logger.log(response);
-
-            // Log the request and response if it was not successful
-            if (loggingMode == LoggingMode.ON_FAIL && !response.isSuccessful()) {
-                logger.log(request, false);
-                logger.log(response);
+            logRequest(toSend);
+            response = httpAdapter.execute(toSend);
+        } catch (IOException e) {
+            reportFailure(request, e, start);
+            throw new RuntimeException("Could not execute the request: " + request, e);
+        }
+        return handleResponse(request, response, cached, start);
+    }
+
+    @Override
+    public ListenableFuture<RestResponse> executeAsync(HttpRequest request) {
+        if (!coalesceRequests || !isIdempotent(request))
+            return sendAsync(request);
+
+        final String key = coalescingKey(request);
+        final SettableFuture<RestResponse> future = SettableFuture.create();
+        ListenableFuture<RestResponse> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalescedCount.incrementAndGet();
+            // One caller cancelling must not cancel the request for everyone else
+            return Futures.nonCancellationPropagating(existing);
+        }
+
+        future.setFuture(sendAsync(request));
+        future.addListener(new Runnable() {
+            @Override
+            public void run() {
+                inFlight.remove(key, future);
             }
+        }, MoreExecutors.directExecutor());
+        return Futures.nonCancellationPropagating(future);
+    }
 
-            if (!response.isSuccessful())
-                throw new NetworkException(response);
+    /** Sends a request asynchronously without checking if an identical one is already being sent */
+    private ListenableFuture<RestResponse> sendAsync(final HttpRequest request) {
+        final ResponseCache.Entry cached = responseCache != null ? responseCache.get(request) : null;
+        if (cached != null && cached.isFresh())
+            return Futures.immediateFuture(responseCache.hit(cached));
+        final HttpRequest toSend = cached != null && cached.canRevalidate() ?
+                responseCache.conditional(request, cached) : request;
 
-            if (!JrawUtils.isEqual(response.getType(), request.getExpectedType())) {
-                throw new IllegalStateException(String.format("Expected Content-Type ('%s/%s') did not match actual Content-Type ('%s/%s')",
-                        request.getExpectedType().type(), request.getExpectedType().subtype(),
-                        response.getType().type(), response.getType().subtype()));
+        final long start = System.nanoTime();
+        ListenableFuture<Void> ticket;
+        if (ratelimiter.tryAcquire()) {
+            ticket = Futures.immediateFuture(null);
+        } else {
+            // Could not get a ticket immediately. Wait for one on a separate thread so that only one thread is blocked,
+            // no matter how many requests are waiting.
+            ticket = getRatelimitExecutor().submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    waitForTicket();
+                    return null;
+                }
+            });
+        }
+
+        ListenableFuture<RestResponse> response = Futures.transformAsync(ticket, new AsyncFunction<Void, RestResponse>() {
+            @Override
+            public ListenableFuture<RestResponse> apply(Void input) {
+                reportRatelimitWait(request, start);
+                logRequest(toSend);
+                return httpAdapter.executeAsync(toSend);
             }
+        });
 
-            if (saveResponseHistory)
-                history.put(response, new Date());
-            return response;
-        } catch (IOException e) {
-            throw new RuntimeException("Could not execute the request: " + request, e);
+        response = Futures.catchingAsync(response, IOException.class, new AsyncFunction<IOException, RestResponse>() {
+            @Override
+            public ListenableFuture<RestResponse> apply(IOException e) {
+                reportFailure(request, e, start);
+                return Futures.immediateFailedFuture(new RuntimeException("Could not execute the request: " + request, e));
+            }
+        });
+
+        return Futures.transform(response, new Function<RestResponse, RestResponse>() {
+            @Override
+            public RestResponse apply(RestResponse input) {
+                return handleResponse(request, input, cached, start);
+            }
+        });
+    }
+
+    /** Waits for the response of a request sent by another caller, rethrowing its exception if it failed */
+    private static RestResponse await(ListenableFuture<RestResponse> future) {
+        try {
+            return Uninterruptibles.getUninterruptibly(future);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new RuntimeException(cause);
         }
     }
 
+    /** Only requests that have no side effects can share a response */
+    private static boolean isIdempotent(HttpRequest request) {
+        return request.getMethod().equals("GET") || request.getMethod().equals("HEAD");
+    }
+
+    /**
+     * Identifies requests that would receive the same response. All headers are included, since responses depend on
+     * things like the Authorization header.
+     */
+    private static String coalescingKey(HttpRequest request) {
+        return request.getMethod() + ' ' + request.getUrl().toExternalForm() + '\n' + request.getHeaders();
+    }
+
+    /** Blocks until the rate limiter hands out a ticket */
+    private void waitForTicket() {
+        double time = ratelimiter.acquire();
+        // We're not sure about whether this will fail, so be on the safe side
+        if (loggingMode == LoggingMode.ALWAYS) {
+            JrawUtils.logger().info("Slept for {} seconds", time);
+        }
+    }
+
+    private void reportRatelimitWait(HttpRequest request, long start) {
+        RequestListener listener = requestListener;
+        if (listener != null)
+            listener.ratelimitWaited(request, System.nanoTime() - start);
+    }
+
+    private void reportFailure(HttpRequest request, Exception error, long start) {
+        if (loggingMode == LoggingMode.ASYNC)
+            logger.logAsync(request, error, System.nanoTime() - start);
+        RequestListener listener = requestListener;
+        if (listener != null)
+            listener.requestFailed(request, error, System.nanoTime() - start);
+    }
+
+    /**
+     * Notifies the RequestListener that a response was received, and lets the response report when models are created
+     * from it
+     *
+     * @param start When the request started waiting for a ratelimit ticket, from {@link System#nanoTime()}
+     */
+    private void reportResponse(HttpRequest request, RestResponse response, long start) {
+        RequestListener listener = requestListener;
+        if (listener == null)
+            return;
+        response.listener = listener;
+        if (response.parseNanos > 0)
+            listener.jsonParsed(request, response.parseNanos);
+        listener.responseReceived(request, response, System.nanoTime() - start);
+    }
+
+    private void logRequest(HttpRequest request) {
+        // We're always logging, so we can be proactive and log the request before it's executed
+        if (loggingMode == LoggingMode.ALWAYS)
+            logger.log(request);
+    }
+
+    /**
+     * Does the same as {@link #handleResponse(HttpRequest, RestResponse)}, but also takes care of the response cache and
+     * the RequestListener
+     *
+     * @param cached The cached response for the request, or null if there was none
+     * @param start When the request started waiting for a ratelimit ticket, from {@link System#nanoTime()}
+     */
+    private RestResponse handleResponse(HttpRequest request, RestResponse response, ResponseCache.Entry cached,
+                                        long start) throws NetworkException {
+        if (loggingMode == LoggingMode.ASYNC)
+            logger.logAsync(request, response, System.nanoTime() - start);
+        reportResponse(request, response, start);
+        if (cached != null && response.getStatusCode() == 304)
+            return responseCache.revalidated(request, cached, response);
+
+        response = handleResponse(request, response);
+        if (responseCache != null)
+            responseCache.put(request, response);
+        return response;
+    }
+
+    /**
+     * Logs the response and saves it to the history if necessary, and then makes sure it was successful and has the
+     * expected Content-Type
+     */
+    private RestResponse handleResponse(HttpRequest request, RestResponse response) throws NetworkException {
+        // Unsuccessful responses are the most useful ones to look back on
+        if (saveResponseHistory)
+            history.add(response, new Date());
+
+        // Log the response as well
+        if (loggingMode == LoggingMode.ALWAYS)
+            logger.log(response);
+
+        // Log the request and response if it was not successful
+        if (loggingMode == LoggingMode.ON_FAIL && !response.isSuccessful()) {
+            logger.log(request, false);
+            logger.log(response);
+        }
+
+        if (!response.isSuccessful())
+            throw new NetworkException(response);
+
+        if (!JrawUtils.isEqual(response.getType(), request.getExpectedType())) {
+            throw new IllegalStateException(String.format("Expected Content-Type ('%s/%s') did not match actual Content-Type ('%s/%s')",
+                    request.getExpectedType().type(), request.getExpectedType().subtype(),
+                    response.getType().type(), response.getType().subtype()));
+        }
+
+        return response;
+    }
+
+    /** Gets the ResponseCache used by this RestClient, or null if responses are not being cached */
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Sets the ResponseCache used by this RestClient. Successful GET responses will be stored in it, and used for
+     * later requests to the same URL. Set to null to disable caching, which is the default.
+     */
+    public void setResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    /** Checks if identical GET and HEAD requests that are sent at the same time share a single response */
+    public boolean isCoalescingRequests() {
+        return coalesceRequests;
+    }
+
+    /**
+     * Sets whether identical GET and HEAD requests that are sent at the same time should share a single response.
+     * When enabled, a request with the same method, URL and headers as one that is still waiting for its response is
+     * not sent again. Instead, it receives the same RestResponse (or exception) once the first request completes, which
+     * saves a network round-trip and a ratelimit ticket. Disabled by default.
+     */
+    public void setCoalesceRequests(boolean flag) {
+        this.coalesceRequests = flag;
+    }
+
+    /** Gets how many requests were not sent because an identical request was already in progress */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /** Gets the RequestListener that is notified of the progress of every request, or null if there is none */
+    public RequestListener getRequestListener() {
+        return requestListener;
+    }
+
+    /**
+     * Sets the RequestListener that will be notified of the progress of every request sent by this client, including
+     * events that only the HttpAdapter can observe, such as connecting and receiving the first byte. Set to null to
+     * disable, which is the default.
+     */
+    public void setRequestListener(RequestListener listener) {
+        this.requestListener = listener;
+        httpAdapter.setRequestListener(listener);
+    }
+
+    /** Lazily creates the executor that waits for rate limit tickets on behalf of asynchronous requests */
+    private synchronized ListeningExecutorService getRatelimitExecutor() {
+        if (ratelimitExecutor == null) {
+            ratelimitExecutor = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor(
+                    new ThreadFactoryBuilder()
+                            .setDaemon(true)
+                            .setNameFormat("jraw-ratelimit-%d")
+                            .build()));
+        }
+        return ratelimitExecutor;
+    }
+
     @Override
     public String getUserAgent() {
         return httpAdapter.getDefaultHeaders().get("User-Agent");
@@ -176,7 +479,7 @@ public abstract class RestClient implements HttpClient {
     }
 
     @Override
-    public LinkedHashMap<RestResponse, Date> getHistory() {
+    public ResponseHistory getHistory() {
         return history;
     }
 
@@ -185,6 +488,16 @@ public abstract class RestClient implements HttpClient {
         return logger;
     }
 
+    /**
+     * Sets the HttpLogger that logs the requests and responses of this client, for example to log them to a different
+     * SLF4J Logger. Which requests are logged is still decided by {@link #setLoggingMode(LoggingMode)}.
+     */
+    public void setHttpLogger(HttpLogger logger) {
+        if (logger == null)
+            throw new NullPointerException("logger cannot be null");
+        this.logger = logger;
+    }
+
     @Override
     public HttpAdapter getHttpAdapter() {
         return httpAdapter;
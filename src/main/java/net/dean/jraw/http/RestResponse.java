@@ -25,8 +25,11 @@ public class RestResponse {
     protected final Headers headers;
     /** The root node of the JSON */
     protected final JsonNode rootNode;
-    /** The raw data of the response's content */
-    protected final String raw;
+    /**
+     * The raw data of the response's content. Lazily initialized from {@link #rootNode} if the body was parsed while it
+     * was being read from the network.
+     */
+    protected String raw;
     /** The Content-Type returned from the response */
     protected final MediaType type;
     protected final int statusCode;
@@ -34,61 +37,119 @@ public class RestResponse {
     protected final String protocol;
 
     private final ApiException apiException;
+    private final boolean fromCache;
+    /** How long it took to parse the JSON body, or 0 if it wasn't measured */
+    long parseNanos;
+    /** How many bytes were read from the network for a body that was parsed while it was being read, or -1 if unknown */
+    long bodyBytes = -1;
+    /** Notified when models are created from this response, set by the RestClient that received it */
+    RequestListener listener;
 
     /**
      * Instantiates a new RedditResponse
      */
-    @SuppressWarnings("ThrowableInstanceNeverThrown")
     RestResponse(HttpRequest origin, String body, Headers headers, int statusCode, String statusMessage, String protocol) {
         this.origin = origin;
         this.headers = headers;
         this.statusCode = statusCode;
         this.statusMessage = statusMessage;
         this.protocol = protocol;
+        this.fromCache = false;
 
-        if (statusCode != 204) {
-            String contentType = headers.get("Content-Type");
-            if (contentType == null)
-                throw new IllegalStateException("No Content-Type header was found");
-            this.type = JrawUtils.parseMediaType(contentType);
+        if (statusCode != 204 && statusCode != 304) {
+            this.type = parseContentType(headers);
             this.raw = body;
 
-            // Assume there aren't any exceptions
-            ApiException error = null;
-
             if (JrawUtils.isEqual(type, MediaTypes.JSON.type()) && !raw.isEmpty()) {
                 // Body is JSON, parse it and try to find ApiExceptions
+                long start = System.nanoTime();
                 this.rootNode = JrawUtils.fromString(raw);
-                if (JrawUtils.isEqual(type, MediaTypes.JSON.type()) && !raw.isEmpty()) {
-                    // Parse the errors into ApiExceptions
-                    JsonNode errorsNode = rootNode.get("json");
-                    if (errorsNode != null) {
-                        errorsNode = errorsNode.get("errors");
-                    }
-
-                    if (errorsNode != null && errorsNode.size() > 0) {
-                        JsonNode errorNode = errorsNode.get(0);
-                        error = new ApiException(errorNode.get(0).asText(), errorNode.get(1).asText());
-                    }
-                }
+                this.parseNanos = System.nanoTime() - start;
+                this.apiException = parseError(rootNode);
             } else {
                 // Init JSON-related final variables
                 this.rootNode = null;
+                this.apiException = null;
             }
-
-            this.apiException = error;
-        } else { // Empty RestResponse for a 204 No Content
-            this.type = MediaType.ANY_TYPE; // HTTP 204 does not require a MediaType, ANY_TYPE is fine
+        } else { // Empty RestResponse for a 204 No Content or 304 Not Modified
+            this.type = MediaType.ANY_TYPE; // Neither require a MediaType, ANY_TYPE is fine
             this.raw = null;
             this.rootNode = null;
             this.apiException = null;
         }
     }
 
+    /**
+     * Instantiates a new RestResponse whose JSON body has already been parsed. The raw body will not be kept in memory;
+     * {@link #getRaw()} will create it from the JSON when it is first requested.
+     *
+     * @param json The root node of the JSON body. Must not be null.
+     */
+    RestResponse(HttpRequest origin, JsonNode json, Headers headers, int statusCode, String statusMessage, String protocol) {
+        if (json == null)
+            throw new NullPointerException("json cannot be null");
+        this.origin = origin;
+        this.headers = headers;
+        this.statusCode = statusCode;
+        this.statusMessage = statusMessage;
+        this.protocol = protocol;
+        this.type = parseContentType(headers);
+        this.raw = null;
+        this.rootNode = json;
+        this.apiException = parseError(rootNode);
+        this.fromCache = false;
+    }
+
+    /**
+     * Instantiates a copy of a cached RestResponse
+     *
+     * @param headers The headers of the new response
+     * @param fromCache If the response is being used without contacting the server
+     */
+    RestResponse(RestResponse cached, Headers headers, boolean fromCache) {
+        this.origin = cached.origin;
+        this.headers = headers;
+        this.statusCode = cached.statusCode;
+        this.statusMessage = cached.statusMessage;
+        this.protocol = cached.protocol;
+        this.type = cached.type;
+        this.raw = cached.raw;
+        this.rootNode = cached.rootNode;
+        this.apiException = cached.apiException;
+        this.fromCache = fromCache;
+        this.bodyBytes = cached.bodyBytes;
+    }
+
+    private static MediaType parseContentType(Headers headers) {
+        String contentType = headers.get("Content-Type");
+        if (contentType == null)
+            throw new IllegalStateException("No Content-Type header was found");
+        return JrawUtils.parseMediaType(contentType);
+    }
+
+    /** Parses the first error returned by the Reddit API into an ApiException, or returns null if there are none */
+    @SuppressWarnings("ThrowableInstanceNeverThrown")
+    private static ApiException parseError(JsonNode rootNode) {
+        JsonNode errorsNode = rootNode.get("json");
+        if (errorsNode != null) {
+            errorsNode = errorsNode.get("errors");
+        }
+
+        if (errorsNode != null && errorsNode.size() > 0) {
+            JsonNode errorNode = errorsNode.get(0);
+            return new ApiException(errorNode.get(0).asText(), errorNode.get(1).asText());
+        }
+
+        return null;
+    }
+
     /** Convenience method to call {@link ModelManager#create(JsonNode, Class)} */
     @SuppressWarnings("unchecked")
     public <T extends JsonModel> T as(Class<T> thingClass) {
-        return ModelManager.create(rootNode, thingClass);
+        long start = System.nanoTime();
+        T model = ModelManager.create(rootNode, thingClass);
+        reportModelBound(thingClass, start);
+        return model;
     }
 
     /**
@@ -99,7 +160,15 @@ public class RestResponse {
      * @return A new Listing
      */
     public <T extends RedditObject> Listing<T> asListing(Class<T> thingClass) {
-        return new Listing<>(rootNode.get("data"), thingClass);
+        long start = System.nanoTime();
+        Listing<T> listing = new Listing<>(rootNode.get("data"), thingClass);
+        reportModelBound(Listing.class, start);
+        return listing;
+    }
+
+    private void reportModelBound(Class<?> modelClass, long start) {
+        if (listener != null)
+            listener.modelBound(origin, modelClass, System.nanoTime() - start);
     }
 
     /**
@@ -129,11 +198,40 @@ public class RestResponse {
         return rootNode;
     }
 
-    /** Gets the raw response body */
+    /**
+     * Gets the raw response body. If the body was parsed as it was being read from the network, then it will be
+     * serialized from the parsed JSON the first time this method is called, so it may differ from the original body in
+     * whitespace and formatting.
+     */
     public String getRaw() {
+        if (raw == null && rootNode != null)
+            raw = JrawUtils.toJson(rootNode);
         return raw;
     }
 
+    /**
+     * Gets the size of the body without creating it. This is the length of the raw body if it is in memory, otherwise
+     * the amount of bytes that were read from the network while the JSON was being parsed, or the Content-Length if
+     * that wasn't counted. Returns -1 if none of those are known.
+     */
+    public long getBodyLength() {
+        if (raw != null)
+            return raw.length();
+        if (rootNode == null)
+            return 0;
+        if (bodyBytes >= 0)
+            return bodyBytes;
+        String contentLength = headers.get("Content-Length");
+        if (contentLength != null) {
+            try {
+                return Long.parseLong(contentLength);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
     /** Gets the request that initiated this response */
     public HttpRequest getOrigin() {
         return origin;
@@ -161,7 +259,15 @@ public class RestResponse {
         return statusMessage;
     }
 
-    /** Gets the protocol that was used to execute this HTTP request, such as "HTTP/1.1" or "SPDY/3.1" */
+    /**
+     * Checks if this response was served by a {@link ResponseCache} without contacting the server. The headers of such
+     * a response, including the ratelimit headers, are the ones that were received when it was cached.
+     */
+    public boolean isFromCache() {
+        return fromCache;
+    }
+
+    /** Gets the protocol that was used to execute this HTTP request, such as "HTTP/1.1" or "H2" */
     public String getProtocol() {
         return protocol;
     }
@@ -0,0 +1,218 @@
+package net.dean.jraw.http;
+
+import okhttp3.internal.http.HttpDate;
+
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides which unsuccessful responses are worth sending the request again for, and how long to wait before doing so.
+ * Server errors (5xx) and, optionally, 429 Too Many Requests are retried. The delay is taken from the response's
+ * Retry-After header when there is one (or from X-Ratelimit-Reset for a 429), and otherwise grows using "decorrelated
+ * jitter": each delay is a random value between the base delay and three times the previous delay, capped at the
+ * maximum delay. The randomness keeps many clients that failed at the same time from retrying at the same time too.
+ *
+ * <p>Instances are immutable and created using a {@link Builder}:
+ *
+ * <pre>{@code
+ * reddit.setRetryPolicy(new RetryPolicy.Builder()
+ *         .maxRetries(3)
+ *         .baseDelay(1, TimeUnit.SECONDS)
+ *         .build());
+ * }</pre>
+ */
+public final class RetryPolicy {
+    /** Retries up to 5 times, starting at half a second and waiting up to 30 seconds between attempts */
+    public static final RetryPolicy DEFAULT = new Builder().build();
+    /** Never retries */
+    public static final RetryPolicy NONE = new Builder().maxRetries(0).build();
+
+    private final int maxRetries;
+    private final long baseDelay;
+    private final long maxDelay;
+    private final long maxRetryAfter;
+    private final boolean retryTooManyRequests;
+
+    private RetryPolicy(Builder b) {
+        this.maxRetries = b.maxRetries;
+        this.baseDelay = b.baseDelay;
+        this.maxDelay = b.maxDelay;
+        this.maxRetryAfter = b.maxRetryAfter;
+        this.retryTooManyRequests = b.retryTooManyRequests;
+    }
+
+    /**
+     * Checks if a request should be sent again
+     *
+     * @param response The unsuccessful response the request received
+     * @param retryCount How many times the request has already been retried
+     */
+    public boolean shouldRetry(RestResponse response, int retryCount) {
+        if (retryCount >= maxRetries)
+            return false;
+        int code = response.getStatusCode();
+        boolean retryable = (code == 429 && retryTooManyRequests) || (code >= 500 && code < 600);
+        // Don't wait for a server that asks to come back too far in the future
+        return retryable && requestedDelay(response) <= maxRetryAfter;
+    }
+
+    /**
+     * Gets how long to wait before retrying a request
+     *
+     * @param response The unsuccessful response the request received
+     * @param previousDelay The delay before the previous attempt in milliseconds, or 0 if this is the first retry
+     * @return A delay in milliseconds
+     */
+    public long getDelay(RestResponse response, long previousDelay) {
+        long requested = requestedDelay(response);
+        if (requested >= 0)
+            return requested;
+
+        // Decorrelated jitter
+        long upper = Math.max(baseDelay, Math.min(maxDelay, previousDelay * 3));
+        if (upper == baseDelay)
+            return baseDelay;
+        return baseDelay + ThreadLocalRandom.current().nextLong(upper - baseDelay + 1);
+    }
+
+    /**
+     * Finds how long the server asked to wait before trying again in milliseconds, or -1 if it didn't say. Reddit
+     * reports when the ratelimit resets using X-Ratelimit-Reset instead of Retry-After.
+     */
+    private static long requestedDelay(RestResponse response) {
+        String retryAfter = response.getHeaders().get("Retry-After");
+        if (retryAfter != null) {
+            long delay = parseDelay(retryAfter);
+            if (delay >= 0)
+                return delay;
+        }
+        String reset = response.getStatusCode() == 429 ? response.getHeaders().get("X-Ratelimit-Reset") : null;
+        if (reset != null) {
+            try {
+                return Math.max(0, TimeUnit.SECONDS.toMillis((long) Double.parseDouble(reset)));
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /** Parses a Retry-After value, which is either an amount of seconds or an HTTP date */
+    private static long parseDelay(String value) {
+        try {
+            return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            Date date = HttpDate.parse(value);
+            return date == null ? -1 : Math.max(0, date.getTime() - System.currentTimeMillis());
+        }
+    }
+
+    /** Gets the maximum amount of times a request will be retried */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /** Gets the shortest delay between attempts in milliseconds */
+    public long getBaseDelay() {
+        return baseDelay;
+    }
+
+    /** Gets the longest delay between attempts in milliseconds, unless the server asks for a specific delay */
+    public long getMaxDelay() {
+        return maxDelay;
+    }
+
+    /** Gets the longest the server can ask to wait before a request is no longer retried, in milliseconds */
+    public long getMaxRetryAfter() {
+        return maxRetryAfter;
+    }
+
+    /** Checks if responses with a 429 Too Many Requests status are retried */
+    public boolean isRetryingTooManyRequests() {
+        return retryTooManyRequests;
+    }
+
+    /** Creates a Builder that starts out with the settings of this policy */
+    public Builder newBuilder() {
+        return new Builder(this);
+    }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy {maxRetries=" + maxRetries + ", baseDelay=" + baseDelay + ", maxDelay=" + maxDelay +
+                ", maxRetryAfter=" + maxRetryAfter + ", retryTooManyRequests=" + retryTooManyRequests + "}";
+    }
+
+    /** Builds RetryPolicies. Every setting has a default, see the individual methods. */
+    public static class Builder {
+        private int maxRetries;
+        private long baseDelay;
+        private long maxDelay;
+        private long maxRetryAfter;
+        private boolean retryTooManyRequests;
+
+        public Builder() {
+            this.maxRetries = 5;
+            this.baseDelay = 500;
+            this.maxDelay = TimeUnit.SECONDS.toMillis(30);
+            this.maxRetryAfter = TimeUnit.MINUTES.toMillis(1);
+            this.retryTooManyRequests = true;
+        }
+
+        private Builder(RetryPolicy policy) {
+            this.maxRetries = policy.maxRetries;
+            this.baseDelay = policy.baseDelay;
+            this.maxDelay = policy.maxDelay;
+            this.maxRetryAfter = policy.maxRetryAfter;
+            this.retryTooManyRequests = policy.retryTooManyRequests;
+        }
+
+        /** Sets the maximum amount of times a request will be retried. Defaults to 5. */
+        public Builder maxRetries(int maxRetries) {
+            if (maxRetries < 0)
+                throw new IllegalArgumentException("maxRetries cannot be less than 0");
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /** Sets the shortest delay between attempts. Defaults to 500 milliseconds. */
+        public Builder baseDelay(long delay, TimeUnit unit) {
+            if (delay < 0)
+                throw new IllegalArgumentException("delay must not be negative");
+            this.baseDelay = unit.toMillis(delay);
+            return this;
+        }
+
+        /** Sets the longest delay between attempts when the server doesn't ask for one. Defaults to 30 seconds. */
+        public Builder maxDelay(long delay, TimeUnit unit) {
+            if (delay < 0)
+                throw new IllegalArgumentException("delay must not be negative");
+            this.maxDelay = unit.toMillis(delay);
+            return this;
+        }
+
+        /**
+         * Sets the longest delay the server can ask for using Retry-After. Requests are not retried if the server asks
+         * to wait for longer than this. Defaults to 1 minute.
+         */
+        public Builder maxRetryAfter(long delay, TimeUnit unit) {
+            if (delay < 0)
+                throw new IllegalArgumentException("delay must not be negative");
+            this.maxRetryAfter = unit.toMillis(delay);
+            return this;
+        }
+
+        /** Sets whether responses with a 429 Too Many Requests status are retried. Defaults to true. */
+        public Builder retryTooManyRequests(boolean flag) {
+            this.retryTooManyRequests = flag;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            if (maxDelay < baseDelay)
+                throw new IllegalStateException("maxDelay must not be less than baseDelay");
+            return new RetryPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package net.dean.jraw.http;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A thread-safe Ratelimiter that can be handed to many {@link RestClient RestClients} at once using
+ * {@link RestClient#setRatelimiter(Ratelimiter)}. It models reddit's ratelimit directly: a certain amount of requests
+ * may be sent per period (by default 600 every 10 minutes), and whatever is left in the current period is spread
+ * evenly over the time left in it. The X-Ratelimit-Remaining and X-Ratelimit-Reset headers returned to any of the
+ * clients sharing this object keep it in line with what reddit has actually counted.
+ */
+public class SharedRatelimiter implements Ratelimiter {
+    /** The amount of requests reddit allows an OAuth2 client to send in one period */
+    public static final int DEFAULT_CAPACITY = 600;
+    /** The length of one of reddit's ratelimit periods in milliseconds */
+    public static final long DEFAULT_PERIOD = TimeUnit.MINUTES.toMillis(10);
+
+    private final RatelimitWindow window;
+
+    /** Instantiates a new SharedRatelimiter that allows 600 requests every 10 minutes */
+    public SharedRatelimiter() {
+        this(DEFAULT_CAPACITY, DEFAULT_PERIOD, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Instantiates a new SharedRatelimiter
+     *
+     * @param capacity The amount of requests that may be sent in one period
+     * @param period The length of one period
+     * @param unit The unit of {@code period}
+     */
+    public SharedRatelimiter(int capacity, long period, TimeUnit unit) {
+        this.window = new RatelimitWindow(capacity, unit.toMillis(period));
+    }
+
+    @Override
+    public double acquire() {
+        long wait;
+        synchronized (window) {
+            wait = window.reserve(now(), false);
+        }
+        // The request has already been reserved, so there's no need to hold the lock while sleeping
+        Uninterruptibles.sleepUninterruptibly(wait, TimeUnit.MILLISECONDS);
+        return wait / 1000.0;
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        synchronized (window) {
+            return window.reserve(now(), true) >= 0;
+        }
+    }
+
+    @Override
+    public double getRate() {
+        synchronized (window) {
+            return window.getRate(now());
+        }
+    }
+
+    @Override
+    public void setRate(int requestsPerMinute) {
+        synchronized (window) {
+            window.setRate(requestsPerMinute);
+        }
+    }
+
+    @Override
+    public void update(double remaining, int reset) {
+        synchronized (window) {
+            window.update(now(), remaining, TimeUnit.SECONDS.toMillis(reset));
+        }
+    }
+
+    /** Gets the current time in milliseconds */
+    protected long now() {
+        return System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,58 @@
+package net.dean.jraw.http;
+
+import com.google.common.util.concurrent.RateLimiter;
+
+/**
+ * The default Ratelimiter used by a {@link RestClient}. Requests are spread evenly over time using Guava's
+ * {@link RateLimiter}, and every update recalculates the rate so that the remaining requests last until the end of the
+ * period.
+ */
+public class SmoothRatelimiter implements Ratelimiter {
+    private final RateLimiter rateLimiter;
+
+    /**
+     * Instantiates a new SmoothRatelimiter
+     *
+     * @param requestsPerMinute The initial amount of requests that can be sent in one minute. Must not be less than 1
+     */
+    public SmoothRatelimiter(int requestsPerMinute) {
+        this.rateLimiter = RateLimiter.create(perSecond(requestsPerMinute));
+    }
+
+    @Override
+    public double acquire() {
+        return rateLimiter.acquire();
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        return rateLimiter.tryAcquire();
+    }
+
+    @Override
+    public double getRate() {
+        return rateLimiter.getRate() * 60;
+    }
+
+    @Override
+    public void setRate(int requestsPerMinute) {
+        rateLimiter.setRate(perSecond(requestsPerMinute));
+    }
+
+    @Override
+    public void update(double remaining, int reset) {
+        double resetMinutes = reset / 60.0;
+        int requestsPerMinute = (int) Math.floor(remaining / resetMinutes);
+        // Prevent an IllegalArgumentException
+        if (requestsPerMinute < 1) {
+            requestsPerMinute = 1;
+        }
+        setRate(requestsPerMinute);
+    }
+
+    private static double perSecond(int requestsPerMinute) {
+        if (requestsPerMinute < 1)
+            throw new IllegalArgumentException("requestsPerMinute cannot be less than 1");
+        return requestsPerMinute / 60.0;
+    }
+}
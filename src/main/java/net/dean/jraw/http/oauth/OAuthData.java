@@ -13,6 +13,8 @@ import java.util.Date;
  */
 public class OAuthData extends JsonModel {
     private final AuthenticationMethod method;
+    /** When this data was received, in milliseconds since the epoch */
+    private final long received;
 
     /**
      * Instantiates a new AuthData
@@ -22,6 +24,7 @@ public class OAuthData extends JsonModel {
     public OAuthData(AuthenticationMethod method, JsonNode dataNode) {
         super(dataNode);
         this.method = method;
+        this.received = System.currentTimeMillis();
     }
 
     @JsonProperty
@@ -43,10 +46,7 @@ public class OAuthData extends JsonModel {
      */
     @JsonProperty
     public Date getExpirationDate() {
-        Date tokenExpiration = new Date();
-        // Add the time the token expires
-        tokenExpiration.setTime(tokenExpiration.getTime() + data("expires_in", Integer.class) * 1000);
-        return tokenExpiration;
+        return new Date(received + data("expires_in", Integer.class) * 1000L);
     }
 
     /**
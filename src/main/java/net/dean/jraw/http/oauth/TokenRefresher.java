@@ -0,0 +1,202 @@
+package net.dean.jraw.http.oauth;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.http.AuthenticationMethod;
+import net.dean.jraw.util.JrawUtils;
+
+import java.io.Closeable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a RedditClient authenticated by requesting a new access token on a background thread shortly before the
+ * current one expires. Requests sent in the meantime keep using the old access token until the new one is swapped in,
+ * so they never have to wait for a refresh.
+ *
+ * <p>Clients authenticated with a refresh token (installed and web apps) use {@link OAuthHelper#refreshToken}, while
+ * script and user-less apps simply authenticate again using {@link OAuthHelper#easyAuth(Credentials)}. Once a new access
+ * token has been received it is given to {@link RedditClient#authenticate(OAuthData)}, which also notifies the client's
+ * {@link net.dean.jraw.auth.AuthenticationListener}.
+ *
+ * <pre>{@code
+ * TokenRefresher refresher = new TokenRefresher(reddit, credentials);
+ * refresher.start();
+ * // ...
+ * refresher.close();
+ * }</pre>
+ *
+ * <p>A TokenRefresher should be the only thing that refreshes the client's access token while it's running. Code that
+ * needs a new access token right away should call {@link #refresh()}, which joins a refresh that is already in
+ * progress instead of starting another one.
+ */
+public class TokenRefresher implements Closeable {
+    /** The default amount of milliseconds before the access token expires that it will be refreshed */
+    public static final long DEFAULT_MARGIN = TimeUnit.MINUTES.toMillis(5);
+    /** How long to wait before trying again after the first failed refresh, in milliseconds */
+    private static final long MIN_RETRY_DELAY = TimeUnit.SECONDS.toMillis(5);
+    private static final long MAX_RETRY_DELAY = TimeUnit.MINUTES.toMillis(5);
+
+    private final RedditClient reddit;
+    private final Credentials credentials;
+    private volatile long margin;
+    private ScheduledExecutorService executor;
+    private ScheduledFuture<?> scheduled;
+    private SettableFuture<OAuthData> inFlight;
+    private long retryDelay;
+
+    /**
+     * Instantiates a new TokenRefresher
+     *
+     * @param reddit The client to keep authenticated. Must already be authenticated.
+     * @param credentials The credentials that were used to authenticate the client
+     */
+    public TokenRefresher(RedditClient reddit, Credentials credentials) {
+        this.reddit = reddit;
+        this.credentials = credentials;
+        this.margin = DEFAULT_MARGIN;
+        this.retryDelay = MIN_RETRY_DELAY;
+    }
+
+    /**
+     * Sets how long before the access token expires it will be refreshed. Defaults to {@link #DEFAULT_MARGIN}. Takes
+     * effect the next time a refresh is scheduled.
+     */
+    public void setMargin(long margin, TimeUnit unit) {
+        if (margin < 0)
+            throw new IllegalArgumentException("margin must not be negative");
+        this.margin = unit.toMillis(margin);
+    }
+
+    /** Gets how long before the access token expires it will be refreshed, in milliseconds */
+    public long getMargin() {
+        return margin;
+    }
+
+    /** Starts refreshing the access token in the background */
+    public synchronized void start() {
+        if (executor != null)
+            throw new IllegalStateException("Already started");
+        if (!reddit.isAuthenticated())
+            throw new IllegalStateException("The client must be authenticated first");
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("jraw-token-refresher-%d")
+                .build());
+        scheduleNext();
+    }
+
+    /** Checks if the access token is being refreshed in the background */
+    public synchronized boolean isRunning() {
+        return executor != null;
+    }
+
+    /**
+     * Requests a new access token right away on the background thread. If a refresh is already in progress, the
+     * returned future is the one of that refresh.
+     *
+     * @return A future that completes once the client has been authenticated with the new access token
+     * @throws IllegalStateException If this TokenRefresher has not been started
+     */
+    public synchronized ListenableFuture<OAuthData> refresh() {
+        if (executor == null)
+            throw new IllegalStateException("Not started");
+        if (inFlight != null)
+            return inFlight;
+
+        final SettableFuture<OAuthData> future = SettableFuture.create();
+        inFlight = future;
+        if (scheduled != null)
+            scheduled.cancel(false);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                doRefresh(future);
+            }
+        });
+        return future;
+    }
+
+    /** Stops refreshing the access token. A refresh that is already in progress will still complete. */
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            if (scheduled != null)
+                scheduled.cancel(false);
+            executor.shutdown();
+            executor = null;
+            scheduled = null;
+        }
+    }
+
+    private void doRefresh(SettableFuture<OAuthData> future) {
+        OAuthData data = null;
+        Exception error = null;
+        try {
+            data = requestToken();
+            // Swap the access token in for everyone using the client
+            reddit.authenticate(data);
+        } catch (Exception e) {
+            error = e;
+        }
+
+        synchronized (this) {
+            inFlight = null;
+            if (error == null) {
+                retryDelay = MIN_RETRY_DELAY;
+                scheduleNext();
+            } else {
+                JrawUtils.logger().warn("Unable to refresh the access token, trying again in {} ms", retryDelay, error);
+                schedule(retryDelay);
+                retryDelay = Math.min(MAX_RETRY_DELAY, retryDelay * 2);
+            }
+        }
+
+        if (error == null)
+            future.set(data);
+        else
+            future.setException(error);
+    }
+
+    private OAuthData requestToken() throws OAuthException {
+        OAuthHelper oauth = reddit.getOAuthHelper();
+        AuthenticationMethod method = credentials.getAuthenticationMethod();
+        if (method == AuthenticationMethod.SCRIPT || method.isUserless())
+            return oauth.easyAuth(credentials);
+        return oauth.refreshToken(credentials);
+    }
+
+    /** Schedules the next refresh based on when the client's current access token expires */
+    private void scheduleNext() {
+        OAuthData current = reddit.getOAuthData();
+        if (current == null)
+            return;
+        long delay = current.getExpirationDate().getTime() - margin - System.currentTimeMillis();
+        schedule(Math.max(0, delay));
+    }
+
+    private void schedule(long delay) {
+        if (executor == null)
+            return;
+        scheduled = executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (TokenRefresher.this) {
+                    if (executor == null || inFlight != null)
+                        return;
+                    // The client might have been authenticated again since this was scheduled
+                    OAuthData current = reddit.getOAuthData();
+                    if (current != null && current.getExpirationDate().getTime() - margin > System.currentTimeMillis()) {
+                        scheduleNext();
+                        return;
+                    }
+                    refresh();
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+}
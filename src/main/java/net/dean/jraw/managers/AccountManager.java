@@ -33,7 +33,8 @@ import java.util.List;
 import java.util.Map;
 
 /**
- * This class manages common user actions, such as voting, commenting, saving, etc.
+ * This class manages common user actions, such as voting, commenting, saving, etc. Votes, saves and hides that don't
+ * need to be waited for can be sent in the background using an {@link ActionQueue} instead.
  */
 public class AccountManager extends AbstractManager {
     /**
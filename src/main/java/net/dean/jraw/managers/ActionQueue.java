@@ -0,0 +1,554 @@
+package net.dean.jraw.managers;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.base.Objects;
+import com.google.common.base.Splitter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.dean.jraw.Endpoints;
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.http.CircuitOpenException;
+import net.dean.jraw.http.HttpRequest;
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.http.RestResponse;
+import net.dean.jraw.models.Comment;
+import net.dean.jraw.models.PublicContribution;
+import net.dean.jraw.models.Submission;
+import net.dean.jraw.models.Thing;
+import net.dean.jraw.models.VoteDirection;
+import net.dean.jraw.models.attr.Votable;
+import net.dean.jraw.util.JrawUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Performs votes, saves, hides and visits in the background so that the calling thread doesn't have to wait for a
+ * round-trip to reddit. Every method returns immediately after queueing the action, and a background thread sends
+ * queued actions one request at a time, as fast as the RedditClient's Ratelimiter allows.
+ *
+ * <p>Only the latest state of every fullname is kept: voting up and then down on the same submission before the first
+ * vote was sent results in a single downvote being sent. When the queued action is given the Thing itself instead of
+ * its fullname, the queue knows the state reddit already has (or, if the queue has already sent an action for it, the
+ * state it sent), so an action that undoes a queued one that hasn't been sent yet (such as voting and then removing the
+ * vote) cancels it and nothing is sent at all. Hides, unhides and visits of many fullnames are combined into one
+ * request.
+ *
+ * <p>If a journal file is given, every change to the queue is appended to it before the method returns, and actions
+ * that were still queued when the process stopped are loaded from it and sent by the next ActionQueue that uses the
+ * same file.
+ *
+ * <p>Actions that fail because of the request itself (for example, a 4xx status, a missing OAuth scope or an API error)
+ * are dropped and passed to the {@link Listener}. Actions that fail because reddit couldn't be reached, had a server
+ * error or answered 429 Too Many Requests are kept and tried again later. Thread-safe.
+ */
+public class ActionQueue implements Closeable {
+    /** The maximum amount of fullnames combined into one request to hide, unhide or store visits */
+    public static final int MAX_BATCH_SIZE = 25;
+    /** How long to wait before trying again once reddit could not be reached, in milliseconds */
+    private static final long RETRY_DELAY = TimeUnit.SECONDS.toMillis(10);
+    /** The amount of fullnames whose sent state is remembered */
+    private static final int MAX_REMEMBERED = 10000;
+
+    /** Notified of actions that could not be performed */
+    public interface Listener {
+        /**
+         * Called on the background thread when an action failed and was dropped
+         *
+         * @param type What kind of action it was
+         * @param fullname The fullname the action applied to
+         * @param error Why it failed
+         */
+        void onFailure(Type type, String fullname, Exception error);
+    }
+
+    /** The kinds of actions that can be queued */
+    public enum Type {
+        VOTE,
+        SAVE,
+        HIDE,
+        VISIT
+    }
+
+    private final RedditClient reddit;
+    private final File journal;
+    /** The latest queued state for every type and fullname, in the order they were first queued */
+    private final Map<String, Action> pending;
+    /** The actions currently being sent */
+    private final List<Action> inFlight;
+    /**
+     * The last state that was successfully sent for every type and fullname. This is what reddit has now, whatever the
+     * Things passed to the queue were loaded with. Only the most recently used ones are remembered.
+     */
+    private final Map<String, String> sent;
+    private final ScheduledExecutorService executor;
+    private Writer journalWriter;
+    /** The amount of lines in the journal, used to decide when to compact it */
+    private int journalLines;
+    private volatile Listener listener;
+    private boolean sending;
+    private boolean closed;
+
+    /**
+     * Instantiates a new ActionQueue whose actions are lost if the process stops before they're sent
+     *
+     * @param reddit The RedditClient that will be used to send HTTP requests
+     */
+    public ActionQueue(RedditClient reddit) {
+        this.reddit = reddit;
+        this.journal = null;
+        this.pending = new LinkedHashMap<>();
+        this.inFlight = new ArrayList<>();
+        this.sent = newSentMap();
+        this.executor = newExecutor();
+    }
+
+    /**
+     * Instantiates a new ActionQueue, loading and sending any actions that were left in the journal
+     *
+     * @param reddit The RedditClient that will be used to send HTTP requests
+     * @param journal The file where queued actions are kept until they're sent, or null to keep them in memory only
+     * @throws IOException If the journal could not be read
+     */
+    public ActionQueue(RedditClient reddit, File journal) throws IOException {
+        this.reddit = reddit;
+        this.journal = journal;
+        this.pending = new LinkedHashMap<>();
+        this.inFlight = new ArrayList<>();
+        this.sent = newSentMap();
+        this.executor = newExecutor();
+
+        if (journal != null) {
+            if (journal.exists())
+                replay();
+            // Start the journal over with only what's still pending
+            compact();
+        }
+        synchronized (this) {
+            schedule(0);
+        }
+    }
+
+    private static ScheduledExecutorService newExecutor() {
+        return Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("jraw-action-queue-%d")
+                .build());
+    }
+
+    private static Map<String, String> newSentMap() {
+        return new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > MAX_REMEMBERED;
+            }
+        };
+    }
+
+    /** Sets the Listener that is notified of actions that failed, or null to only log them */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /** Queues a vote on a submission or comment. If it matches the Thing's current vote, any queued vote is cancelled. */
+    public <T extends Thing & Votable> void vote(T thing, VoteDirection direction) {
+        VoteDirection current = thing.getVote();
+        queue(Type.VOTE, thing.getFullName(), String.valueOf(direction.getValue()), null,
+                current == null ? null : String.valueOf(current.getValue()));
+    }
+
+    /** Queues a vote on the submission or comment with the given fullname */
+    public void vote(String fullname, VoteDirection direction) {
+        queue(Type.VOTE, fullname, String.valueOf(direction.getValue()), null, null);
+    }
+
+    /**
+     * Queues saving or unsaving a submission or comment. If it matches whether the Thing is currently saved, any queued
+     * save or unsave is cancelled.
+     *
+     * @param category The category to save it in, or null for none. Ignored when unsaving.
+     */
+    public void setSaved(PublicContribution contribution, boolean save, String category) {
+        Boolean current = null;
+        if (contribution instanceof Submission)
+            current = ((Submission) contribution).isSaved();
+        else if (contribution instanceof Comment)
+            current = ((Comment) contribution).isSaved();
+        queue(Type.SAVE, contribution.getFullName(), save ? "1" : "0", save ? category : null,
+                current == null ? null : current ? "1" : "0");
+    }
+
+    /** Queues saving or unsaving the submission or comment with the given fullname */
+    public void setSaved(String fullname, boolean save, String category) {
+        queue(Type.SAVE, fullname, save ? "1" : "0", save ? category : null, null);
+    }
+
+    /** Queues hiding or unhiding a submission. If it matches whether it's currently hidden, any queued hide is cancelled. */
+    public void setHidden(Submission submission, boolean hide) {
+        Boolean current = submission.isHidden();
+        queue(Type.HIDE, submission.getFullName(), hide ? "1" : "0", null, current == null ? null : current ? "1" : "0");
+    }
+
+    /** Queues hiding or unhiding the submission with the given fullname */
+    public void setHidden(String fullname, boolean hide) {
+        queue(Type.HIDE, fullname, hide ? "1" : "0", null, null);
+    }
+
+    /** Queues storing a visit to a submission (a reddit gold feature) */
+    public void storeVisit(String fullname) {
+        queue(Type.VISIT, fullname, "1", null, null);
+    }
+
+    /** Gets the amount of actions waiting to be sent */
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    /**
+     * Waits until every queued action has been sent or dropped
+     *
+     * @return True if the queue is empty, false if the time ran out first
+     */
+    public synchronized boolean awaitEmpty(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+        while (!pending.isEmpty() || sending) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0)
+                return false;
+            wait(remaining);
+        }
+        return true;
+    }
+
+    /**
+     * Stops sending actions. Actions that haven't been sent yet stay in the journal, if there is one, and will be sent by
+     * the next ActionQueue that uses it.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed)
+                return;
+            closed = true;
+            notifyAll();
+        }
+        executor.shutdownNow();
+        synchronized (this) {
+            if (journalWriter != null) {
+                journalWriter.close();
+                journalWriter = null;
+            }
+        }
+    }
+
+    private synchronized void queue(Type type, String fullname, String value, String category, String baseline) {
+        if (closed)
+            throw new IllegalStateException("This ActionQueue has been closed");
+        if (fullname == null)
+            throw new NullPointerException("fullname cannot be null");
+
+        String key = key(type, fullname);
+        Action queued = pending.get(key);
+        boolean beingSent = queued != null && inFlight.contains(queued);
+        // The state reddit will have if the queued action is cancelled. Once an action has been sent, that is the state
+        // it sent and not the one the Thing was loaded with. An action that is being sent can't be cancelled anymore,
+        // it has to be undone by sending the original state again.
+        String before;
+        if (queued == null)
+            before = sent.containsKey(key) ? sent.get(key) : baseline;
+        else
+            before = beingSent ? null : queued.before;
+
+        if (value.equals(before) && type != Type.VISIT) {
+            // This undoes whatever was queued, reddit already has this state
+            if (queued != null) {
+                pending.remove(key);
+                journal('-', queued);
+                notifyAll();
+            }
+            return;
+        }
+        if (queued != null && queued.value.equals(value) && Objects.equal(queued.category, category))
+            return;
+
+        Action action = new Action(type, fullname, value, category, before);
+        pending.put(key, action);
+        journal('+', action);
+        schedule(0);
+    }
+
+    /** Makes sure the background thread will send the pending actions */
+    private void schedule(long delay) {
+        if (sending || closed || pending.isEmpty())
+            return;
+        sending = true;
+        executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                sendAll();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /** Runs on the background thread until there's nothing left to send */
+    private void sendAll() {
+        try {
+            sendBatches();
+        } catch (RuntimeException e) {
+            JrawUtils.logger().error("Unexpected error while sending queued actions, trying again in {} ms", RETRY_DELAY, e);
+        } finally {
+            // However sending stopped, anything still pending has to be sent later
+            synchronized (this) {
+                inFlight.clear();
+                sending = false;
+                schedule(RETRY_DELAY);
+                notifyAll();
+            }
+        }
+    }
+
+    /** Sends batches until the queue is empty, it is closed or reddit can't be reached */
+    private void sendBatches() {
+        while (true) {
+            List<Action> batch;
+            synchronized (this) {
+                if (closed)
+                    return;
+                batch = nextBatch();
+                if (batch.isEmpty())
+                    return;
+                inFlight.addAll(batch);
+            }
+
+            Exception error = null;
+            boolean retry = false;
+            try {
+                RestResponse response = reddit.execute(request(batch));
+                if (response.hasErrors())
+                    error = response.getError();
+            } catch (NetworkException e) {
+                // Reddit is having problems or the ratelimit ran out, the actions should go through later. Otherwise the
+                // server understood the request and refused it, and sending it again won't help.
+                error = e;
+                int code = e.getResponse().getStatusCode();
+                retry = code == 429 || code >= 500;
+            } catch (RuntimeException e) {
+                // Keep the actions for later if reddit couldn't be reached. Anything else, such as a missing scope or an
+                // unexpected response, would fail again and block every action queued after these.
+                error = e;
+                retry = e.getCause() instanceof IOException || e instanceof CircuitOpenException;
+            }
+
+            synchronized (this) {
+                inFlight.clear();
+                if (closed)
+                    return;
+                if (retry) {
+                    JrawUtils.logger().warn("Unable to send queued actions, trying again in {} ms", RETRY_DELAY, error);
+                    return;
+                }
+                for (Action action : batch) {
+                    String key = key(action.type, action.fullname);
+                    if (error == null)
+                        sent.put(key, action.value);
+                    // Remove the action, unless it was replaced while it was being sent
+                    if (pending.get(key) == action) {
+                        pending.remove(key);
+                        journal('-', action);
+                    }
+                }
+                notifyAll();
+            }
+
+            if (error != null)
+                fail(batch, error);
+        }
+    }
+
+    private void fail(List<Action> batch, Exception error) {
+        Listener listener = this.listener;
+        for (Action action : batch) {
+            if (listener == null) {
+                JrawUtils.logger().warn("Unable to {} {}", action.type.name().toLowerCase(), action.fullname, error);
+                continue;
+            }
+            try {
+                listener.onFailure(action.type, action.fullname, error);
+            } catch (RuntimeException e) {
+                // Don't let a broken listener stop the queue
+                JrawUtils.logger().error("Listener threw an exception for {} {}", action.type.name().toLowerCase(),
+                        action.fullname, e);
+            }
+        }
+    }
+
+    /** Takes the oldest pending action, along with any others that can be sent in the same request */
+    private List<Action> nextBatch() {
+        List<Action> batch = new ArrayList<>();
+        Iterator<Action> it = pending.values().iterator();
+        if (!it.hasNext())
+            return batch;
+        Action first = it.next();
+        batch.add(first);
+        if (first.type != Type.HIDE && first.type != Type.VISIT)
+            return batch;
+
+        while (it.hasNext() && batch.size() < MAX_BATCH_SIZE) {
+            Action action = it.next();
+            if (action.type == first.type && action.value.equals(first.value))
+                batch.add(action);
+        }
+        return batch;
+    }
+
+    private HttpRequest request(List<Action> batch) {
+        Action first = batch.get(0);
+        HttpRequest.Builder request = reddit.request();
+        switch (first.type) {
+            case VOTE:
+                return request.endpoint(Endpoints.VOTE)
+                        .post(JrawUtils.mapOf("api_type", "json", "dir", first.value, "id", first.fullname))
+                        .build();
+            case SAVE:
+                boolean save = first.value.equals("1");
+                Map<String, String> args = JrawUtils.mapOf("id", first.fullname);
+                if (save && first.category != null)
+                    args.put("category", first.category);
+                return request.endpoint(save ? Endpoints.SAVE : Endpoints.UNSAVE).post(args).build();
+            case HIDE:
+                return request.endpoint(first.value.equals("1") ? Endpoints.HIDE : Endpoints.UNHIDE)
+                        .post(JrawUtils.mapOf("id", fullnames(batch)))
+                        .build();
+            case VISIT:
+                return request.endpoint(Endpoints.STORE_VISITS)
+                        .post(JrawUtils.mapOf("links", fullnames(batch)))
+                        .build();
+            default:
+                throw new IllegalStateException("Unknown type " + first.type);
+        }
+    }
+
+    private static String fullnames(List<Action> batch) {
+        List<String> fullnames = new ArrayList<>(batch.size());
+        for (Action action : batch) {
+            fullnames.add(action.fullname);
+        }
+        return Joiner.on(',').join(fullnames);
+    }
+
+    private static String key(Type type, String fullname) {
+        return type.name() + ' ' + fullname;
+    }
+
+    ///// Journal /////
+
+    /** Appends a change to the journal. Must be called while holding the lock. */
+    private void journal(char op, Action action) {
+        if (journal == null)
+            return;
+        try {
+            if (journalWriter == null)
+                journalWriter = openJournal(true);
+            journalWriter.write(op + "\t" + action.type.name() + '\t' + action.fullname + '\t' + action.value + '\t' +
+                    (action.category == null ? "" : URLEncoder.encode(action.category, "UTF-8")) + '\n');
+            journalWriter.flush();
+            journalLines++;
+            if (journalLines > 64 && journalLines > pending.size() * 4)
+                compact();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to write to the journal " + journal, e);
+        }
+    }
+
+    /** Reads the journal into {@link #pending} */
+    private void replay() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(journal), Charsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                List<String> parts = Splitter.on('\t').splitToList(line);
+                // A line that was only partially written when the process stopped
+                if (parts.size() != 5)
+                    continue;
+                Type type;
+                try {
+                    type = Type.valueOf(parts.get(1));
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+                String category = parts.get(4).isEmpty() ? null : URLDecoder.decode(parts.get(4), "UTF-8");
+                // The state reddit had before isn't journaled, so replayed actions can't be cancelled
+                Action action = new Action(type, parts.get(2), parts.get(3), category, null);
+                String key = key(type, action.fullname);
+                if (parts.get(0).equals("+")) {
+                    pending.put(key, action);
+                } else {
+                    Action queued = pending.get(key);
+                    if (queued != null && queued.value.equals(action.value))
+                        pending.remove(key);
+                }
+            }
+        }
+    }
+
+    /** Rewrites the journal so that it only contains the pending actions */
+    private synchronized void compact() throws IOException {
+        if (journalWriter != null) {
+            journalWriter.close();
+            journalWriter = null;
+        }
+        File temp = new File(journal.getPath() + ".tmp");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(temp), Charsets.UTF_8))) {
+            for (Action action : pending.values()) {
+                writer.write("+\t" + action.type.name() + '\t' + action.fullname + '\t' + action.value + '\t' +
+                        (action.category == null ? "" : URLEncoder.encode(action.category, "UTF-8")) + '\n');
+            }
+        }
+        if (!temp.renameTo(journal)) {
+            // Windows won't rename over an existing file
+            if (!journal.delete() || !temp.renameTo(journal))
+                throw new IOException("Unable to replace " + journal);
+        }
+        journalLines = pending.size();
+        journalWriter = openJournal(true);
+    }
+
+    private Writer openJournal(boolean append) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(journal, append), Charsets.UTF_8));
+    }
+
+    private static final class Action {
+        private final Type type;
+        private final String fullname;
+        /** "1", "0" or "-1" for votes, "1" or "0" for the others */
+        private final String value;
+        private final String category;
+        /** The state reddit has before this action is sent, or null if unknown */
+        private final String before;
+
+        private Action(Type type, String fullname, String value, String category, String before) {
+            this.type = type;
+            this.fullname = fullname;
+            this.value = value;
+            this.category = category;
+            this.before = before;
+        }
+    }
+}
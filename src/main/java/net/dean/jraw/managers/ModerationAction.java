@@ -0,0 +1,164 @@
+package net.dean.jraw.managers;
+
+import net.dean.jraw.Endpoints;
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.http.HttpRequest;
+import net.dean.jraw.models.DistinguishedStatus;
+import net.dean.jraw.models.Submission;
+import net.dean.jraw.models.Thing;
+import net.dean.jraw.util.JrawUtils;
+
+/**
+ * A single moderation action, to be performed along with many others by
+ * {@link ModerationManager#bulk(java.util.Collection)}. Instances are created using the static factory methods and are
+ * immutable.
+ */
+public final class ModerationAction {
+    /** The kinds of actions that can be performed in bulk */
+    public enum Type {
+        APPROVE,
+        REMOVE,
+        SPAM,
+        DISTINGUISH,
+        MARK_NSFW,
+        UNMARK_NSFW,
+        LOCK,
+        UNLOCK,
+        /** Sets a user's flair. Sent through /api/flaircsv, one request for up to 100 users of the same subreddit. */
+        USER_FLAIR
+    }
+
+    private final Type type;
+    /** The fullname of the Thing to act on, or the name of the user whose flair is set */
+    private final String target;
+    private final DistinguishedStatus distinguish;
+    private final String subreddit;
+    private final String flairText;
+    private final String flairCssClass;
+
+    private ModerationAction(Type type, String target, DistinguishedStatus distinguish, String subreddit,
+                             String flairText, String flairCssClass) {
+        if (target == null)
+            throw new NullPointerException("target cannot be null");
+        this.type = type;
+        this.target = target;
+        this.distinguish = distinguish;
+        this.subreddit = subreddit;
+        this.flairText = flairText;
+        this.flairCssClass = flairCssClass;
+    }
+
+    private ModerationAction(Type type, String fullname) {
+        this(type, fullname, null, null, null, null);
+    }
+
+    /** Approves a submission or comment */
+    public static ModerationAction approve(Thing thing) {
+        return new ModerationAction(Type.APPROVE, thing.getFullName());
+    }
+
+    /**
+     * Removes a submission or comment
+     *
+     * @param spam Whether to also train the spam filter with it
+     */
+    public static ModerationAction remove(Thing thing, boolean spam) {
+        return new ModerationAction(spam ? Type.SPAM : Type.REMOVE, thing.getFullName());
+    }
+
+    /** Distinguishes a submission or comment. See {@link ModerationManager#setDistinguishedStatus}. */
+    public static ModerationAction distinguish(Thing thing, DistinguishedStatus status) {
+        if (status == null)
+            throw new NullPointerException("status cannot be null");
+        return new ModerationAction(Type.DISTINGUISH, thing.getFullName(), status, null, null, null);
+    }
+
+    /** Marks or unmarks a submission as not safe for work */
+    public static ModerationAction setNsfw(Submission submission, boolean nsfw) {
+        return new ModerationAction(nsfw ? Type.MARK_NSFW : Type.UNMARK_NSFW, submission.getFullName());
+    }
+
+    /** Locks or unlocks a submission */
+    public static ModerationAction setLocked(Submission submission, boolean locked) {
+        return new ModerationAction(locked ? Type.LOCK : Type.UNLOCK, submission.getFullName());
+    }
+
+    /**
+     * Sets a user's flair in a subreddit
+     *
+     * @param subreddit The subreddit where the flair will take effect
+     * @param username The name of the user
+     * @param text The flair's text, or null for none
+     * @param cssClass The flair's CSS class, or null for none
+     */
+    public static ModerationAction setUserFlair(String subreddit, String username, String text, String cssClass) {
+        if (subreddit == null)
+            throw new NullPointerException("subreddit cannot be null");
+        return new ModerationAction(Type.USER_FLAIR, username, null, subreddit, text, cssClass);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /** Gets the fullname of the submission or comment this action applies to, or the name of the user for flair */
+    public String getTarget() {
+        return target;
+    }
+
+    /** Gets the subreddit of a {@link Type#USER_FLAIR} action, or null for other types */
+    public String getSubreddit() {
+        return subreddit;
+    }
+
+    /** Creates the request that performs this action on its own. Not used for {@link Type#USER_FLAIR}. */
+    HttpRequest toRequest(RedditClient reddit) {
+        HttpRequest.Builder request = reddit.request();
+        switch (type) {
+            case APPROVE:
+                return request.endpoint(Endpoints.APPROVE)
+                        .post(JrawUtils.mapOf("api_type", "json", "id", target))
+                        .build();
+            case REMOVE:
+            case SPAM:
+                return request.endpoint(Endpoints.REMOVE)
+                        .post(JrawUtils.mapOf("api_type", "json", "id", target, "spam", type == Type.SPAM))
+                        .build();
+            case DISTINGUISH:
+                return request.endpoint(Endpoints.DISTINGUISH)
+                        .post(JrawUtils.mapOf(
+                                "api_type", "json",
+                                "id", target,
+                                "how", ModerationManager.howToDistinguish(distinguish)))
+                        .build();
+            case MARK_NSFW:
+            case UNMARK_NSFW:
+                return request.endpoint(type == Type.MARK_NSFW ? Endpoints.MARKNSFW : Endpoints.UNMARKNSFW)
+                        .post(JrawUtils.mapOf("id", target))
+                        .build();
+            case LOCK:
+            case UNLOCK:
+                return request.endpoint(type == Type.LOCK ? Endpoints.LOCK : Endpoints.UNLOCK)
+                        .post(JrawUtils.mapOf("api_type", "json", "id", target))
+                        .build();
+            default:
+                throw new IllegalStateException("Cannot create a single request for " + type);
+        }
+    }
+
+    /** Formats this flair action as a line of the CSV accepted by /api/flaircsv */
+    String toCsvLine() {
+        return csv(target) + ',' + csv(flairText) + ',' + csv(flairCssClass);
+    }
+
+    private static String csv(String value) {
+        if (value == null)
+            return "";
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public String toString() {
+        return "ModerationAction {type=" + type + ", target=" + target + (subreddit == null ? "" : ", subreddit=" + subreddit) + "}";
+    }
+}
@@ -1,9 +1,16 @@
 package net.dean.jraw.managers;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
 import net.dean.jraw.ApiException;
 import net.dean.jraw.*;
 import net.dean.jraw.RedditClient;
 import net.dean.jraw.http.AuthenticationMethod;
+import net.dean.jraw.http.HttpRequest;
 import net.dean.jraw.http.MediaTypes;
 import net.dean.jraw.http.NetworkException;
 import net.dean.jraw.http.RequestBody;
@@ -17,13 +24,27 @@ import net.dean.jraw.models.UserRecord;
 import net.dean.jraw.models.attr.Votable;
 import net.dean.jraw.util.JrawUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class manages actions most commonly reserved for moderators (although some of them can be used on yourself
- * without moderator permissions).
+ * without moderator permissions). Large amounts of actions can be performed efficiently using
+ * {@link #bulk(Collection)}.
  */
 public class ModerationManager extends AbstractManager {
+    /** The default maximum amount of requests {@link #bulk(Collection)} will wait for at once */
+    public static final int DEFAULT_BULK_CONCURRENCY = 4;
+    /** The maximum amount of users whose flair can be set in one request to /api/flaircsv */
+    public static final int MAX_FLAIR_CSV_LINES = 100;
+
     /**
      * Instantiates a new AbstractManager
      *
@@ -124,18 +145,23 @@ public class ModerationManager extends AbstractManager {
      */
     @EndpointImplementation(Endpoints.DISTINGUISH)
     public void setDistinguishedStatus(Thing s, DistinguishedStatus status) throws NetworkException, ApiException {
-        String distinguish = status.getJsonValue();
-        if (distinguish.equals("null")) distinguish = "no";
-        if (distinguish.equals("moderator")) distinguish = "yes";
         genericPost(reddit.request()
                 .endpoint(Endpoints.DISTINGUISH)
                 .post(JrawUtils.mapOf(
                         "id", s.getFullName(),
                         "api_type", "json",
-                        "how", distinguish
+                        "how", howToDistinguish(status)
                 )).build());
     }
 
+    /** Converts a DistinguishedStatus into the value of the "how" parameter of /api/distinguish */
+    static String howToDistinguish(DistinguishedStatus status) {
+        String distinguish = status.getJsonValue();
+        if (distinguish.equals("null")) distinguish = "no";
+        if (distinguish.equals("moderator")) distinguish = "yes";
+        return distinguish;
+    }
+
     /**
      * Stickies a top-level comment that a user posted. Not that this ONLY applies to top-level
      * comments and will not return an error if run on a non top-level comment
@@ -358,4 +384,202 @@ public class ModerationManager extends AbstractManager {
             throw response.getError();
         }
     }
+
+    /**
+     * Performs many moderation actions, sending up to {@link #DEFAULT_BULK_CONCURRENCY} requests at a time. See
+     * {@link #bulkAsync(Collection, int)}.
+     *
+     * @param actions The actions to perform
+     * @return The result of every action, in the same order as the actions
+     */
+    public List<ModerationResult> bulk(Collection<ModerationAction> actions) {
+        return bulk(actions, DEFAULT_BULK_CONCURRENCY);
+    }
+
+    /**
+     * Performs many moderation actions and waits for all of them to finish. See {@link #bulkAsync(Collection, int)}.
+     *
+     * @param actions The actions to perform
+     * @param maxConcurrency The maximum amount of requests that will be waiting for a response at once
+     * @return The result of every action, in the same order as the actions
+     */
+    public List<ModerationResult> bulk(Collection<ModerationAction> actions, int maxConcurrency) {
+        return Futures.getUnchecked(bulkAsync(actions, maxConcurrency));
+    }
+
+    /**
+     * Performs many moderation actions. Requests are sent asynchronously as soon as the client's Ratelimiter allows,
+     * with at most {@code maxConcurrency} of them waiting for a response at once, so that the ratelimit is used fully
+     * without blocking a thread for every request. Requests that fail with a server-side error are retried like any
+     * other request sent by the RedditClient.
+     *
+     * <p>User flair actions for the same subreddit are combined into requests to /api/flaircsv, which accepts up to
+     * {@value #MAX_FLAIR_CSV_LINES} users at a time. Every other action takes one request.
+     *
+     * <p>The returned future never fails: an action that was not successful is reported in its {@link ModerationResult}
+     * and doesn't stop the others.
+     *
+     * @param actions The actions to perform
+     * @param maxConcurrency The maximum amount of requests that will be waiting for a response at once
+     * @return A future of the result of every action, in the same order as the actions
+     */
+    public ListenableFuture<List<ModerationResult>> bulkAsync(Collection<ModerationAction> actions, int maxConcurrency) {
+        if (maxConcurrency < 1)
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+
+        final List<ModerationAction> ordered = new ArrayList<>(actions);
+        final List<BulkRequest> requests = new ArrayList<>();
+        // Flair lines grouped by subreddit, in the order the subreddits first appear
+        Map<String, List<Integer>> flair = new LinkedHashMap<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            ModerationAction action = ordered.get(i);
+            if (action.getType() == ModerationAction.Type.USER_FLAIR) {
+                String subreddit = action.getSubreddit().toLowerCase();
+                if (!flair.containsKey(subreddit))
+                    flair.put(subreddit, new ArrayList<Integer>());
+                flair.get(subreddit).add(i);
+            } else {
+                requests.add(new BulkRequest(action.toRequest(reddit), Collections.singletonList(i), false));
+            }
+        }
+        for (List<Integer> indices : flair.values()) {
+            for (int from = 0; from < indices.size(); from += MAX_FLAIR_CSV_LINES) {
+                List<Integer> chunk = indices.subList(from, Math.min(indices.size(), from + MAX_FLAIR_CSV_LINES));
+                requests.add(new BulkRequest(flairCsvRequest(ordered, chunk), chunk, true));
+            }
+        }
+
+        if (requests.isEmpty())
+            return Futures.immediateFuture(Collections.<ModerationResult>emptyList());
+        BulkSender sender = new BulkSender(ordered, requests, maxConcurrency);
+        sender.pump();
+        return sender.done;
+    }
+
+    /**
+     * Sends the requests of {@link #bulkAsync(Collection, int)}, starting the next one whenever one finishes. Requests
+     * whose futures complete immediately would otherwise start the next one recursively, so only one thread at a time
+     * starts requests and the others just hand over their permits.
+     */
+    private final class BulkSender {
+        private final List<ModerationAction> actions;
+        private final List<BulkRequest> requests;
+        private final ModerationResult[] results;
+        private final SettableFuture<List<ModerationResult>> done;
+        /** How many more requests may be started right now */
+        private final AtomicInteger permits;
+        /** How many threads want to start requests. Only the one that increments it from 0 does. */
+        private final AtomicInteger pumping;
+        private final AtomicInteger remaining;
+        private int next;
+
+        private BulkSender(List<ModerationAction> actions, List<BulkRequest> requests, int maxConcurrency) {
+            this.actions = actions;
+            this.requests = requests;
+            this.results = new ModerationResult[actions.size()];
+            this.done = SettableFuture.create();
+            this.permits = new AtomicInteger(maxConcurrency);
+            this.pumping = new AtomicInteger();
+            this.remaining = new AtomicInteger(requests.size());
+            this.next = 0;
+        }
+
+        private void pump() {
+            if (pumping.getAndIncrement() != 0)
+                return;
+            do {
+                while (next < requests.size() && permits.get() > 0) {
+                    permits.decrementAndGet();
+                    send(requests.get(next++));
+                }
+            } while (pumping.decrementAndGet() != 0);
+        }
+
+        private void send(final BulkRequest request) {
+            ListenableFuture<RestResponse> sent;
+            try {
+                sent = reddit.executeAsync(request.request);
+            } catch (RuntimeException e) {
+                sent = Futures.immediateFailedFuture(e);
+            }
+            final ListenableFuture<RestResponse> response = sent;
+            response.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    request.complete(response, actions, results);
+                    if (remaining.decrementAndGet() == 0) {
+                        done.set(Collections.unmodifiableList(Arrays.asList(results)));
+                        return;
+                    }
+                    permits.incrementAndGet();
+                    pump();
+                }
+            }, MoreExecutors.directExecutor());
+        }
+    }
+
+    /** Creates a request to /api/flaircsv that sets the flair of every action at the given indices */
+    private HttpRequest flairCsvRequest(List<ModerationAction> actions, List<Integer> indices) {
+        StringBuilder csv = new StringBuilder();
+        for (int index : indices) {
+            csv.append(actions.get(index).toCsvLine()).append('\n');
+        }
+        return reddit.request()
+                .path("/r/" + actions.get(indices.get(0)).getSubreddit() + Endpoints.FLAIRCSV.getEndpoint().getUri())
+                .post(JrawUtils.mapOf("flair_csv", csv.toString()))
+                .build();
+    }
+
+    /** One request sent by {@link #bulkAsync(Collection, int)}, which performs one or more actions */
+    private static final class BulkRequest {
+        private final HttpRequest request;
+        /** The indices of the actions this request performs */
+        private final List<Integer> indices;
+        /** If the response has one result for every line of flair CSV */
+        private final boolean flairCsv;
+
+        private BulkRequest(HttpRequest request, List<Integer> indices, boolean flairCsv) {
+            this.request = request;
+            this.indices = indices;
+            this.flairCsv = flairCsv;
+        }
+
+        /** Records the result of every action this request performs */
+        private void complete(ListenableFuture<RestResponse> future, List<ModerationAction> actions,
+                              ModerationResult[] results) {
+            RestResponse response;
+            try {
+                response = Uninterruptibles.getUninterruptibly(future);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                fail(actions, results, cause instanceof Exception ? (Exception) cause : e);
+                return;
+            }
+
+            if (response.hasErrors()) {
+                fail(actions, results, response.getError());
+                return;
+            }
+
+            JsonNode lines = response.getJson();
+            for (int i = 0; i < indices.size(); i++) {
+                int index = indices.get(i);
+                Exception error = null;
+                if (flairCsv) {
+                    JsonNode line = lines != null && lines.isArray() ? lines.get(i) : null;
+                    if (line == null)
+                        error = new ApiException("flaircsv", "No result was returned for this line");
+                    else if (!line.path("ok").asBoolean(false))
+                        error = new ApiException("flaircsv", line.path("errors").toString());
+                }
+                results[index] = new ModerationResult(actions.get(index), error);
+            }
+        }
+
+        private void fail(List<ModerationAction> actions, ModerationResult[] results, Exception error) {
+            for (int index : indices) {
+                results[index] = new ModerationResult(actions.get(index), error);
+            }
+        }
+    }
 }
@@ -0,0 +1,37 @@
+package net.dean.jraw.managers;
+
+/**
+ * The outcome of one {@link ModerationAction} performed by {@link ModerationManager#bulk(java.util.Collection)}
+ */
+public final class ModerationResult {
+    private final ModerationAction action;
+    private final Exception error;
+
+    ModerationResult(ModerationAction action, Exception error) {
+        this.action = action;
+        this.error = error;
+    }
+
+    /** Gets the action this is the result of */
+    public ModerationAction getAction() {
+        return action;
+    }
+
+    /** Checks if the action was performed without errors */
+    public boolean isSuccessful() {
+        return error == null;
+    }
+
+    /**
+     * Gets the reason the action failed: usually a {@link net.dean.jraw.http.NetworkException} or an
+     * {@link net.dean.jraw.ApiException}. Null if it was successful.
+     */
+    public Exception getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "ModerationResult {action=" + action + ", " + (error == null ? "successful" : "error=" + error) + "}";
+    }
+}
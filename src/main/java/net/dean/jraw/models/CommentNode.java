@@ -1,6 +1,8 @@
 package net.dean.jraw.models;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Optional;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.TreeTraverser;
@@ -15,10 +17,16 @@ import net.dean.jraw.models.meta.Model;
 import net.dean.jraw.util.JrawUtils;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -69,7 +77,10 @@ public final class CommentNode implements Iterable<CommentNode> {
      */
     private static final int VISUALIZATION_INDENT = 2;
     private static final SimpleTreeTraverser traverser = new SimpleTreeTraverser();
-    private static final Lock morechildrenLock = new ReentrantLock();
+    /** The maximum amount of IDs that can be sent in one request to /api/morechildren */
+    private static final int MORECHILDREN_BATCH_SIZE = 100;
+    /** Locks that allow only one request to /api/morechildren at a time per RedditClient. Guarded by itself. */
+    private static final Map<RedditClient, Lock> morechildrenLocks = new WeakHashMap<>();
 
     private MoreChildren moreChildren;
     private final String ownerId;
@@ -224,7 +235,8 @@ public final class CommentNode implements Iterable<CommentNode> {
 
     /**
      * Fully expands the comment tree below this node. This can be a very expensive call depending on how large the
-     * thread is, as every {@link MoreChildren} requires its own HTTP request. It is therefore advised to use
+     * thread is, as every 100 comments hidden behind {@link MoreChildren} objects require an HTTP request. It is
+     * therefore advised to use
      * {@link #loadFully(RedditClient, int, int)} instead to restrict the number of HTTP requests sent.
      *
      * @param reddit Used to make requests
@@ -235,39 +247,196 @@ public final class CommentNode implements Iterable<CommentNode> {
 
     /**
      * Fully expands the comment tree below this node by finding all {@link MoreChildren} objects belonging to and below
-     * this node and loading them into the tree using {@link #loadMoreComments(RedditClient)}. Be aware that without
-     * setting a depth or request limit this may be a very costly operation, requiring potentially hundreds of requests
-     * to fully satisfy the method call. Note that one request must be sent for every {@link MoreChildren} found.
+     * this node and loading them into the tree. The IDs of several MoreChildren are combined into requests of up to 100
+     * IDs each, so far fewer requests are needed than there are MoreChildren objects. Be aware that without setting a
+     * depth or request limit this may still be a costly operation for large threads.
      *
      * @param reddit       Used to make requests
      * @param depthLimit   The maximum depth to look into. A value of {@link #NO_LIMIT} disable the limit.
-     * @param requestLimit The maximum amount of requests to send. There will be one request for every MoreChildren
-     *                     object found. A value of {@link #NO_LIMIT} will disable the limit.
+     * @param requestLimit The maximum amount of requests to send. A value of {@link #NO_LIMIT} will disable the limit.
      * @throws NetworkException If there was a problem sending the request
      */
     public void loadFully(RedditClient reddit, int depthLimit, int requestLimit) throws NetworkException {
-        int requests = 0;
         if (depthLimit < NO_LIMIT || requestLimit < NO_LIMIT)
             throw new IllegalArgumentException("Expecting a number greater than or equal to -1, got " +
                     (requestLimit < NO_LIMIT ? requestLimit : depthLimit));
-        // Load this node's comments first
-        while (hasMoreComments()) {
-            loadMoreComments(reddit);
-            if (++requests > requestLimit && depthLimit != NO_LIMIT)
-                return;
-        }
-
-        // Load the children's comments next
-        for (CommentNode node : walkTree(TraversalMethod.BREADTH_FIRST)) {
-            // Travel breadth first so we can accurately compare depths
-            if (depthLimit != NO_LIMIT && node.depth > depthLimit)
-                return;
-            while (node.hasMoreComments()) {
-                node.loadMoreComments(reddit);
-                if (++requests > requestLimit && depthLimit != NO_LIMIT)
-                    return;
+
+        long start = System.nanoTime();
+        int requests = 0;
+        // Before batching, every MoreChildren required its own request
+        int expanded = 0;
+        // Reddit sometimes returns a MoreChildren for comments that have already been requested
+        Set<String> requested = new HashSet<>();
+
+        while (requestLimit == NO_LIMIT || requests < requestLimit) {
+            // This node's comments are always loaded. Travel breadth first so we can accurately compare depths.
+            List<CommentNode> candidates = new ArrayList<>();
+            candidates.add(this);
+            for (CommentNode node : walkTree(TraversalMethod.BREADTH_FIRST)) {
+                if (node == this)
+                    continue;
+                if (depthLimit != NO_LIMIT && node.depth > depthLimit)
+                    break;
+                candidates.add(node);
+            }
+
+            List<CommentNode> pending = new ArrayList<>();
+            List<CommentNode> continuations = new ArrayList<>();
+            for (CommentNode node : candidates) {
+                if (!node.hasMoreComments())
+                    continue;
+                if (node.isThreadContinuation())
+                    continuations.add(node);
+                else
+                    pending.add(node);
+            }
+            if (pending.isEmpty() && continuations.isEmpty())
+                break;
+
+            // Take as many nodes as will fit in the requests we're allowed to send
+            int budget = requestLimit == NO_LIMIT ? Integer.MAX_VALUE : requestLimit - requests;
+            List<CommentNode> batched = new ArrayList<>();
+            List<String> ids = new ArrayList<>();
+            for (CommentNode node : pending) {
+                List<String> nodeIds = node.moreChildren.getChildrenIds();
+                if (batchCount(ids.size() + nodeIds.size()) > budget)
+                    break;
+                batched.add(node);
+                ids.addAll(nodeIds);
+            }
+
+            if (!batched.isEmpty()) {
+                requests += loadBatched(reddit, batched, ids, requested);
+                expanded += batched.size();
+            } else if (!pending.isEmpty()) {
+                // The first MoreChildren has more IDs than we're allowed to request, load as many as we can
+                CommentNode node = pending.get(0);
+                List<String> nodeIds = node.moreChildren.getChildrenIds();
+                int count = budget * MORECHILDREN_BATCH_SIZE;
+                MoreChildren rest = remainder(node.moreChildren, nodeIds.subList(count, nodeIds.size()));
+                requests += loadBatched(reddit, Collections.singletonList(node), nodeIds.subList(0, count), requested);
+                if (node.moreChildren == null) {
+                    node.moreChildren = rest;
+                } else {
+                    // Reddit returned a MoreChildren of its own for this node, keep the IDs we haven't requested yet too
+                    Set<String> merged = new LinkedHashSet<>(node.moreChildren.getChildrenIds());
+                    merged.addAll(rest.getChildrenIds());
+                    node.moreChildren = remainder(node.moreChildren, new ArrayList<>(merged));
+                }
+                expanded++;
+            }
+
+            for (CommentNode node : continuations) {
+                if (requestLimit != NO_LIMIT && requests >= requestLimit)
+                    break;
+                node.continueThread(reddit);
+                requests++;
+                expanded++;
+            }
+        }
+
+        if (requests > 0 && expanded > requests) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            int saved = expanded - requests;
+            JrawUtils.logger().info("Expanded {} MoreChildren with {} requests, saving {} requests (about {} ms)",
+                    expanded, requests, saved, saved * millis / requests);
+        }
+    }
+
+    /** Creates a copy of the given MoreChildren that only contains the given IDs */
+    private static MoreChildren remainder(MoreChildren more, List<String> ids) {
+        ObjectNode data = more.getDataNode().deepCopy();
+        ArrayNode children = data.putArray("children");
+        for (String id : ids) {
+            children.add(id);
+        }
+        data.put("count", ids.size());
+        return new MoreChildren(data);
+    }
+
+    private static int batchCount(int ids) {
+        return (ids + MORECHILDREN_BATCH_SIZE - 1) / MORECHILDREN_BATCH_SIZE;
+    }
+
+    /**
+     * Requests the comments for the MoreChildren of every given node, at most 100 IDs at a time, and inserts them into
+     * the tree.
+     *
+     * @return How many requests were sent
+     */
+    private int loadBatched(RedditClient reddit, List<CommentNode> nodes, List<String> ids, Set<String> requested)
+            throws NetworkException {
+        for (CommentNode node : nodes) {
+            node.moreChildren = null;
+        }
+        requested.addAll(ids);
+
+        // The results from several MoreChildren are mixed, so look up the parent of every new comment by its fullname
+        Map<String, CommentNode> index = new HashMap<>();
+        // walkTree() leaves out the root node
+        index.put(comment.getFullName(), this);
+        for (CommentNode node : walkTree()) {
+            index.put(node.getComment().getFullName(), node);
+        }
+
+        int requests = 0;
+        List<Thing> orphans = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += MORECHILDREN_BATCH_SIZE) {
+            List<String> batch = ids.subList(i, Math.min(i + MORECHILDREN_BATCH_SIZE, ids.size()));
+            List<Thing> things = requestMoreChildren(reddit, ownerId, commentSort, batch);
+            requests++;
+            for (Thing t : things) {
+                if (t instanceof MoreChildren && requested.containsAll(((MoreChildren) t).getChildrenIds()))
+                    continue;
+                if (!insert(t, index))
+                    orphans.add(t);
+            }
+        }
+
+        // A comment may have arrived before its parent
+        boolean progress = true;
+        while (progress && !orphans.isEmpty()) {
+            progress = false;
+            for (Iterator<Thing> it = orphans.iterator(); it.hasNext(); ) {
+                if (insert(it.next(), index)) {
+                    it.remove();
+                    progress = true;
+                }
             }
         }
+
+        for (Thing t : orphans) {
+            JrawUtils.logger().warn("Unable to find parent for " + t);
+        }
+
+        return requests;
+    }
+
+    /**
+     * Inserts a Comment or MoreChildren underneath the node whose comment matches its parent ID
+     *
+     * @return False if the parent could not be found
+     */
+    private boolean insert(Thing thing, Map<String, CommentNode> index) {
+        if (thing instanceof Comment) {
+            Comment comment = (Comment) thing;
+            CommentNode parent = index.get(comment.getParentId());
+            if (parent == null)
+                return false;
+            CommentNode node = new CommentNode(ownerId, parent, comment, null, commentSort, parent.depth + 1);
+            parent.children.add(node);
+            index.put(comment.getFullName(), node);
+        } else if (thing instanceof MoreChildren) {
+            MoreChildren more = (MoreChildren) thing;
+            CommentNode parent = index.get(more.getParentId());
+            if (parent == null)
+                return false;
+            parent.moreChildren = more;
+        } else {
+            throw new IllegalStateException("Received a Thing that was not a Comment or MoreChildren, was "
+                    + thing.getClass().getName());
+        }
+        return true;
     }
 
     /**
@@ -492,7 +661,11 @@ public final class CommentNode implements Iterable<CommentNode> {
         if (!hasMoreComments())
             return new ArrayList<>();
 
-        List<String> moreIds = moreChildren.getChildrenIds();
+        return requestMoreChildren(reddit, ownerId, commentSort, moreChildren.getChildrenIds());
+    }
+
+    private static List<Thing> requestMoreChildren(RedditClient reddit, String linkId, CommentSort sort,
+                                                   List<String> moreIds) throws NetworkException {
         StringBuilder ids = new StringBuilder(moreIds.get(0));
         for (int i = 1; i < moreIds.size(); i++) {
             String other = moreIds.get(i);
@@ -504,18 +677,20 @@ public final class CommentNode implements Iterable<CommentNode> {
         // Make sure we are only making one request to this endpoint at a time, as noted by the docs:
         // "**NOTE**: you may only make one request at a time to this API endpoint. Higher concurrency will result in an
         // error being returned."
-        morechildrenLock.lock();
+        // This applies to each user, so different RedditClients don't have to wait for each other.
+        Lock lock = getMorechildrenLock(reddit);
+        lock.lock();
         try {
             response = reddit.execute(reddit.request()
                     .endpoint(Endpoints.MORECHILDREN)
                     .post(JrawUtils.mapOf(
                             "children", ids.toString(),
-                            "link_id", ownerId,
-                            "sort", commentSort.name().toLowerCase(),
+                            "link_id", linkId,
+                            "sort", sort.name().toLowerCase(),
                             "api_type", "json"
                     )).build());
         } finally {
-            morechildrenLock.unlock();
+            lock.unlock();
         }
 
         JsonNode things = response.getJson().get("json").get("data").get("things");
@@ -536,6 +711,17 @@ public final class CommentNode implements Iterable<CommentNode> {
         return commentList;
     }
 
+    private static Lock getMorechildrenLock(RedditClient reddit) {
+        synchronized (morechildrenLocks) {
+            Lock lock = morechildrenLocks.get(reddit);
+            if (lock == null) {
+                lock = new ReentrantLock();
+                morechildrenLocks.put(reddit, lock);
+            }
+            return lock;
+        }
+    }
+
     /**
      * Gets the Comment this CommentNode is representing.
      */
@@ -558,6 +744,11 @@ public final class CommentNode implements Iterable<CommentNode> {
         return depth;
     }
 
+    /** Gets how the comments in this tree were sorted when they were requested */
+    public CommentSort getCommentSort() {
+        return commentSort;
+    }
+
     /**
      * Checks if this comment is a top-level reply
      */
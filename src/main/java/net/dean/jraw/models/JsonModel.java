@@ -1,9 +1,12 @@
 package net.dean.jraw.models;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import net.dean.jraw.util.JrawUtils;
 import net.dean.jraw.models.meta.JsonProperty;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.URI;
@@ -14,6 +17,8 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * This class provides an abstract model for retrieving data from a JSON node, although not necessarily relating to the
@@ -24,6 +29,9 @@ public abstract class JsonModel {
     /** The maximum length of a result of a {@link JsonProperty} method in {@link #toString()} */
     private static final int MAX_STRING_LENGTH = 500;
     private static final String ELLIPSIS = "(...)";
+    /** The sorted JsonProperty methods of every JsonModel class that has been turned into a String */
+    private static final ConcurrentMap<Class<?>, Method[]> PROPERTIES = new ConcurrentHashMap<>();
+    private int hashCode;
 
     /**
      * Instantiates a new JsonModel
@@ -169,12 +177,18 @@ public abstract class JsonModel {
 
         JsonModel that = (JsonModel) o;
 
-        return (data != null ? !data.equals(that.data) : that.data != null);
+        return data != null ? data.equals(that.data) : that.data == null;
     }
 
     @Override
     public int hashCode() {
-        return data != null ? data.hashCode() : 0;
+        // Hashing a JsonNode visits every node in the tree, so only do it once
+        int h = hashCode;
+        if (h == 0 && data != null) {
+            h = data.hashCode();
+            hashCode = h;
+        }
+        return h;
     }
 
     @Override
@@ -185,18 +199,10 @@ public abstract class JsonModel {
         Class<? extends JsonModel> clazz = getClass();
         StringBuilder sb = new StringBuilder(clazz.getSimpleName() + " {");
 
-        List<Method> jsonInteractionMethods = getJsonProperties(clazz);
-
-        // Sort the methods by name
-        Collections.sort(jsonInteractionMethods, new Comparator<Method>() {
-            @Override
-            public int compare(Method o1, Method o2) {
-                return o1.getName().compareTo(o2.getName());
-            }
-        });
+        Method[] jsonInteractionMethods = getSortedJsonProperties(clazz);
 
-        int counter = 0;
-        for (Method m : jsonInteractionMethods) {
+        for (int i = 0; i < jsonInteractionMethods.length; i++) {
+            Method m = jsonInteractionMethods[i];
             try {
                 // methodName()="returnVal"
                 sb.append(m.getName()).append("()=");
@@ -214,32 +220,17 @@ public abstract class JsonModel {
                         // Avoid calling asString on JsonModels
                         sb.append('[').append(result.getClass().getSimpleName()).append(']');
                     } else {
-                        String resultString = asString(result);
-                        // Remove new lines
-                        resultString = resultString.replace("\n", "\\n");
-                        if (resultString.length() > MAX_STRING_LENGTH) {
-                            // Prevent the resultString from being too long, cut it off at a certain length and add an ellipsis
-                            resultString = resultString.substring(0, MAX_STRING_LENGTH - ELLIPSIS.length());
-                            resultString += ELLIPSIS;
-                        }
-                        sb.append('\"').append(resultString).append('\"');
+                        sb.append('\"').append(truncate(asString(result))).append('\"');
                     }
                 } else {
                     // Show the exception and its cause
-                    Throwable cause = thrown.getCause();
-                    sb.append('[')
-                            .append("threw ")
-                            .append(cause.getClass().getName())
-                            .append(": ")
-                            .append(cause.getMessage())
-                            .append(']');
+                    sb.append(describe(thrown.getCause()));
                 }
 
-                if (counter != jsonInteractionMethods.size() - 1) {
+                if (i != jsonInteractionMethods.length - 1) {
                     // Append the delimiter only if there will be a next element
                     sb.append(", ");
                 }
-                counter++;
             } catch (IllegalAccessException e) {
                 JrawUtils.logger().error("IllegalAccessException. This really shouldn't happen.", e);
             }
@@ -249,6 +240,93 @@ public abstract class JsonModel {
         return sb.toString();
     }
 
+    /**
+     * Creates a single line of JSON containing the same values as {@link #toString()}, which is easier for log
+     * processors to handle. The keys are the names of the {@link JsonProperty} methods, along with "@type" for the name
+     * of this class. Numbers and booleans are written as JSON numbers and booleans, dates as milliseconds since the
+     * epoch, and other values as Strings formatted like they are in {@code toString()}.
+     */
+    public String toCompactString() {
+        Class<? extends JsonModel> clazz = getClass();
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator gen = JrawUtils.objectMapper().getFactory().createGenerator(writer)) {
+            gen.writeStartObject();
+            gen.writeStringField("@type", clazz.getSimpleName());
+            for (Method m : getSortedJsonProperties(clazz)) {
+                gen.writeFieldName(m.getName());
+                Object result;
+                try {
+                    result = m.invoke(this);
+                } catch (InvocationTargetException e) {
+                    gen.writeString(describe(e.getCause()));
+                    continue;
+                } catch (IllegalAccessException e) {
+                    JrawUtils.logger().error("IllegalAccessException. This really shouldn't happen.", e);
+                    gen.writeNull();
+                    continue;
+                }
+
+                if (result == null) {
+                    gen.writeNull();
+                } else if (result instanceof Boolean) {
+                    gen.writeBoolean((Boolean) result);
+                } else if (result instanceof Integer || result instanceof Long) {
+                    gen.writeNumber(((Number) result).longValue());
+                } else if (result instanceof Double || result instanceof Float) {
+                    gen.writeNumber(((Number) result).doubleValue());
+                } else if (result instanceof Date) {
+                    gen.writeNumber(((Date) result).getTime());
+                } else if (result instanceof JsonModel) {
+                    gen.writeString('[' + result.getClass().getSimpleName() + ']');
+                } else {
+                    gen.writeString(truncate(asString(result)));
+                }
+            }
+            gen.writeEndObject();
+        } catch (IOException e) {
+            // StringWriter doesn't throw IOExceptions
+            throw new IllegalStateException(e);
+        }
+        return writer.toString();
+    }
+
+    /** Removes new lines and shortens the String to at most {@link #MAX_STRING_LENGTH} characters */
+    private static String truncate(String resultString) {
+        // Remove new lines
+        resultString = resultString.replace("\n", "\\n");
+        if (resultString.length() > MAX_STRING_LENGTH) {
+            // Prevent the resultString from being too long, cut it off at a certain length and add an ellipsis
+            resultString = resultString.substring(0, MAX_STRING_LENGTH - ELLIPSIS.length());
+            resultString += ELLIPSIS;
+        }
+        return resultString;
+    }
+
+    private static String describe(Throwable cause) {
+        return "[threw " + cause.getClass().getName() + ": " + cause.getMessage() + ']';
+    }
+
+    /**
+     * Same as {@link #getJsonProperties(Class)}, but sorted by name. The methods of each class are only looked up once.
+     */
+    private static Method[] getSortedJsonProperties(Class<? extends JsonModel> clazz) {
+        Method[] methods = PROPERTIES.get(clazz);
+        if (methods != null)
+            return methods;
+
+        List<Method> found = getJsonProperties(clazz);
+        // Sort the methods by name
+        Collections.sort(found, new Comparator<Method>() {
+            @Override
+            public int compare(Method o1, Method o2) {
+                return o1.getName().compareTo(o2.getName());
+            }
+        });
+        methods = found.toArray(new Method[found.size()]);
+        Method[] existing = PROPERTIES.putIfAbsent(clazz, methods);
+        return existing != null ? existing : methods;
+    }
+
     /**
      * Gets a list of fields that have the JsonInteraction annotation attached to them. This method also returns
      * JsonInteraction-annotated methods in this class' superclasses, up until JsonModel. Used for testing.
@@ -49,6 +49,16 @@ public class Listing<T extends RedditObject> extends RedditObject implements Lis
         this(thingClass, new ArrayList<T>(), null, null, null);
     }
 
+    /**
+     * Instantiates a new Listing with the given children and no surrounding pages
+     *
+     * @param children The children of this Listing. Will be copied.
+     * @param thingClass The class which will be the type of the children in this listing
+     */
+    public Listing(List<T> children, Class<T> thingClass) {
+        this(thingClass, new ArrayList<T>(children), null, null, null);
+    }
+
     protected Listing(Class<T> thingClass, List<T> children, String before, String after, MoreChildren more) {
         super(null);
         this.thingClass = thingClass;
@@ -124,7 +134,11 @@ public class Listing<T extends RedditObject> extends RedditObject implements Lis
 
         Listing listing = (Listing) o;
 
-        return data.equals(listing.data);
+        if (!thingClass.equals(listing.thingClass)) return false;
+        if (!children.equals(listing.children)) return false;
+        if (before != null ? !before.equals(listing.before) : listing.before != null) return false;
+        if (after != null ? !after.equals(listing.after) : listing.after != null) return false;
+        return moreChildren != null ? moreChildren.equals(listing.moreChildren) : listing.moreChildren == null;
     }
 
     @Override
@@ -132,6 +146,8 @@ public class Listing<T extends RedditObject> extends RedditObject implements Lis
         int result = super.hashCode();
         result = 31 * result + thingClass.hashCode();
         result = 31 * result + children.hashCode();
+        result = 31 * result + (before != null ? before.hashCode() : 0);
+        result = 31 * result + (after != null ? after.hashCode() : 0);
         return result;
     }
 
@@ -17,9 +17,33 @@ import java.util.Map;
  */
 @Model(kind = Model.Kind.ABSTRACT, serializer = ContributionSerializer.class)
 public abstract class PublicContribution extends Contribution implements Distinguishable, Gildable, Votable {
+    // The most frequently accessed properties are decoded once here instead of on every call to their getters
+    private final long score;
+    private final int gilded;
+    private final VoteDirection vote;
+
     /** Instantiates a new PublicContribution */
     public PublicContribution(JsonNode dataNode) {
         super(dataNode);
+        if (dataNode == null) {
+            this.score = ABSENT;
+            this.gilded = 0;
+            this.vote = null;
+            return;
+        }
+
+        JsonNode scoreNode = dataNode.get("score");
+        this.score = scoreNode != null && scoreNode.isNumber() ? scoreNode.intValue() : ABSENT;
+        JsonNode gildedNode = dataNode.get("gilded");
+        this.gilded = gildedNode != null ? gildedNode.asInt() : 0;
+        JsonNode likes = dataNode.get("likes");
+        if (likes == null) {
+            this.vote = null;
+        } else if (likes.isNull()) {
+            this.vote = VoteDirection.NO_VOTE;
+        } else {
+            this.vote = likes.booleanValue() ? VoteDirection.UPVOTE : VoteDirection.DOWNVOTE;
+        }
     }
 
     /** Gets a map of reasons to the amount of times reported for that reason by normal users (non-moderators) */
@@ -58,12 +82,17 @@ public abstract class PublicContribution extends Contribution implements Disting
 
     @Override
     public Integer getTimesGilded() {
-        return _getTimesGilded();
+        return gilded;
     }
 
     @Override
     public Integer getScore() {
-        return _getScore();
+        return getScoreValue();
+    }
+
+    /** Same as {@link #getScore()}, but without boxing the result */
+    public int getScoreValue() {
+        return score != ABSENT ? (int) score : _getScore();
     }
 
     public String getLocalizedScore() {
@@ -76,7 +105,7 @@ public abstract class PublicContribution extends Contribution implements Disting
 
     @Override
     public VoteDirection getVote() {
-        return _getVote();
+        return vote != null ? vote : _getVote();
     }
 
     /**
@@ -17,6 +17,9 @@ import java.util.List;
 @Model(kind = Model.Kind.LINK, serializer = SubmissionSerializer.class, validate = false)
 public final class Submission extends PublicContribution {
     private CommentNode rootNode;
+    // Decoded once, see PublicContribution
+    private final long commentCount;
+    private final double upvoteRatio;
 
     /** Instantiates a new Submission with no comments */
     public Submission(JsonNode dataNode) {
@@ -34,6 +37,10 @@ public final class Submission extends PublicContribution {
         super(dataNode);
         this.rootNode = comments;
         saved = data("saved", Boolean.class);
+        JsonNode numComments = dataNode.get("num_comments");
+        this.commentCount = numComments != null && numComments.isNumber() ? numComments.intValue() : ABSENT;
+        JsonNode ratio = dataNode.get("upvote_ratio");
+        this.upvoteRatio = ratio != null && ratio.isNumber() ? ratio.doubleValue() : Double.NaN;
 
     }
 
@@ -103,7 +110,7 @@ public final class Submission extends PublicContribution {
      */
     @JsonProperty
     public Double getUpvoteRatio() {
-        return data("upvote_ratio", Double.class);
+        return Double.isNaN(upvoteRatio) ? data("upvote_ratio", Double.class) : Double.valueOf(upvoteRatio);
     }
 
     /**
@@ -134,7 +141,7 @@ public final class Submission extends PublicContribution {
      */
     @JsonProperty
     public Integer getCommentCount() {
-        return data("num_comments", Integer.class);
+        return commentCount != ABSENT ? Integer.valueOf((int) commentCount) : data("num_comments", Integer.class);
     }
 
     /**
@@ -350,34 +357,6 @@ public final class Submission extends PublicContribution {
         return "http://redd.it/" + JrawUtils.urlEncode(getId());
     }
 
-    @Override
-    public Date getCreated() {
-        return _getCreated();
-    }
-
-    @Override
-    public DistinguishedStatus getDistinguishedStatus() {
-        return _getDistinguishedStatus();
-    }
-
-    @Override
-    public Integer getTimesGilded() {
-        return _getTimesGilded();
-    }
-
-    @Override
-    public Integer getScore() {
-        return _getScore();
-    }
-
-    public String getLocalizedScore() {
-        try {
-            return NumberFormat.getInstance().format(getScore());
-        } catch (final IllegalArgumentException ex) {
-            return null;
-        }
-    }
-
     boolean voted;
     public boolean voted(){
         return voted;
@@ -396,11 +375,6 @@ public final class Submission extends PublicContribution {
         return upvoted;
     }
 
-    @Override
-    public VoteDirection getVote() {
-        return _getVote();
-    }
-
     /**
      * Represents a list of possible return values for the "thumbnail" JsonNode. All of the values in this enum can be
      * returned by the reddit API, except for {@link #URL} and {@link #NONE}. If {@code URL} is returned, then Reddit
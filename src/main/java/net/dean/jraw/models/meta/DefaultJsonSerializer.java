@@ -5,6 +5,8 @@ import com.fasterxml.jackson.databind.JsonNode;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * This class attempts to serialize a JsonModel by invoking a constructor that takes a single JsonNode as an argument.
@@ -12,12 +14,19 @@ import java.lang.reflect.InvocationTargetException;
  * previously will cause an exception to be thrown.
  */
 public final class DefaultJsonSerializer implements JsonSerializer<JsonModel> {
+    /** Constructors that have already been looked up */
+    private final ConcurrentMap<Class<?>, Constructor<?>> constructors = new ConcurrentHashMap<>();
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T extends JsonModel> T parse(JsonNode node, Class<T> clazz, Model.Kind kind) {
         try {
+            Constructor<T> constructor = (Constructor<T>) constructors.get(clazz);
+            if (constructor == null) {
+                constructor = clazz.getConstructor(JsonNode.class);
+                constructors.putIfAbsent(clazz, constructor);
+            }
             // Instantiate a generic Thing
-            Constructor<T> constructor = clazz.getConstructor(JsonNode.class);
             return constructor.newInstance(node.get("data"));
         } catch (NoSuchMethodException |
                 InstantiationException |
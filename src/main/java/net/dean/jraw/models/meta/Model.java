@@ -18,12 +18,15 @@ import net.dean.jraw.models.Subreddit;
 import net.dean.jraw.models.WikiPage;
 import net.dean.jraw.models.WikiPageSettings;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableMap;
 
 import java.lang.annotation.Documented;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * This annotation is used to verify that the correct data is being mapped to the correct object. This is accomplished
@@ -100,6 +103,17 @@ public @interface Model {
         /** Represents an administrative action on behalf of a moderator of a subreddit */
         MOD_ACTION("modaction", ModAction.class);
 
+        /** Maps values of "kind" nodes to Kinds */
+        private static final Map<String, Kind> BY_VALUE;
+
+        static {
+            Map<String, Kind> byValue = new HashMap<>();
+            for (Kind k : values()) {
+                byValue.put(k.value, k);
+            }
+            BY_VALUE = ImmutableMap.copyOf(byValue);
+        }
+
         private final String value;
         private final Class<? extends JsonModel> defaultClass;
         Kind(String value, Class<? extends JsonModel> defaultClass) {
@@ -116,13 +130,10 @@ public @interface Model {
          * Gets a Kind by its JSON value (t1, t2, etc.)
          */
         public static Kind getByValue(String value) {
-            for (Kind k : values()) {
-                if (k.value.equals(value)) {
-                    return k;
-                }
-            }
-
-            throw new NoSuchEnumConstantException(Kind.class, value);
+            Kind kind = value == null ? null : BY_VALUE.get(value);
+            if (kind == null)
+                throw new NoSuchEnumConstantException(Kind.class, value);
+            return kind;
         }
     }
 }
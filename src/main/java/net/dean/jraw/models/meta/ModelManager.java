@@ -1,18 +1,73 @@
 package net.dean.jraw.models.meta;
 
+import com.google.common.collect.ImmutableMap;
+import net.dean.jraw.models.Account;
+import net.dean.jraw.models.Comment;
+import net.dean.jraw.models.CommentMessage;
+import net.dean.jraw.models.Contribution;
+import net.dean.jraw.models.KarmaBreakdown;
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.LiveThread;
+import net.dean.jraw.models.LiveUpdate;
+import net.dean.jraw.models.LoggedInAccount;
+import net.dean.jraw.models.Message;
+import net.dean.jraw.models.ModAction;
+import net.dean.jraw.models.MoreChildren;
+import net.dean.jraw.models.MultiReddit;
+import net.dean.jraw.models.PrivateMessage;
+import net.dean.jraw.models.PublicContribution;
+import net.dean.jraw.models.Submission;
+import net.dean.jraw.models.Subreddit;
+import net.dean.jraw.models.Thing;
+import net.dean.jraw.models.Trophy;
+import net.dean.jraw.models.UserRecord;
+import net.dean.jraw.models.WikiPage;
+import net.dean.jraw.models.WikiPageSettings;
 import net.dean.jraw.util.JrawUtils;
 import net.dean.jraw.models.JsonModel;
 import com.fasterxml.jackson.databind.JsonNode;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * This class is responsible for managing the creation of JsonModels. It keeps a cache of common {@link JsonSerializer}s
- * and {@link Model} classes. This class is a singleton.
+ * This class is responsible for managing the creation of JsonModels. Every {@link Model} class in JRAW is registered
+ * along with an instance of its {@link JsonSerializer} when this class is initialized, so parsing a model never has to
+ * look at annotations or create serializers. Model classes defined outside of JRAW are registered the first time they
+ * are used. This class is a singleton and is thread-safe.
  */
 public final class ModelManager {
-    private static ModelManager instance = new ModelManager();
+    /** Every class in JRAW annotated with {@link Model} */
+    private static final List<Class<? extends JsonModel>> BUILT_IN_MODELS = Arrays.<Class<? extends JsonModel>>asList(
+            Account.class,
+            Comment.class,
+            CommentMessage.class,
+            Contribution.class,
+            KarmaBreakdown.class,
+            Listing.class,
+            LiveThread.class,
+            LiveUpdate.class,
+            LoggedInAccount.class,
+            Message.class,
+            ModAction.class,
+            MoreChildren.class,
+            MultiReddit.class,
+            PrivateMessage.class,
+            PublicContribution.class,
+            Submission.class,
+            Subreddit.class,
+            Thing.class,
+            Trophy.class,
+            UserRecord.class,
+            WikiPage.class,
+            WikiPageSettings.class
+    );
+
+    private static final ModelManager instance = new ModelManager();
     public static ModelManager getInstance() { return instance; }
 
     /**
@@ -22,67 +77,77 @@ public final class ModelManager {
         return getInstance().parse(rootNode, expectedClass);
     }
 
-    private Map<Class<?>, Model> modelCache;
-    private Map<Class<? extends JsonSerializer>, JsonSerializer> serializers;
+    /** Registrations of the built-in models. Never modified after construction. */
+    private final Map<Class<?>, Registration> builtIn;
+    /** Registrations of models defined outside of JRAW */
+    private final ConcurrentMap<Class<?>, Registration> others;
+    /** One instance of every JsonSerializer used by a registered model */
+    private final ConcurrentMap<Class<? extends JsonSerializer>, JsonSerializer> serializers;
 
     private ModelManager() {
-        this.modelCache = new HashMap<>();
-        this.serializers = new HashMap<>();
+        this.serializers = new ConcurrentHashMap<>();
+        this.others = new ConcurrentHashMap<>();
+
+        Map<Class<?>, Registration> registrations = new HashMap<>();
+        for (Class<? extends JsonModel> clazz : BUILT_IN_MODELS) {
+            registrations.put(clazz, createRegistration(clazz));
+        }
+        this.builtIn = ImmutableMap.copyOf(registrations);
     }
 
     /**
-     * Asserts that the given class contains a {@link Model} annotation and returns it
+     * Gets the Model annotation and serializer of the given class
+     *
+     * @throws IllegalArgumentException If the class is not annotated with {@link Model}
      */
-    private Model ensureModelClass(Class<?> clazz) {
-        // modelCache will only contain classes that have the @Model annotation
-        if (!modelCache.containsKey(clazz)) {
-            if (!clazz.isAnnotationPresent(Model.class)) {
-                throw new IllegalArgumentException(String.format("Class %s is not annotated with %s",
-                        clazz.getName(), Model.class.getName()));
-            }
+    private Registration getRegistration(Class<?> clazz) {
+        Registration registration = builtIn.get(clazz);
+        if (registration != null)
+            return registration;
+
+        registration = others.get(clazz);
+        if (registration == null) {
+            Registration created = createRegistration(clazz);
+            registration = others.putIfAbsent(clazz, created);
+            if (registration == null)
+                registration = created;
         }
+        return registration;
+    }
 
-        return clazz.getAnnotation(Model.class);
+    private Registration createRegistration(Class<?> clazz) {
+        Model model = clazz.getAnnotation(Model.class);
+        if (model == null) {
+            throw new IllegalArgumentException(String.format("Class %s is not annotated with %s",
+                    clazz.getName(), Model.class.getName()));
+        }
+        return new Registration(model, getSerializer(model.serializer()));
     }
 
     /**
-     * Gets the instance of the JsonSerializer for the given Model class.
-     * @param clazz The class that has the Model annotation
+     * Gets the shared instance of the given JsonSerializer class, creating it if necessary
      */
-    private JsonSerializer getSerializer(Class<? extends JsonModel> clazz) {
-        ensureModelClass(clazz);
-        Class<? extends JsonSerializer> serClass = clazz.getAnnotation(Model.class).serializer();
-        if (serializers.containsKey(serClass)) {
-            return serializers.get(serClass);
-        }
+    private JsonSerializer getSerializer(Class<? extends JsonSerializer> serClass) {
+        JsonSerializer serializer = serializers.get(serClass);
+        if (serializer != null)
+            return serializer;
 
-        JsonSerializer serializer;
         try {
             serializer = serClass.newInstance();
         } catch (InstantiationException e) {
             throw new IllegalArgumentException(
-                    "JsonSerializer " + clazz.getName() + " has no default constructor or is abstract", e);
+                    "JsonSerializer " + serClass.getName() + " has no default constructor or is abstract", e);
         } catch (IllegalAccessException e) {
             throw new RuntimeException(e);
         }
 
-        serializers.put(serClass, serializer);
-        return serializer;
+        JsonSerializer existing = serializers.putIfAbsent(serClass, serializer);
+        return existing != null ? existing : serializer;
     }
 
-    /**
-     * Gets the Model annotation for the given class
-     */
-    private Model getModel(Class<?> modelClass) {
-        ensureModelClass(modelClass);
-
-        if (modelCache.containsKey(modelClass)) {
-            return modelCache.get(modelClass);
-        }
-
-        Model model = modelClass.getAnnotation(Model.class);
-        modelCache.put(modelClass, model);
-        return model;
+    /** Gets the value of {@link Model#kind()} for the given class */
+    Model.Kind getKind(Class<?> modelClass) {
+        return getRegistration(modelClass).model.kind();
     }
 
     /**
@@ -95,14 +160,18 @@ public final class ModelManager {
      *                                  node was not found.
      */
     public void validate(JsonNode rootNode, Class<?> expectedClass) {
-        Model type = getModel(expectedClass);
-        if (!rootNode.has("kind")) {
+        validate(rootNode, getRegistration(expectedClass).model);
+    }
+
+    private void validate(JsonNode rootNode, Model type) {
+        JsonNode kindNode = rootNode.get("kind");
+        if (kindNode == null) {
             throw new IllegalArgumentException("JsonNode does not have a 'kind' child");
         }
 
-        String actual = rootNode.get("kind").asText();
+        String actual = kindNode.asText();
         String expected = type.kind().getValue();
-        if (!rootNode.get("kind").asText().equals(type.kind().getValue())) {
+        if (!actual.equals(expected)) {
             throw new IllegalArgumentException(String.format("Expected kind was not found. Expected '%s', got '%s'",
                     expected, actual));
         }
@@ -121,16 +190,17 @@ public final class ModelManager {
      */
     @SuppressWarnings("unchecked")
     public <T extends JsonModel> T parse(JsonNode rootNode, Class<T> expectedClass) {
-        Model model = ensureModelClass(expectedClass);
+        Registration registration = getRegistration(expectedClass);
+        Model model = registration.model;
         Model.Kind kind = model.kind();
         // Validate only if requested or the kind is ABSTRACT or NONE, since NONE types do not have a "kind" node and
         // will fail validation
-        if (model.validate() && !(kind.equals(Model.Kind.ABSTRACT) || kind.equals(Model.Kind.NONE))) {
-            validate(rootNode, expectedClass);
+        if (model.validate() && !(kind == Model.Kind.ABSTRACT || kind == Model.Kind.NONE)) {
+            validate(rootNode, model);
         }
 
-        JsonSerializer serializer = getSerializer(expectedClass);
-        if (kind.equals(Model.Kind.ABSTRACT)) {
+        JsonSerializer serializer = registration.serializer;
+        if (kind == Model.Kind.ABSTRACT) {
             Model.Kind effectiveKind = Model.Kind.getByValue(rootNode.get("kind").asText());
             JrawUtils.logger().debug("Mapping abstract @Model to {}", effectiveKind.getDefaultClass().getName());
             // Try to serialize the abstract
@@ -138,4 +208,15 @@ public final class ModelManager {
         }
         return (T) serializer.parse(rootNode, expectedClass, kind);
     }
+
+    /** A model class's {@link Model} annotation and the instance of its serializer */
+    private static final class Registration {
+        private final Model model;
+        private final JsonSerializer serializer;
+
+        private Registration(Model model, JsonSerializer serializer) {
+            this.model = model;
+            this.serializer = serializer;
+        }
+    }
 }
@@ -0,0 +1,286 @@
+package net.dean.jraw.paginators;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.models.Comment;
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.Submission;
+import net.dean.jraw.models.Thing;
+import net.dean.jraw.util.JrawUtils;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns a Paginator whose newest items come first, such as a {@link CommentStream} or a {@link SubredditPaginator}
+ * sorted by {@link Sorting#NEW}, into a live feed. The Paginator is polled repeatedly, and every item that has not been
+ * seen before is delivered exactly once, oldest first.
+ *
+ * <p>Each poll stops requesting pages as soon as it finds an item it has already seen, so pages that have already been
+ * processed are not requested again. The time between polls adapts to how quickly new items appear: it shrinks when a
+ * poll finds many new items and grows when it finds none, staying between {@link #getMinInterval()} and
+ * {@link #getMaxInterval()}.
+ *
+ * <p>A Firehose is not thread-safe, but the background thread started by {@link #start(Listener)} is the only thread
+ * that uses it until {@link #close()} is called.
+ *
+ * @param <T> The type of Thing this Firehose delivers
+ */
+public class Firehose<T extends Thing> implements Closeable {
+    /** The default minimum amount of milliseconds between two polls */
+    public static final long DEFAULT_MIN_INTERVAL = TimeUnit.SECONDS.toMillis(2);
+    /** The default maximum amount of milliseconds between two polls */
+    public static final long DEFAULT_MAX_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+    /** The default amount of IDs remembered to detect duplicates */
+    public static final int DEFAULT_SEEN_CAPACITY = 2000;
+    /** The default maximum amount of pages requested in one poll */
+    public static final int DEFAULT_MAX_PAGES = 5;
+
+    /** Called with every new item. */
+    public interface Listener<T> {
+        /** Called with a new item, in the order the items were created */
+        void onNew(T thing);
+    }
+
+    private final Paginator<T> paginator;
+    private final Map<String, Boolean> seen;
+    private volatile long minInterval;
+    private volatile long maxInterval;
+    private volatile long interval;
+    private volatile int maxPages;
+    private boolean polled;
+    private long lastPoll;
+    private ScheduledExecutorService executor;
+
+    /**
+     * Creates a Firehose of the newest comments
+     *
+     * @param reddit The RedditClient that will be used to send HTTP requests
+     * @param subreddit The subreddit to pull comments from, or null for all of reddit
+     */
+    public static Firehose<Comment> comments(RedditClient reddit, String subreddit) {
+        return new Firehose<>(new CommentStream(reddit, subreddit));
+    }
+
+    /**
+     * Creates a Firehose of the newest submissions
+     *
+     * @param reddit The RedditClient that will be used to send HTTP requests
+     * @param subreddit The subreddit to pull submissions from, or null for the front page
+     */
+    public static Firehose<Submission> submissions(RedditClient reddit, String subreddit) {
+        SubredditPaginator paginator = new SubredditPaginator(reddit, subreddit);
+        paginator.setSorting(Sorting.NEW);
+        return new Firehose<>(paginator);
+    }
+
+    /**
+     * Instantiates a new Firehose
+     *
+     * @param paginator A Paginator that returns the newest items first. Will be reset before every poll.
+     */
+    public Firehose(Paginator<T> paginator) {
+        this(paginator, DEFAULT_SEEN_CAPACITY);
+    }
+
+    /**
+     * Instantiates a new Firehose
+     *
+     * @param paginator A Paginator that returns the newest items first. Will be reset before every poll.
+     * @param seenCapacity How many IDs to remember to detect duplicates. Should be at least a few pages worth.
+     */
+    public Firehose(Paginator<T> paginator, final int seenCapacity) {
+        if (seenCapacity < Paginator.RECOMMENDED_MAX_LIMIT)
+            throw new IllegalArgumentException("seenCapacity must be at least " + Paginator.RECOMMENDED_MAX_LIMIT);
+        this.paginator = paginator;
+        this.seen = new LinkedHashMap<String, Boolean>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > seenCapacity;
+            }
+        };
+        this.minInterval = DEFAULT_MIN_INTERVAL;
+        this.maxInterval = DEFAULT_MAX_INTERVAL;
+        this.interval = DEFAULT_MIN_INTERVAL;
+        this.maxPages = DEFAULT_MAX_PAGES;
+        this.polled = false;
+
+        paginator.reset();
+        paginator.setLimit(Paginator.RECOMMENDED_MAX_LIMIT);
+    }
+
+    /**
+     * Requests the newest items once and returns the ones that haven't been seen yet, oldest first. The first poll only
+     * looks at the first page.
+     *
+     * @throws NetworkException If a request was not successful
+     */
+    public List<T> poll() throws NetworkException {
+        boolean first = !polled;
+        long now = System.nanoTime();
+        List<T> fresh = new ArrayList<>();
+        boolean foundSeen = false;
+
+        paginator.reset();
+        while (!foundSeen && paginator.hasNext() && paginator.getPageIndex() < (first ? 1 : maxPages)) {
+            Listing<T> page = paginator.next(true);
+            for (T thing : page) {
+                if (seen.containsKey(thing.getFullName())) {
+                    // Everything after this has already been delivered
+                    foundSeen = true;
+                    break;
+                }
+                fresh.add(thing);
+            }
+        }
+
+        if (!first && !foundSeen && !fresh.isEmpty()) {
+            JrawUtils.logger().warn("Could not find a previously seen item within {} pages, some items may have been " +
+                    "missed. Consider lowering the maximum interval.", maxPages);
+        }
+
+        // Pages are newest first
+        Collections.reverse(fresh);
+        for (T thing : fresh) {
+            seen.put(thing.getFullName(), Boolean.TRUE);
+        }
+
+        if (!first)
+            adjustInterval(fresh.size(), now - lastPoll);
+        lastPoll = now;
+        polled = true;
+        return fresh;
+    }
+
+    /**
+     * Calculates the time until the next poll, aiming for each poll to return about half a page of new items
+     *
+     * @param found How many new items the last poll found
+     * @param elapsed Nanoseconds since the poll before it
+     */
+    private void adjustInterval(int found, long elapsed) {
+        long next;
+        if (found == 0) {
+            next = interval * 3 / 2;
+        } else if (found >= Paginator.RECOMMENDED_MAX_LIMIT * 3 / 4) {
+            // Polling too slowly, items may start to be missed
+            next = interval / 2;
+        } else {
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsed);
+            next = elapsedMillis * (Paginator.RECOMMENDED_MAX_LIMIT / 2) / found;
+        }
+        interval = Math.max(minInterval, Math.min(maxInterval, next));
+    }
+
+    /**
+     * Starts polling on a background thread, passing every new item to the listener
+     *
+     * @param listener Called on the background thread with every new item
+     */
+    public synchronized void start(final Listener<? super T> listener) {
+        if (executor != null)
+            throw new IllegalStateException("Already started");
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("jraw-firehose-%d")
+                .build());
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                long delay;
+                try {
+                    for (T thing : poll()) {
+                        listener.onNew(thing);
+                        // close() was called while the listener was waiting
+                        if (Thread.currentThread().isInterrupted())
+                            return;
+                    }
+                    delay = interval;
+                } catch (RuntimeException e) {
+                    JrawUtils.logger().warn("Unable to poll for new items, backing off", e);
+                    delay = maxInterval;
+                }
+
+                synchronized (Firehose.this) {
+                    if (executor != null && !executor.isShutdown())
+                        executor.schedule(this, delay, TimeUnit.MILLISECONDS);
+                }
+            }
+        });
+    }
+
+    /**
+     * Starts polling on a background thread, adding every new item to the given queue. If the queue is full, polling
+     * waits until there is space or until {@link #close()} is called, in which case the rest of the items are dropped.
+     */
+    public void start(final BlockingQueue<? super T> queue) {
+        start(new Listener<T>() {
+            @Override
+            public void onNew(T thing) {
+                try {
+                    queue.put(thing);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+    }
+
+    /** Stops polling. Items that were already requested might still be delivered. */
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /** Gets the amount of milliseconds that will be waited before the next poll */
+    public long getInterval() {
+        return interval;
+    }
+
+    public long getMinInterval() {
+        return minInterval;
+    }
+
+    public long getMaxInterval() {
+        return maxInterval;
+    }
+
+    /**
+     * Sets the bounds of the time between two polls
+     *
+     * @param min The minimum time between polls
+     * @param max The maximum time between polls
+     * @param unit The unit of {@code min} and {@code max}
+     */
+    public void setIntervalBounds(long min, long max, TimeUnit unit) {
+        if (min < 0 || max < min)
+            throw new IllegalArgumentException("Expecting 0 <= min <= max");
+        this.minInterval = unit.toMillis(min);
+        this.maxInterval = unit.toMillis(max);
+        this.interval = Math.max(minInterval, Math.min(maxInterval, interval));
+    }
+
+    /** Gets the maximum amount of pages that will be requested in one poll */
+    public int getMaxPages() {
+        return maxPages;
+    }
+
+    /** Sets the maximum amount of pages that will be requested in one poll */
+    public void setMaxPages(int maxPages) {
+        if (maxPages < 1)
+            throw new IllegalArgumentException("maxPages must be at least 1");
+        this.maxPages = maxPages;
+    }
+}
@@ -4,6 +4,9 @@ import net.dean.jraw.RedditClient;
 import net.dean.jraw.models.Listing;
 import net.dean.jraw.models.Thing;
 
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
 /**
  * This class is used to paginate through a list of fullnames (can be comments, submissions, or subreddits)
  */
@@ -26,8 +29,8 @@ public class FullnamesPaginator {
     /* API limit is 100*/
     public void setLimit(int i){
         count = i;
-        if(count > 100){
-            count = 100;
+        if(count > RedditClient.MAX_INFO_FULLNAMES){
+            count = RedditClient.MAX_INFO_FULLNAMES;
         }
     }
 
@@ -37,22 +40,12 @@ public class FullnamesPaginator {
 
     /* Override next to utilize RedditClient.get() instead of the default paginator code*/
     public Listing<Thing> next() {
-        if(count > fullnames.length){
-            index = fullnames.length;
-            return reddit.get(fullnames);
-        } else {
-            String[] toGet = new String[count];
-
-            int target = index + count;
-            if (target > fullnames.length - 1) target = fullnames.length - 1;
-            int current = 0;
-            for (int i = index; i < target; i++) {
-                toGet[current] = fullnames[i];
-                current++;
-            }
-            index = target;
-            return reddit.get(toGet);
-        }
+        if (!hasNext())
+            throw new NoSuchElementException("No more fullnames");
+        int target = Math.min(index + count, fullnames.length);
+        String[] toGet = Arrays.copyOfRange(fullnames, index, target);
+        index = target;
+        return reddit.get(toGet);
     }
 
 }
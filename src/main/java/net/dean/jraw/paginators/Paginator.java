@@ -1,5 +1,11 @@
 package net.dean.jraw.paginators;
 
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
 import okhttp3.CacheControl;
 import net.dean.jraw.RedditClient;
 import net.dean.jraw.http.*;
@@ -7,6 +13,7 @@ import net.dean.jraw.models.Listing;
 import net.dean.jraw.models.Thing;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Provides the ability to iterate through data provided by the Reddit API.
@@ -41,6 +48,9 @@ public abstract class Paginator<T extends Thing> implements RedditIterable<T> {
 
     private boolean started;
     private boolean changed;
+    private int prefetch;
+    /** Pages following the current one that have been requested in advance, in order */
+    private final Deque<ListenableFuture<Listing<T>>> prefetched;
 
     /**
      * Instantiates a new Paginator
@@ -58,6 +68,8 @@ public abstract class Paginator<T extends Thing> implements RedditIterable<T> {
         this.started = false;
         this.includeLimit = false;
         this.iterator = new ListingIterator();
+        this.prefetch = 0;
+        this.prefetched = new ArrayDeque<>();
     }
 
     @Override
@@ -76,13 +88,37 @@ public abstract class Paginator<T extends Thing> implements RedditIterable<T> {
             throw new IllegalStateException("Cannot change parameters without calling reset()");
         }
 
+        String after = current != null ? current.getAfter() : null;
+        Listing<T> listing = null;
+        if (!prefetched.isEmpty()) {
+            listing = await(prefetched.remove());
+        }
+        if (listing == null) {
+            // Nothing has been prefetched, or the last page was passed
+            RestResponse response;
+            response = reddit.execute(createRequest(after, forceNetwork));
+            listing = parseListing(response);
+        }
+        this.current = listing;
+        pageNumber++;
+        fillPrefetched(forceNetwork);
+
+        if (!started) {
+            started = true;
+        }
+
+        return listing;
+    }
+
+    /** Creates the request for the page that comes after the given fullname, or the first page if it is null */
+    private HttpRequest createRequest(String after, boolean forceNetwork) {
         String path = getBaseUri();
 
         Map<String, String> args = new HashMap<>();
         if (includeLimit)
             args.put("limit", String.valueOf(limit));
-        if (current != null && current.getAfter() != null)
-            args.put("after", current.getAfter());
+        if (after != null)
+            args.put("after", after);
 
         String sorting = getSortingString();
         boolean sortingUsed = sorting != null;
@@ -106,26 +142,97 @@ public abstract class Paginator<T extends Thing> implements RedditIterable<T> {
             args.putAll(extraArgs);
         }
 
-        HttpRequest request = reddit.request()
+        return reddit.request()
                 .path(path)
                 .query(args)
                 // Force a network response if sorting by new or explicitly declared
                 .cacheControl(forceNetwork || (sortingUsed && sorting.toLowerCase().equals("new")) ?
                         CacheControl.FORCE_NETWORK : null)
                 .build();
+    }
 
+    /** Requests the page after the given fullname without blocking */
+    private ListenableFuture<Listing<T>> fetchAsync(String after, boolean forceNetwork) {
+        return Futures.transform(reddit.executeAsync(createRequest(after, forceNetwork)),
+                new Function<RestResponse, Listing<T>>() {
+                    @Override
+                    public Listing<T> apply(RestResponse response) {
+                        return parseListing(response);
+                    }
+                });
+    }
 
-        RestResponse response;
-        response = reddit.execute(request);
-        Listing<T> listing = parseListing(response);
-        this.current = listing;
-        pageNumber++;
+    /**
+     * Makes sure that the pages following the current one are being requested, up to the amount specified by
+     * {@link #setPrefetch(int)}. Each page can only be requested once the one before it has arrived, so every page is
+     * chained onto the previous one.
+     */
+    private void fillPrefetched(final boolean forceNetwork) {
+        if (prefetch <= 0 || current == null || current.getAfter() == null)
+            return;
+
+        while (prefetched.size() < prefetch) {
+            if (prefetched.isEmpty()) {
+                prefetched.add(fetchAsync(current.getAfter(), forceNetwork));
+                continue;
+            }
 
-        if (!started) {
-            started = true;
+            prefetched.add(Futures.transformAsync(prefetched.getLast(), new AsyncFunction<Listing<T>, Listing<T>>() {
+                @Override
+                public ListenableFuture<Listing<T>> apply(Listing<T> previous) {
+                    if (previous == null || previous.getAfter() == null) {
+                        // There are no more pages
+                        return Futures.immediateFuture(null);
+                    }
+                    return fetchAsync(previous.getAfter(), forceNetwork);
+                }
+            }));
         }
+    }
 
-        return listing;
+    /** Waits for a prefetched page, rethrowing any exception encountered while retrieving it */
+    private Listing<T> await(ListenableFuture<Listing<T>> future) throws NetworkException {
+        try {
+            return Uninterruptibles.getUninterruptibly(future);
+        } catch (ExecutionException e) {
+            // Every page after this one depends on it
+            cancelPrefetched();
+            Throwables.propagateIfPossible(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private void cancelPrefetched() {
+        for (ListenableFuture<Listing<T>> future : prefetched) {
+            future.cancel(false);
+        }
+        prefetched.clear();
+    }
+
+    /**
+     * Gets the maximum amount of pages that will be requested ahead of the current one
+     *
+     * @see #setPrefetch(int)
+     */
+    public int getPrefetch() {
+        return prefetch;
+    }
+
+    /**
+     * Enables prefetching. Once a page has been returned by {@link #next(boolean)}, the pages after it will be
+     * requested in the background so that they are likely to be available by the time they are needed. Since a page
+     * can only be requested using the "after" value of the page before it, the pages are still requested one after
+     * another, but none of them have to wait for the caller to finish processing the previous page.
+     *
+     * @param pages The maximum amount of pages to request ahead of the current one. 0 disables prefetching.
+     */
+    public void setPrefetch(int pages) {
+        if (pages < 0)
+            throw new IllegalArgumentException("pages must not be negative");
+        this.prefetch = pages;
+        while (prefetched.size() > pages) {
+            prefetched.removeLast().cancel(false);
+        }
     }
 
     @Override
@@ -161,6 +268,7 @@ public abstract class Paginator<T extends Thing> implements RedditIterable<T> {
 
     @Override
     public void reset() {
+        cancelPrefetched();
         current = null;
         started = false;
         changed = false;
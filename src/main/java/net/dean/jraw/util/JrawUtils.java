@@ -1,5 +1,6 @@
 package net.dean.jraw.util;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Joiner;
@@ -9,6 +10,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
 import java.net.*;
@@ -183,6 +185,22 @@ public final class JrawUtils {
         }
     }
 
+    /**
+     * Deserializes JSON into a Jackson JsonNode as it is read from the given stream, without buffering the entire
+     * input first. The stream is not closed.
+     *
+     * @return The root node, or null if the stream did not contain any content
+     * @throws IOException If the stream could not be read or did not contain valid JSON
+     */
+    public static JsonNode fromStream(InputStream in) throws IOException {
+        JsonParser parser = mapper.getFactory().createParser(in);
+        if (parser.nextToken() == null) {
+            // Empty input
+            return null;
+        }
+        return mapper.readTree(parser);
+    }
+
     /** Joins the given strings together with {@link #DEFAULT_SEPARATOR} */
     public static String join(Iterable<String> args) {
         return Joiner.on(',').join(args);
@@ -0,0 +1,241 @@
+package net.dean.jraw.test;
+
+import net.dean.jraw.http.RetryPolicy;
+import net.dean.jraw.managers.ActionQueue;
+import net.dean.jraw.models.Submission;
+import net.dean.jraw.models.VoteDirection;
+import net.dean.jraw.util.JrawUtils;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class ActionQueueTest extends MockServerTest {
+    /** The path and decoded body of every request received */
+    private List<String> received;
+    private CountDownLatch gate;
+    private ActionQueue queue;
+
+    @BeforeMethod
+    public void setUpDispatcher() {
+        received = Collections.synchronizedList(new ArrayList<String>());
+        gate = new CountDownLatch(0);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                gate.await();
+                String body;
+                try {
+                    body = URLDecoder.decode(request.getBody().readUtf8(), "UTF-8");
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                received.add(request.getPath() + " " + body);
+                if (request.getPath().contains("unsave"))
+                    return json("{}").setResponseCode(403);
+                if (body.contains("t3_noscope"))
+                    return json("{}").setResponseCode(403).setHeader("WWW-Authenticate", "Bearer realm=\"reddit\"");
+                if (body.contains("t3_limited"))
+                    return json("{}").setResponseCode(429);
+                return json("{}");
+            }
+        });
+    }
+
+    @AfterMethod
+    public void closeQueue() throws IOException {
+        gate.countDown();
+        if (queue != null)
+            queue.close();
+    }
+
+    @Test
+    public void testCollapsesActions() throws Exception {
+        queue = new ActionQueue(reddit);
+        gate = new CountDownLatch(1);
+        // Occupies the background thread while the rest are queued
+        queue.vote("t3_first", VoteDirection.UPVOTE);
+        waitForSending();
+
+        Submission submission = submission("b");
+        queue.vote(submission, VoteDirection.UPVOTE);
+        queue.vote(submission, VoteDirection.NO_VOTE);
+        queue.vote("t3_c", VoteDirection.UPVOTE);
+        queue.vote("t3_c", VoteDirection.DOWNVOTE);
+        gate.countDown();
+
+        assertTrue(queue.awaitEmpty(5, TimeUnit.SECONDS));
+        assertEquals(received.size(), 2, received.toString());
+        assertTrue(received.get(1).contains("dir=-1") && received.get(1).contains("id=t3_c"), received.get(1));
+    }
+
+    @Test
+    public void testUndoAfterSending() throws Exception {
+        queue = new ActionQueue(reddit);
+        Submission submission = submission("b");
+        queue.vote(submission, VoteDirection.UPVOTE);
+        assertTrue(queue.awaitEmpty(5, TimeUnit.SECONDS));
+
+        // The submission still says it has no vote, but reddit now has the upvote, so the undo must be sent
+        queue.vote(submission, VoteDirection.NO_VOTE);
+        assertTrue(queue.awaitEmpty(5, TimeUnit.SECONDS));
+        assertEquals(received.size(), 2, received.toString());
+        assertTrue(received.get(1).contains("dir=0"), received.get(1));
+
+        // Reddit has no vote again, so this is cancelled by the next one before it's sent
+        gate = new CountDownLatch(1);
+        queue.vote("t3_first", VoteDirection.UPVOTE);
+        queue.vote(submission, VoteDirection.DOWNVOTE);
+        queue.vote(submission, VoteDirection.NO_VOTE);
+        gate.countDown();
+        assertTrue(queue.awaitEmpty(5, TimeUnit.SECONDS));
+        assertEquals(received.size(), 3, received.toString());
+    }
+
+    @Test
+    public void testBatchesHides() throws Exception {
+        queue = new ActionQueue(reddit);
+        gate = new CountDownLatch(1);
+        queue.storeVisit("t3_first");
+        waitForSending();
+
+        queue.setHidden("t3_x", true);
+        queue.setHidden("t3_y", true);
+        queue.setHidden("t3_z", false);
+        queue.setHidden("t3_w", true);
+        gate.countDown();
+
+        assertTrue(queue.awaitEmpty(5, TimeUnit.SECONDS));
+        assertEquals(received.size(), 3, received.toString());
+        assertTrue(received.get(1).startsWith("/api/hide") && received.get(1).contains("id=t3_x,t3_y,t3_w"), received.get(1));
+        assertTrue(received.get(2).startsWith("/api/unhide"), received.get(2));
+    }
+
+    @Test
+    public void testFailureIsReported() throws Exception {
+        queue = new ActionQueue(reddit);
+        final List<String> failed = new ArrayList<>();
+        queue.setListener(new ActionQueue.Listener() {
+            @Override
+            public void onFailure(ActionQueue.Type type, String fullname, Exception error) {
+                failed.add(type + " " + fullname);
+            }
+        });
+        queue.setSaved("t3_a", false, null);
+        assertTrue(queue.awaitEmpty(5, TimeUnit.SECONDS));
+        assertEquals(failed, Collections.singletonList("SAVE t3_a"));
+    }
+
+    @Test
+    public void testThrowingListenerDoesNotStopTheQueue() throws Exception {
+        queue = new ActionQueue(reddit);
+        queue.setListener(new ActionQueue.Listener() {
+            @Override
+            public void onFailure(ActionQueue.Type type, String fullname, Exception error) {
+                throw new IllegalStateException("Broken listener");
+            }
+        });
+        queue.setSaved("t3_a", false, null);
+        assertTrue(queue.awaitEmpty(5, TimeUnit.SECONDS));
+
+        // Later actions are still sent
+        queue.vote("t3_b", VoteDirection.UPVOTE);
+        assertTrue(queue.awaitEmpty(5, TimeUnit.SECONDS));
+        assertEquals(received.size(), 2, received.toString());
+        assertTrue(received.get(1).contains("id=t3_b"), received.get(1));
+    }
+
+    @Test
+    public void testMissingScopeIsDropped() throws Exception {
+        queue = new ActionQueue(reddit);
+        final List<String> failed = Collections.synchronizedList(new ArrayList<String>());
+        queue.setListener(new ActionQueue.Listener() {
+            @Override
+            public void onFailure(ActionQueue.Type type, String fullname, Exception error) {
+                failed.add(fullname);
+            }
+        });
+        queue.vote("t3_noscope", VoteDirection.UPVOTE);
+        queue.vote("t3_after", VoteDirection.UPVOTE);
+
+        // The failed vote doesn't hold up the one behind it
+        assertTrue(queue.awaitEmpty(5, TimeUnit.SECONDS));
+        assertEquals(failed, Collections.singletonList("t3_noscope"));
+        assertEquals(received.size(), 2, received.toString());
+    }
+
+    @Test
+    public void testTooManyRequestsIsKept() throws Exception {
+        reddit.setRetryPolicy(RetryPolicy.NONE);
+        queue = new ActionQueue(reddit);
+        final List<String> failed = Collections.synchronizedList(new ArrayList<String>());
+        queue.setListener(new ActionQueue.Listener() {
+            @Override
+            public void onFailure(ActionQueue.Type type, String fullname, Exception error) {
+                failed.add(fullname);
+            }
+        });
+        queue.vote("t3_limited", VoteDirection.UPVOTE);
+
+        // The vote is tried again later instead of being dropped
+        assertFalse(queue.awaitEmpty(500, TimeUnit.MILLISECONDS));
+        assertEquals(received.size(), 1, received.toString());
+        assertEquals(queue.size(), 1);
+        assertTrue(failed.isEmpty(), failed.toString());
+    }
+
+    @Test
+    public void testJournalSurvivesRestart() throws Exception {
+        File journal = File.createTempFile("jraw-actions", null);
+        journal.deleteOnExit();
+
+        gate = new CountDownLatch(1);
+        queue = new ActionQueue(reddit, journal);
+        queue.vote("t3_d", VoteDirection.UPVOTE);
+        queue.setSaved("t3_e", true, "my category");
+        waitForSending();
+        // Simulate a crash while the first request is still waiting for its response
+        queue.close();
+        gate.countDown();
+
+        queue = new ActionQueue(reddit, journal);
+        assertTrue(queue.awaitEmpty(5, TimeUnit.SECONDS));
+        boolean savedE = false;
+        for (String request : received) {
+            savedE |= request.startsWith("/api/save") && request.contains("category=my category");
+        }
+        assertTrue(savedE, received.toString());
+        queue.close();
+
+        // Nothing is left to send
+        queue = new ActionQueue(reddit, journal);
+        assertEquals(queue.size(), 0);
+    }
+
+    /** Waits until the background thread has sent the first request */
+    private void waitForSending() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (server.getRequestCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(server.getRequestCount(), 1);
+    }
+
+    private static Submission submission(String id) {
+        return new Submission(JrawUtils.fromString("{\"id\":\"" + id + "\",\"name\":\"t3_" + id +
+                "\",\"likes\":null,\"saved\":false,\"hidden\":false}"));
+    }
+}
@@ -0,0 +1,108 @@
+package net.dean.jraw.test;
+
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.http.HttpRequest;
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.http.RestResponse;
+import net.dean.jraw.http.UserAgent;
+import net.dean.jraw.util.Version;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static org.testng.Assert.*;
+
+/** Tests {@link RedditClient#executeAsync(HttpRequest)} against a local server */
+public class AsyncExecutionTest {
+    private MockWebServer server;
+    private RedditClient reddit;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        reddit = new RedditClient(UserAgent.of("desktop", "net.dean.jraw.test", "v" + Version.get().formatted(), "thatJavaNerd"));
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void testExecuteAsync() throws Exception {
+        server.enqueue(json("{\"foo\":\"bar\"}"));
+        RestResponse response = reddit.executeAsync(request("/foo")).get();
+        assertEquals(response.getJson().get("foo").asText(), "bar");
+        assertEquals(server.takeRequest().getPath(), "/foo");
+    }
+
+    @Test
+    public void testManyInFlight() throws Exception {
+        int count = 5;
+        for (int i = 0; i < count; i++) {
+            server.enqueue(json("{}"));
+        }
+
+        List<Future<RestResponse>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            futures.add(reddit.executeAsync(request("/foo")));
+        }
+        for (Future<RestResponse> future : futures) {
+            assertTrue(future.get().isSuccessful());
+        }
+        assertEquals(server.getRequestCount(), count);
+    }
+
+    @Test
+    public void testRetryServerError() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503).setHeader("Content-Type", "application/json").setBody("{}"));
+        server.enqueue(json("{}"));
+        assertTrue(reddit.executeAsync(request("/foo")).get().isSuccessful());
+        assertEquals(server.getRequestCount(), 2);
+    }
+
+    @Test
+    public void testClientError() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(404).setHeader("Content-Type", "application/json").setBody("{}"));
+        try {
+            reddit.executeAsync(request("/foo")).get();
+            fail("Expected an ExecutionException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof NetworkException);
+            assertEquals(((NetworkException) e.getCause()).getResponse().getStatusCode(), 404);
+        }
+    }
+
+    @Test
+    public void testAdjustRatelimit() throws Exception {
+        server.enqueue(json("{}")
+                .setHeader("X-Ratelimit-Remaining", "300")
+                .setHeader("X-Ratelimit-Reset", "60"));
+        reddit.executeAsync(request("/foo")).get();
+        assertEquals(reddit.getCurrentRatelimit(), 300.0, 0.01);
+    }
+
+    private HttpRequest request(String path) {
+        return reddit.request()
+                .https(false)
+                .host(server.getHostName())
+                .port(server.getPort())
+                .path(path)
+                .build();
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json; charset=UTF-8")
+                .setBody(body);
+    }
+}
@@ -0,0 +1,139 @@
+package net.dean.jraw.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import net.dean.jraw.Endpoints;
+import net.dean.jraw.http.HttpLogger;
+import net.dean.jraw.http.HttpRequest;
+import net.dean.jraw.http.LoggingMode;
+import net.dean.jraw.http.RestResponse;
+import net.dean.jraw.util.JrawUtils;
+import org.slf4j.Logger;
+import org.slf4j.helpers.MessageFormatter;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class AsyncHttpLoggerTest extends MockServerTest {
+    /** Every message logged, prefixed with its level */
+    private List<String> lines;
+    private HttpLogger logger;
+
+    @BeforeMethod
+    public void setUpLogger() {
+        lines = Collections.synchronizedList(new ArrayList<String>());
+        logger = new HttpLogger(recordingLogger(lines));
+    }
+
+    @Test
+    public void testJsonLines() throws Exception {
+        logger.setJsonLines(true);
+        HttpRequest request = reddit.request()
+                .endpoint(Endpoints.INFO)
+                .header("Authorization", "bearer secret")
+                .build();
+        logger.logAsync(request, respond(request), TimeUnit.MILLISECONDS.toNanos(3));
+        assertTrue(logger.flush(5, TimeUnit.SECONDS));
+
+        assertEquals(lines.size(), 1, lines.toString());
+        assertTrue(lines.get(0).startsWith("INFO "));
+        JsonNode line = JrawUtils.fromString(lines.get(0).substring("INFO ".length()));
+        assertEquals(line.get("method").asText(), "GET");
+        assertEquals(line.get("endpoint").asText(), "INFO");
+        assertEquals(line.get("status").asInt(), 200);
+        assertEquals(line.get("duration_ms").asDouble(), 3.0, 0.001);
+        assertFalse(line.get("request_headers").toString().contains("secret"));
+    }
+
+    @Test
+    public void testSamplingKeepsFailures() throws Exception {
+        logger.setJsonLines(true);
+        logger.setSampleRate(3);
+        HttpRequest request = reddit.request().path("/sampled").build();
+        for (int i = 0; i < 6; i++) {
+            logger.logAsync(request, respond(request), 0);
+        }
+        logger.logAsync(request, new IOException("connection reset"), 0);
+        assertTrue(logger.flush(5, TimeUnit.SECONDS));
+
+        int info = 0, error = 0;
+        for (String line : lines) {
+            if (line.startsWith("INFO ")) info++;
+            if (line.startsWith("ERROR ")) error++;
+        }
+        assertEquals(info, 2, lines.toString());
+        assertEquals(error, 1, lines.toString());
+        assertTrue(lines.get(2).contains("connection reset"));
+    }
+
+    @Test
+    public void testTextFormat() throws Exception {
+        HttpRequest request = reddit.request().path("/text").build();
+        logger.logAsync(request, respond(request), 0);
+        assertTrue(logger.flush(5, TimeUnit.SECONDS));
+        assertTrue(lines.get(0).startsWith("INFO GET "), lines.toString());
+        assertTrue(lines.size() > 2);
+    }
+
+    @Test
+    public void testAsyncLoggingMode() throws Exception {
+        logger.setJsonLines(true);
+        reddit.setHttpLogger(logger);
+        reddit.setLoggingMode(LoggingMode.ASYNC);
+        server.enqueue(json("{}"));
+        server.enqueue(json("{}").setResponseCode(404));
+        reddit.execute(reddit.request().path("/first").build());
+        try {
+            reddit.execute(reddit.request().path("/second").build());
+            fail("Expected the 404 to fail");
+        } catch (RuntimeException expected) {
+            // Expected
+        }
+        assertTrue(logger.flush(5, TimeUnit.SECONDS));
+        assertEquals(logger.getDroppedCount(), 0);
+
+        // Both exchanges were handed to the logger by the client, including the unsuccessful one
+        assertEquals(lines.size(), 2, lines.toString());
+        JsonNode first = JrawUtils.fromString(lines.get(0).substring(lines.get(0).indexOf(' ') + 1));
+        JsonNode second = JrawUtils.fromString(lines.get(1).substring(lines.get(1).indexOf(' ') + 1));
+        assertTrue(first.get("url").asText().endsWith("/first"), first.toString());
+        assertEquals(first.get("status").asInt(), 200);
+        assertTrue(second.get("url").asText().endsWith("/second"), second.toString());
+        assertEquals(second.get("status").asInt(), 404);
+    }
+
+    private RestResponse respond(HttpRequest request) {
+        server.enqueue(json("{}"));
+        return reddit.execute(request);
+    }
+
+    /** Creates an SLF4J Logger that records every formatted info and error message */
+    private static Logger recordingLogger(final List<String> lines) {
+        return (Logger) Proxy.newProxyInstance(Logger.class.getClassLoader(), new Class<?>[] {Logger.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        String name = method.getName();
+                        if (name.startsWith("is"))
+                            return true;
+                        if ((name.equals("info") || name.equals("error")) && args[0] instanceof String) {
+                            Object[] params = args.length == 2 && args[1] instanceof Object[] ?
+                                    (Object[]) args[1] : Arrays.copyOfRange(args, 1, args.length);
+                            lines.add(name.toUpperCase() + " " +
+                                    MessageFormatter.arrayFormat((String) args[0], params).getMessage());
+                        }
+                        return name.equals("getName") ? "test" : null;
+                    }
+                });
+    }
+}
@@ -3,12 +3,22 @@ package net.dean.jraw.test;
 import net.dean.jraw.RedditClient;
 import net.dean.jraw.auth.*;
 import net.dean.jraw.http.UserAgent;
+import net.dean.jraw.http.oauth.Credentials;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
-import static org.testng.Assert.assertEquals;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
-public class AuthenticationManagerTest {
+import static org.testng.Assert.*;
+
+public class AuthenticationManagerTest extends MockServerTest {
+    private static final Credentials CREDENTIALS = Credentials.installedApp("clientId", "http://localhost/redirect");
     private TokenStore tokenStore;
 
     @BeforeMethod
@@ -18,6 +28,11 @@ public class AuthenticationManagerTest {
         AuthenticationManager.get().init(reddit, new RefreshTokenHandler(tokenStore, reddit));
     }
 
+    @AfterMethod
+    public void stopAutoRefresh() {
+        AuthenticationManager.get().stopAutoRefresh();
+    }
+
     @Test
     public void testCheckAuthState() {
         assertEquals(AuthenticationManager.get().checkAuthState(), AuthenticationState.NONE);
@@ -29,4 +44,74 @@ public class AuthenticationManagerTest {
         // Not authenticated but has a refresh token
         assertEquals(AuthenticationManager.get().checkAuthState(), AuthenticationState.NEED_REFRESH);
     }
+
+    @Test
+    public void testConcurrentRefreshesAreShared() throws Exception {
+        RedditClient client = useRedirectingClient();
+        server.enqueue(json(token("second")).setBodyDelay(200, TimeUnit.MILLISECONDS));
+        refreshConcurrently(2);
+
+        assertEquals(server.getRequestCount(), 1);
+        assertEquals(server.takeRequest().getPath(), "/api/v1/access_token");
+        assertEquals(client.getOAuthData().getAccessToken(), "second");
+    }
+
+    @Test
+    public void testRefreshesAreLeftToTheTokenRefresher() throws Exception {
+        RedditClient client = useRedirectingClient();
+        server.enqueue(json(token("first")));
+        AuthenticationManager.get().refreshAccessToken(CREDENTIALS);
+        AuthenticationManager.get().startAutoRefresh(CREDENTIALS);
+        server.takeRequest();
+
+        server.enqueue(json(token("second")).setBodyDelay(200, TimeUnit.MILLISECONDS));
+        refreshConcurrently(2);
+
+        RecordedRequest request = server.takeRequest();
+        assertEquals(request.getPath(), "/api/v1/access_token");
+        assertTrue(request.getBody().readUtf8().contains("grant_type=refresh_token"));
+        assertEquals(server.getRequestCount(), 2);
+        assertEquals(client.getOAuthData().getAccessToken(), "second");
+    }
+
+    /** Initializes the manager with a client whose access token has to be refreshed using a stored refresh token */
+    private RedditClient useRedirectingClient() {
+        RedditClient client = redirectingClient();
+        AuthenticationManager.get().init(client, new RefreshTokenHandler(tokenStore, client));
+        tokenStore.writeToken("refresh_token_username1", "token1");
+        tokenStore.writeToken("last_user", "username1");
+        assertEquals(AuthenticationManager.get().checkAuthState(), AuthenticationState.NEED_REFRESH);
+        return client;
+    }
+
+    /** Calls refreshAccessToken() from several threads at once and waits for all of them */
+    private static void refreshConcurrently(int threads) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Exception> errors = Collections.synchronizedList(new ArrayList<Exception>());
+        List<Thread> started = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        AuthenticationManager.get().refreshAccessToken(CREDENTIALS);
+                    } catch (Exception e) {
+                        errors.add(e);
+                    }
+                }
+            };
+            thread.start();
+            started.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : started) {
+            thread.join(5000);
+        }
+        assertTrue(errors.isEmpty(), errors.toString());
+    }
+
+    private static String token(String accessToken) {
+        return "{\"access_token\":\"" + accessToken + "\",\"token_type\":\"bearer\",\"expires_in\":3600,\"scope\":\"*\"}";
+    }
 }
@@ -0,0 +1,151 @@
+package net.dean.jraw.test;
+
+import net.dean.jraw.ApiException;
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.managers.ModerationAction;
+import net.dean.jraw.managers.ModerationManager;
+import net.dean.jraw.managers.ModerationResult;
+import net.dean.jraw.models.DistinguishedStatus;
+import net.dean.jraw.models.Submission;
+import net.dean.jraw.util.JrawUtils;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+public class BulkModerationTest extends MockServerTest {
+    private ModerationManager moderation;
+    private AtomicInteger inFlight;
+    private AtomicInteger maxInFlight;
+    private List<String> flairCsvBodies;
+
+    @BeforeMethod
+    public void setUpDispatcher() {
+        moderation = new ModerationManager(reddit);
+        inFlight = new AtomicInteger();
+        maxInFlight = new AtomicInteger();
+        flairCsvBodies = Collections.synchronizedList(new ArrayList<String>());
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                int current = inFlight.incrementAndGet();
+                synchronized (maxInFlight) {
+                    maxInFlight.set(Math.max(maxInFlight.get(), current));
+                }
+                try {
+                    Thread.sleep(5);
+                    return respond(request);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+        });
+    }
+
+    private MockResponse respond(RecordedRequest request) {
+        String body = request.getBody().readUtf8();
+        if (request.getPath().endsWith("/api/flaircsv")) {
+            flairCsvBodies.add(body);
+            // One result for every line, the user "nobody" doesn't exist
+            StringBuilder results = new StringBuilder("[");
+            String csv = flairCsv(body);
+            String[] lines = csv.split("\n");
+            for (int i = 0; i < lines.length; i++) {
+                if (i != 0) results.append(',');
+                boolean ok = !lines[i].startsWith("\"nobody\"");
+                results.append("{\"ok\":").append(ok).append(",\"errors\":")
+                        .append(ok ? "{}" : "{\"user\":\"unable to resolve user\"}").append('}');
+            }
+            return json(results.append(']').toString());
+        }
+        if (body.contains("t3_broken"))
+            return json("{}").setResponseCode(404);
+        if (body.contains("t3_error"))
+            return json("{\"json\":{\"errors\":[[\"NO_THING_ID\",\"that thing doesn't exist\",\"id\"]]}}");
+        return json("{\"json\":{\"errors\":[]}}");
+    }
+
+    @Test
+    public void testResultsPerAction() {
+        List<ModerationAction> actions = new ArrayList<>();
+        actions.add(ModerationAction.approve(submission("a")));
+        actions.add(ModerationAction.remove(submission("broken"), false));
+        actions.add(ModerationAction.distinguish(submission("b"), DistinguishedStatus.MODERATOR));
+        actions.add(ModerationAction.setLocked(submission("error"), true));
+
+        List<ModerationResult> results = moderation.bulk(actions);
+        assertEquals(results.size(), 4);
+        assertTrue(results.get(0).isSuccessful());
+        assertTrue(results.get(1).getError() instanceof NetworkException);
+        assertTrue(results.get(2).isSuccessful());
+        assertTrue(results.get(3).getError() instanceof ApiException);
+        for (int i = 0; i < actions.size(); i++) {
+            assertSame(results.get(i).getAction(), actions.get(i));
+        }
+    }
+
+    @Test
+    public void testBoundedConcurrency() {
+        List<ModerationAction> actions = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            actions.add(ModerationAction.approve(submission("id" + i)));
+        }
+
+        List<ModerationResult> results = moderation.bulk(actions, 3);
+        for (ModerationResult result : results) {
+            assertTrue(result.isSuccessful(), result.toString());
+        }
+        assertEquals(server.getRequestCount(), 40);
+        assertTrue(maxInFlight.get() <= 3, "At most 3 requests should be in flight, was " + maxInFlight.get());
+    }
+
+    @Test
+    public void testFlairUsesCsv() throws Exception {
+        List<ModerationAction> actions = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            actions.add(ModerationAction.setUserFlair("pics", "user" + i, "text, with \"quotes\"", "css"));
+        }
+        actions.add(ModerationAction.setUserFlair("pics", "nobody", null, null));
+
+        List<ModerationResult> results = moderation.bulk(actions);
+        // 151 lines take two requests
+        assertEquals(server.getRequestCount(), 2);
+        for (int i = 0; i < 150; i++) {
+            assertTrue(results.get(i).isSuccessful(), results.get(i).toString());
+        }
+        assertTrue(results.get(150).getError() instanceof ApiException);
+
+        boolean found = false;
+        for (String body : flairCsvBodies) {
+            found |= flairCsv(body).startsWith("\"user0\",\"text, with \"\"quotes\"\"\",\"css\"\n");
+        }
+        assertTrue(found, "The flair CSV was not escaped properly");
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(moderation.bulk(Collections.<ModerationAction>emptyList()).isEmpty());
+    }
+
+    private static String flairCsv(String body) {
+        try {
+            return URLDecoder.decode(JrawUtils.parseUrlEncoded(body).get("flair_csv"), "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Submission submission(String id) {
+        return new Submission(JrawUtils.fromString("{\"id\":\"" + id + "\",\"name\":\"t3_" + id + "\",\"saved\":false}"));
+    }
+}
@@ -0,0 +1,123 @@
+package net.dean.jraw.test;
+
+import net.dean.jraw.Endpoints;
+import net.dean.jraw.http.CircuitBreaker;
+import net.dean.jraw.http.CircuitBreaker.State;
+import net.dean.jraw.http.CircuitOpenException;
+import net.dean.jraw.http.HttpRequest;
+import net.dean.jraw.http.MetricsRecorder;
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.http.RetryPolicy;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class CircuitBreakerTest extends MockServerTest {
+    private CircuitBreaker breaker;
+    private MetricsRecorder metrics;
+
+    @BeforeMethod
+    public void setUpBreaker() {
+        breaker = new CircuitBreaker(3, 200, TimeUnit.MILLISECONDS);
+        metrics = new MetricsRecorder();
+        reddit.setCircuitBreaker(breaker);
+        reddit.setRequestListener(metrics);
+        reddit.setRetryPolicy(RetryPolicy.NONE);
+    }
+
+    @Test
+    public void testTripsAndFailsFast() {
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(json("{}").setResponseCode(503));
+            expectNetworkException(Endpoints.INFO);
+        }
+        assertEquals(breaker.getState(Endpoints.INFO), State.OPEN);
+        assertEquals(breaker.getTripCount(), 1);
+        assertEquals(breaker.getTripCounts().get(Endpoints.INFO.name()), Long.valueOf(1));
+
+        try {
+            reddit.execute(request(Endpoints.INFO));
+            fail("Expected a CircuitOpenException");
+        } catch (CircuitOpenException e) {
+            assertEquals(e.getCircuit(), Endpoints.INFO.name());
+        }
+        assertEquals(server.getRequestCount(), 3);
+        assertEquals(breaker.getRejectedCount(), 1);
+        assertEquals(metrics.getCircuitOpenedCount(), 1);
+        assertEquals(metrics.getCircuitRejectedCount(), 1);
+
+        // Other endpoints are unaffected
+        server.enqueue(json("{}"));
+        reddit.execute(request(Endpoints.OAUTH_ME));
+        assertEquals(breaker.getState(Endpoints.OAUTH_ME), State.CLOSED);
+    }
+
+    @Test
+    public void testHalfOpenRecovers() throws Exception {
+        trip();
+        Thread.sleep(250);
+        assertEquals(breaker.getState(Endpoints.INFO), State.HALF_OPEN);
+
+        server.enqueue(json("{}"));
+        reddit.execute(request(Endpoints.INFO));
+        assertEquals(breaker.getState(Endpoints.INFO), State.CLOSED);
+    }
+
+    @Test
+    public void testHalfOpenFailureReopens() throws Exception {
+        trip();
+        Thread.sleep(250);
+
+        // A single failed trial is enough to open the circuit again
+        server.enqueue(json("{}").setResponseCode(500));
+        expectNetworkException(Endpoints.INFO);
+        assertEquals(breaker.getState(Endpoints.INFO), State.OPEN);
+        assertEquals(breaker.getTripCount(), 2);
+    }
+
+    @Test
+    public void testClientErrorsDontTrip() {
+        for (int i = 0; i < 5; i++) {
+            server.enqueue(json("{}").setResponseCode(404));
+            expectNetworkException(Endpoints.INFO);
+        }
+        assertEquals(breaker.getState(Endpoints.INFO), State.CLOSED);
+    }
+
+    @Test
+    public void testAsyncRejection() throws Exception {
+        trip();
+        try {
+            reddit.executeAsync(request(Endpoints.INFO)).get(5, TimeUnit.SECONDS);
+            fail("Expected a CircuitOpenException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CircuitOpenException);
+        }
+        assertEquals(server.getRequestCount(), 3);
+    }
+
+    private void trip() {
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(json("{}").setResponseCode(503));
+            expectNetworkException(Endpoints.INFO);
+        }
+        assertEquals(breaker.getState(Endpoints.INFO), State.OPEN);
+    }
+
+    private void expectNetworkException(Endpoints endpoint) {
+        try {
+            reddit.execute(request(endpoint));
+            fail("Expected a NetworkException");
+        } catch (NetworkException expected) {
+            // Expected
+        }
+    }
+
+    private HttpRequest request(Endpoints endpoint) {
+        return reddit.request().endpoint(endpoint).build();
+    }
+}
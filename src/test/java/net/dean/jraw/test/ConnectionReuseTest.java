@@ -0,0 +1,168 @@
+package net.dean.jraw.test;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import net.dean.jraw.http.HttpRequest;
+import net.dean.jraw.http.OkHttpAdapter;
+import net.dean.jraw.http.RestResponse;
+import net.dean.jraw.util.JrawUtils;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.internal.HeldCertificate;
+import okhttp3.internal.SslContextBuilder;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+/**
+ * Sends bursts of concurrent requests from two adapters that share a ConnectionPool to a local TLS server, and checks
+ * that connections are reused instead of opening a new one for every request. Uses HTTP/2 when the platform supports
+ * ALPN and HTTP/1.1 otherwise.
+ */
+public class ConnectionReuseTest {
+    private static final int REQUESTS = 60;
+    private static final int MAX_PER_HOST = 8;
+
+    private MockWebServer server;
+    private AtomicInteger connections;
+    private ConnectionPool pool;
+    private OkHttpAdapter first;
+    private OkHttpAdapter second;
+
+    @BeforeMethod
+    public void startServer() throws IOException, GeneralSecurityException {
+        HeldCertificate root = new HeldCertificate.Builder()
+                .serialNumber("1")
+                .ca(1)
+                .build();
+        HeldCertificate localhost = new HeldCertificate.Builder()
+                .serialNumber("2")
+                .commonName(InetAddress.getByName("localhost").getCanonicalHostName())
+                .issuedBy(root)
+                .build();
+        SSLContext serverSsl = new SslContextBuilder()
+                .certificateChain(localhost, root)
+                .build();
+        SSLContext clientSsl = new SslContextBuilder()
+                .addTrustedCertificate(root.certificate)
+                .build();
+
+        connections = new AtomicInteger();
+        server = new MockWebServer();
+        server.useHttps(serverSsl.getSocketFactory(), false);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                // The first request on a connection means a new connection was opened
+                if (request.getSequenceNumber() == 0)
+                    connections.incrementAndGet();
+                // Simulate some server-side latency so that requests overlap
+                Thread.sleep(10);
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json; charset=UTF-8")
+                        .setBody("{}");
+            }
+        });
+        server.start();
+
+        OkHttpClient http = new OkHttpClient.Builder()
+                .sslSocketFactory(clientSsl.getSocketFactory())
+                .hostnameVerifier(new HostnameVerifier() {
+                    @Override
+                    public boolean verify(String hostname, SSLSession session) {
+                        return true;
+                    }
+                })
+                .build();
+        // Large enough to keep every connection a burst can open
+        pool = new ConnectionPool(MAX_PER_HOST, 1, TimeUnit.MINUTES);
+        first = newAdapter(http);
+        second = newAdapter(http);
+    }
+
+    @AfterMethod
+    public void stopServer() throws IOException {
+        pool.evictAll();
+        server.shutdown();
+    }
+
+    @Test
+    public void testConnectionsAreReused() throws Exception {
+        long start = System.nanoTime();
+        String protocol = burst();
+        long firstBurst = System.nanoTime() - start;
+        int opened = connections.get();
+
+        // Both adapters were created from the same OkHttpClient, so they share its Dispatcher and never have more than
+        // MAX_PER_HOST requests in progress between them. Multiplexed HTTP/2 needs a single connection, HTTP/1.1 needs
+        // one per concurrent request.
+        assertTrue(opened <= MAX_PER_HOST, "Opened " + opened + " connections for " + REQUESTS + " requests");
+        assertTrue(opened < REQUESTS);
+
+        start = System.nanoTime();
+        burst();
+        long secondBurst = System.nanoTime() - start;
+        // Every connection from the first burst is still in the pool. The second burst may have more requests in
+        // progress at once than the first one did, but only those above the amount of pooled connections need a new one.
+        int reopened = connections.get() - opened;
+        assertTrue(reopened <= MAX_PER_HOST - opened, "The second burst opened " + reopened + " new connections even " +
+                "though " + opened + " were pooled");
+
+        JrawUtils.logger().info("{} requests over {}: first burst (with handshakes) took {} ms, second took {} ms, using {} connections",
+                REQUESTS, protocol, TimeUnit.NANOSECONDS.toMillis(firstBurst),
+                TimeUnit.NANOSECONDS.toMillis(secondBurst), opened);
+    }
+
+    @Test
+    public void testDispatcherLimits() {
+        assertEquals(first.getMaxRequestsPerHost(), MAX_PER_HOST);
+        first.setMaxRequests(10);
+        assertEquals(first.getMaxRequests(), 10);
+        assertSame(first.getConnectionPool(), second.getConnectionPool());
+        assertSame(new OkHttpAdapter().getConnectionPool(), OkHttpAdapter.getSharedConnectionPool());
+    }
+
+    private OkHttpAdapter newAdapter(OkHttpClient http) {
+        OkHttpAdapter adapter = new OkHttpAdapter(http, Protocol.HTTP_2);
+        adapter.setConnectionPool(pool);
+        adapter.setMaxRequestsPerHost(MAX_PER_HOST);
+        return adapter;
+    }
+
+    /** Sends {@link #REQUESTS} requests split between both adapters, and returns the protocol they were sent over */
+    private String burst() throws Exception {
+        List<ListenableFuture<RestResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            HttpRequest request = new HttpRequest.Builder()
+                    .https(true)
+                    .host(server.getHostName())
+                    .port(server.getPort())
+                    .path("/request/" + i)
+                    .build();
+            futures.add((i % 2 == 0 ? first : second).executeAsync(request));
+        }
+        List<RestResponse> responses = Futures.allAsList(futures).get(30, TimeUnit.SECONDS);
+        for (RestResponse response : responses) {
+            assertEquals(response.getStatusCode(), 200);
+        }
+        return responses.get(0).getProtocol();
+    }
+}
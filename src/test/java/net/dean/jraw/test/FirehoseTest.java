@@ -0,0 +1,111 @@
+package net.dean.jraw.test;
+
+import net.dean.jraw.models.Submission;
+import net.dean.jraw.paginators.Firehose;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class FirehoseTest extends MockServerTest {
+    private Firehose<Submission> firehose;
+
+    @BeforeMethod
+    public void setUpFirehose() {
+        firehose = Firehose.submissions(reddit, "pics");
+    }
+
+    @Test
+    public void testDeliversOldestFirst() throws Exception {
+        server.enqueue(json(listing("t3_a", "c", "b", "a")));
+        assertEquals(ids(firehose.poll()), Arrays.asList("a", "b", "c"));
+        String path = server.takeRequest().getPath();
+        assertTrue(path.startsWith("/r/pics/new?"), path);
+        assertTrue(path.contains("limit=100"), path);
+    }
+
+    @Test
+    public void testSkipsSeen() throws Exception {
+        server.enqueue(json(listing("t3_a", "c", "b", "a")));
+        firehose.poll();
+
+        // The second page contains an item that has already been seen, so there's no need for a third
+        server.enqueue(json(listing("t3_f", "g", "f")));
+        server.enqueue(json(listing("t3_b", "e", "d", "c", "b")));
+        server.enqueue(json(listing(null, "a")));
+        assertEquals(ids(firehose.poll()), Arrays.asList("d", "e", "f", "g"));
+        assertEquals(server.getRequestCount(), 3);
+    }
+
+    @Test
+    public void testAdaptiveInterval() {
+        firehose.setIntervalBounds(1, 60, TimeUnit.SECONDS);
+        server.enqueue(json(listing(null, "a")));
+        firehose.poll();
+        long interval = firehose.getInterval();
+
+        // Nothing new, poll less often
+        server.enqueue(json(listing(null, "a")));
+        assertTrue(firehose.poll().isEmpty());
+        assertTrue(firehose.getInterval() > interval);
+    }
+
+    @Test
+    public void testQueue() throws Exception {
+        server.enqueue(json(listing(null, "b", "a")));
+        BlockingQueue<Submission> queue = new LinkedBlockingQueue<>();
+        firehose.start(queue);
+        try {
+            assertEquals(queue.poll(5, TimeUnit.SECONDS).getId(), "a");
+            assertEquals(queue.poll(5, TimeUnit.SECONDS).getId(), "b");
+        } finally {
+            firehose.close();
+        }
+    }
+
+    @Test
+    public void testCloseStopsWaitingForFullQueue() throws Exception {
+        server.enqueue(json(listing(null, "b", "a")));
+        BlockingQueue<Submission> queue = new ArrayBlockingQueue<>(1);
+        firehose.start(queue);
+
+        // "a" fills the queue, and the poller waits for space for "b"
+        Thread poller = null;
+        long deadline = System.currentTimeMillis() + 5000;
+        while (poller == null || poller.getState() != Thread.State.WAITING) {
+            assertTrue(System.currentTimeMillis() < deadline, "The poller never blocked");
+            Thread.sleep(10);
+            poller = findPoller();
+        }
+        assertEquals(queue.size(), 1);
+
+        firehose.close();
+        poller.join(5000);
+        assertFalse(poller.isAlive(), "The poller is still waiting for space in the queue");
+        assertEquals(queue.peek().getId(), "a");
+    }
+
+    private static Thread findPoller() {
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.getName().startsWith("jraw-firehose-") && t.isAlive())
+                return t;
+        }
+        return null;
+    }
+
+    private static List<String> ids(List<Submission> submissions) {
+        List<String> ids = new ArrayList<>();
+        for (Submission s : submissions) {
+            ids.add(s.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,88 @@
+package net.dean.jraw.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.dean.jraw.models.Comment;
+import net.dean.jraw.models.JsonModel;
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.meta.JsonProperty;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+import static org.testng.Assert.*;
+
+/** Tests the parts of {@link JsonModel} that don't need a connection to reddit */
+public class JsonModelTest {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testEquals() throws IOException {
+        Comment a = new Comment(objectMapper.readTree("{\"id\": \"abc\", \"body\": \"text\"}"));
+        Comment b = new Comment(objectMapper.readTree("{\"id\": \"abc\", \"body\": \"text\"}"));
+        Comment c = new Comment(objectMapper.readTree("{\"id\": \"def\", \"body\": \"text\"}"));
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, c);
+    }
+
+    @Test
+    public void testListingEquals() throws IOException {
+        JsonNode data = objectMapper.readTree("{\"children\": [{\"kind\": \"t1\", \"data\": {\"id\": \"abc\"}}], " +
+                "\"after\": \"t1_abc\", \"before\": null}");
+        Listing<Comment> a = new Listing<>(data, Comment.class);
+        Listing<Comment> b = new Listing<>(data, Comment.class);
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, new Listing<>(a.getChildren(), Comment.class));
+    }
+
+    @Test
+    public void testToString() {
+        MockJsonModel model = new MockJsonModel();
+        String expected = "MockJsonModel {getBar()=\"0.0\", getFoo()=\"foo\\nbar\", getSomeModel()=[MockJsonModel], " +
+                "throwsException()=[threw java.lang.UnsupportedOperationException: exception message]}";
+        assertEquals(model.toString(), expected);
+        // The methods are only looked up once
+        assertEquals(model.toString(), expected);
+    }
+
+    @Test
+    public void testToCompactString() throws IOException {
+        JsonNode json = objectMapper.readTree(new MockJsonModel().toCompactString());
+        assertEquals(json.get("@type").asText(), "MockJsonModel");
+        assertTrue(json.get("getBar").isNumber());
+        assertEquals(json.get("getFoo").asText(), "foo\\nbar");
+        assertEquals(json.get("getSomeModel").asText(), "[MockJsonModel]");
+        assertEquals(json.get("throwsException").asText(),
+                "[threw java.lang.UnsupportedOperationException: exception message]");
+    }
+
+    public static class MockJsonModel extends JsonModel {
+        public MockJsonModel() {
+            super(null);
+        }
+
+        @JsonProperty
+        public String getFoo() {
+            return "foo\nbar";
+        }
+
+        @JsonProperty
+        public Float getBar() {
+            return 0f;
+        }
+
+        @JsonProperty
+        public String throwsException() {
+            throw new UnsupportedOperationException("exception message");
+        }
+
+        @JsonProperty
+        public JsonModel getSomeModel() {
+            return new MockJsonModel();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package net.dean.jraw.test;
+
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.http.HttpRequest;
+import net.dean.jraw.http.OkHttpAdapter;
+import net.dean.jraw.http.RetryPolicy;
+import net.dean.jraw.http.SharedRatelimiter;
+import net.dean.jraw.http.UserAgent;
+import net.dean.jraw.util.Version;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class for tests that run against a local server instead of reddit. Every request created by {@link #reddit} is
+ * sent to {@link #server}.
+ */
+public abstract class MockServerTest {
+    private static final UserAgent USER_AGENT =
+            UserAgent.of("desktop", "net.dean.jraw.test", "v" + Version.get().formatted(), "thatJavaNerd");
+    protected MockWebServer server;
+    protected RedditClient reddit;
+
+    @BeforeMethod
+    public void startServer() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        reddit = new RedditClient(USER_AGENT) {
+            @Override
+            public HttpRequest.Builder request() {
+                return super.request()
+                        .https(false)
+                        .host(server.getHostName())
+                        .port(server.getPort());
+            }
+        };
+        // Don't let the ratelimit slow the tests down
+        reddit.setRatelimiter(new SharedRatelimiter(1000, 1, TimeUnit.SECONDS));
+        // Nor the delay between retries
+        reddit.setRetryPolicy(new RetryPolicy.Builder()
+                .baseDelay(1, TimeUnit.MILLISECONDS)
+                .maxDelay(10, TimeUnit.MILLISECONDS)
+                .build());
+    }
+
+    @AfterMethod
+    public void stopServer() throws IOException {
+        server.shutdown();
+    }
+
+    /**
+     * Creates a RedditClient that sends every request to {@link #server}, including the ones OAuthHelper always sends to
+     * www.reddit.com over HTTPS
+     */
+    protected RedditClient redirectingClient() {
+        final MockWebServer server = this.server;
+        OkHttpClient http = new OkHttpClient.Builder()
+                .addInterceptor(new Interceptor() {
+                    @Override
+                    public Response intercept(Chain chain) throws IOException {
+                        HttpUrl url = chain.request().url().newBuilder()
+                                .scheme("http")
+                                .host(server.getHostName())
+                                .port(server.getPort())
+                                .build();
+                        return chain.proceed(chain.request().newBuilder().url(url).build());
+                    }
+                })
+                .build();
+        RedditClient client = new RedditClient(USER_AGENT, new OkHttpAdapter(http, Protocol.HTTP_1_1));
+        client.setRatelimiter(reddit.getRatelimiter());
+        return client;
+    }
+
+    /** Creates a successful response with a JSON body */
+    protected static MockResponse json(String body) {
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json; charset=UTF-8")
+                .setBody(body);
+    }
+
+    /** Creates the JSON of a Listing of links with the given IDs */
+    protected static String listing(String after, String... ids) {
+        StringBuilder sb = new StringBuilder("{\"kind\":\"Listing\",\"data\":{\"children\":[");
+        for (int i = 0; i < ids.length; i++) {
+            if (i != 0) sb.append(',');
+            sb.append("{\"kind\":\"t3\",\"data\":{\"id\":\"").append(ids[i])
+                    .append("\",\"name\":\"t3_").append(ids[i])
+                    .append("\",\"score\":1,\"created_utc\":0,\"likes\":null,\"saved\":false}}");
+        }
+        sb.append("],\"after\":").append(after == null ? "null" : '"' + after + '"').append(",\"before\":null}}");
+        return sb.toString();
+    }
+}
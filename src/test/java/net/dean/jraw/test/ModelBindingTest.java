@@ -0,0 +1,55 @@
+package net.dean.jraw.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.dean.jraw.models.Comment;
+import net.dean.jraw.models.Submission;
+import net.dean.jraw.models.VoteDirection;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Date;
+
+import static org.testng.Assert.*;
+
+public class ModelBindingTest {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testSubmissionProperties() throws IOException {
+        Submission s = new Submission(json("{\"score\": 1234, \"created_utc\": 1450000000.0, \"gilded\": 2, " +
+                "\"likes\": true, \"num_comments\": 56, \"upvote_ratio\": 0.75, \"saved\": false}"));
+
+        assertEquals(s.getScore(), (Integer) 1234);
+        assertEquals(s.getScoreValue(), 1234);
+        assertEquals(s.getCreated(), new Date(1450000000000L));
+        assertEquals(s.getCreatedMillis(), 1450000000000L);
+        assertEquals(s.getTimesGilded(), (Integer) 2);
+        assertEquals(s.getVote(), VoteDirection.UPVOTE);
+        assertEquals(s.getCommentCount(), (Integer) 56);
+        assertEquals(s.getUpvoteRatio(), 0.75);
+    }
+
+    @Test
+    public void testMissingProperties() throws IOException {
+        Submission s = new Submission(json("{\"likes\": null, \"saved\": false}"));
+
+        assertEquals(s.getTimesGilded(), (Integer) 0);
+        assertEquals(s.getVote(), VoteDirection.NO_VOTE);
+        assertNull(s.getCommentCount());
+        assertNull(s.getUpvoteRatio());
+    }
+
+    @Test
+    public void testCommentProperties() throws IOException {
+        Comment c = new Comment(json("{\"score\": -3, \"created_utc\": 1450000001, \"likes\": false}"));
+
+        assertEquals(c.getScore(), (Integer) (-3));
+        assertEquals(c.getCreatedMillis(), 1450000001000L);
+        assertEquals(c.getVote(), VoteDirection.DOWNVOTE);
+    }
+
+    private static JsonNode json(String data) throws IOException {
+        return objectMapper.readTree(data);
+    }
+}
@@ -2,11 +2,25 @@ package net.dean.jraw.test;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import net.dean.jraw.models.Account;
+import net.dean.jraw.models.Comment;
+import net.dean.jraw.models.JsonModel;
+import net.dean.jraw.models.Subreddit;
+import net.dean.jraw.models.Thing;
+import net.dean.jraw.models.meta.Model;
 import net.dean.jraw.models.meta.ModelManager;
+import net.dean.jraw.util.NoSuchEnumConstantException;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.testng.annotations.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.testng.Assert.*;
 
 public class ModelManagerTest {
 
@@ -20,4 +34,57 @@ public class ModelManagerTest {
         // Should throw an IllegalArgumentException
         ModelManager.create(mockNode, Account.class);
     }
+
+    @Test
+    public void testKindByValue() {
+        for (Model.Kind kind : Model.Kind.values()) {
+            assertSame(Model.Kind.getByValue(kind.getValue()), kind);
+        }
+    }
+
+    @Test(expectedExceptions = NoSuchEnumConstantException.class)
+    public void testKindByUnknownValue() {
+        Model.Kind.getByValue("t9");
+    }
+
+    @Test
+    public void testParseAbstract() throws IOException {
+        JsonNode node = new ObjectMapper().readTree("{\"kind\": \"t5\", \"data\": {\"display_name\": \"pics\"}}");
+        Thing thing = ModelManager.create(node, Thing.class);
+        assertTrue(thing instanceof Subreddit);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testParseUnannotated() throws IOException {
+        JsonNode node = new ObjectMapper().readTree("{\"kind\": \"t5\", \"data\": {}}");
+        ModelManager.create(node, Unannotated.class);
+    }
+
+    @Test
+    public void testParseConcurrently() throws Exception {
+        final JsonNode node = new ObjectMapper().readTree("{\"kind\": \"t1\", \"data\": {\"body\": \"text\"}}");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Thing>> results = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                results.add(executor.submit(new Callable<Thing>() {
+                    @Override
+                    public Thing call() {
+                        return ModelManager.create(node, Thing.class);
+                    }
+                }));
+            }
+            for (Future<Thing> result : results) {
+                assertEquals(((Comment) result.get()).getBody(), "text");
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public static class Unannotated extends JsonModel {
+        public Unannotated(JsonNode dataNode) {
+            super(dataNode);
+        }
+    }
 }
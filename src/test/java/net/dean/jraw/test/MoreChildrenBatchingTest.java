@@ -0,0 +1,153 @@
+package net.dean.jraw.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import net.dean.jraw.models.Comment;
+import net.dean.jraw.models.CommentNode;
+import net.dean.jraw.models.CommentSort;
+import net.dean.jraw.models.MoreChildren;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.testng.annotations.Test;
+
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+/** Tests how {@link CommentNode#loadFully(net.dean.jraw.RedditClient)} batches requests to /api/morechildren */
+public class MoreChildrenBatchingTest extends MockServerTest {
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final String LINK = "t3_link";
+
+    @Test
+    public void testBatchesAcrossMoreChildren() throws Exception {
+        server.setDispatcher(new MoreChildrenDispatcher());
+
+        // 150 hidden top-level comments and 30 hidden replies to "top", 180 IDs in total
+        CommentNode root = new CommentNode(LINK,
+                Collections.singletonList(new Comment(comment("top", LINK, more("t1_top", "reply", 30)))),
+                new MoreChildren(more(LINK, "c", 150).get("data")),
+                CommentSort.TOP);
+
+        root.loadFully(reddit);
+
+        assertEquals(server.getRequestCount(), 2);
+        assertEquals(root.getImmediateSize(), 151);
+        assertEquals(root.get(0).getImmediateSize(), 30);
+        for (CommentNode node : root.walkTree()) {
+            assertFalse(node.hasMoreComments());
+        }
+    }
+
+    @Test
+    public void testRequestLimit() throws Exception {
+        server.setDispatcher(new MoreChildrenDispatcher());
+
+        CommentNode root = new CommentNode(LINK,
+                Collections.singletonList(new Comment(comment("top", LINK, more("t1_top", "reply", 30)))),
+                new MoreChildren(more(LINK, "c", 150).get("data")),
+                CommentSort.TOP);
+
+        // The root's MoreChildren alone needs two requests
+        root.loadFully(reddit, CommentNode.NO_LIMIT, 1);
+        assertEquals(server.getRequestCount(), 1);
+        assertEquals(root.getImmediateSize(), 101);
+        assertEquals(root.getMoreChildren().getChildrenIds().size(), 50);
+    }
+
+    @Test
+    public void testRequestLimitKeepsUnrequestedIds() throws Exception {
+        // Reddit answers with a MoreChildren of its own for the root, which must not replace the IDs we haven't sent
+        server.setDispatcher(new MoreChildrenDispatcher(more(LINK, "x", 5)));
+
+        CommentNode root = new CommentNode(LINK,
+                Collections.<Comment>emptyList(),
+                new MoreChildren(more(LINK, "c", 150).get("data")),
+                CommentSort.TOP);
+
+        root.loadFully(reddit, CommentNode.NO_LIMIT, 1);
+        assertEquals(server.getRequestCount(), 1);
+        assertEquals(root.getImmediateSize(), 100);
+        List<String> ids = root.getMoreChildren().getChildrenIds();
+        assertEquals(ids.size(), 55);
+        assertTrue(ids.contains("c100") && ids.contains("c149"));
+        assertTrue(ids.contains("x0") && ids.contains("x4"));
+    }
+
+    /** Creates the JSON data of a comment, with a MoreChildren as its only reply if {@code more} is non-null */
+    private static ObjectNode comment(String id, String parentId, ObjectNode more) {
+        ObjectNode data = mapper.createObjectNode();
+        data.put("id", id);
+        data.put("name", "t1_" + id);
+        data.put("parent_id", parentId);
+        data.put("score", 1);
+        data.put("created_utc", 0);
+        data.putNull("likes");
+        if (more == null) {
+            data.put("replies", "");
+        } else {
+            ObjectNode listing = data.putObject("replies").put("kind", "Listing").putObject("data");
+            listing.putArray("children").add(more);
+        }
+        return data;
+    }
+
+    /** Creates a "more" Thing with {@code count} children IDs that start with the given prefix */
+    private static ObjectNode more(String parentId, String prefix, int count) {
+        ObjectNode more = mapper.createObjectNode().put("kind", "more");
+        ObjectNode data = more.putObject("data");
+        data.put("id", prefix);
+        data.put("name", "t1_" + prefix);
+        data.put("parent_id", parentId);
+        data.put("count", count);
+        ArrayNode children = data.putArray("children");
+        for (int i = 0; i < count; i++) {
+            children.add(prefix + i);
+        }
+        return more;
+    }
+
+    /** Replies to /api/morechildren with a comment for every requested ID */
+    private static class MoreChildrenDispatcher extends Dispatcher {
+        /** A "more" Thing to add to every response, or null */
+        private final ObjectNode extra;
+
+        MoreChildrenDispatcher() {
+            this(null);
+        }
+
+        MoreChildrenDispatcher(ObjectNode extra) {
+            this.extra = extra;
+        }
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            try {
+                String body = URLDecoder.decode(request.getBody().readUtf8(), "UTF-8");
+                List<String> ids = new ArrayList<>();
+                for (String param : body.split("&")) {
+                    if (param.startsWith("children="))
+                        Collections.addAll(ids, param.substring("children=".length()).split(","));
+                }
+                assertTrue(ids.size() <= 100, "Requested more than 100 IDs");
+
+                ObjectNode response = mapper.createObjectNode();
+                ArrayNode things = response.putObject("json").putObject("data").putArray("things");
+                for (String id : ids) {
+                    String parent = id.startsWith("reply") ? "t1_top" : LINK;
+                    things.addObject().put("kind", "t1").set("data", comment(id, parent, null));
+                }
+                if (extra != null)
+                    things.add(extra);
+                return json(mapper.writeValueAsString(response));
+            } catch (Exception e) {
+                return new MockResponse().setResponseCode(500);
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package net.dean.jraw.test;
+
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.Submission;
+import net.dean.jraw.paginators.SubredditPaginator;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+/** Tests {@link net.dean.jraw.paginators.Paginator#setPrefetch(int)} */
+public class PaginatorPrefetchTest extends MockServerTest {
+    private SubredditPaginator paginator;
+
+    @BeforeMethod
+    public void setUpPaginator() {
+        paginator = new SubredditPaginator(reddit, "pics");
+    }
+
+    @Test
+    public void testPrefetch() throws Exception {
+        server.setDispatcher(new PageDispatcher(false));
+        paginator.setPrefetch(2);
+
+        assertEquals(ids(paginator.next()), list("a", "b"));
+        // The remaining two pages should be requested without calling next()
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(ids(paginator.next()), list("c", "d"));
+        assertEquals(ids(paginator.next()), list("e"));
+        assertFalse(paginator.hasNext());
+        assertEquals(paginator.getPageIndex(), 3);
+        assertEquals(server.getRequestCount(), 3);
+    }
+
+    @Test
+    public void testAccumulate() {
+        server.setDispatcher(new PageDispatcher(false));
+        paginator.setPrefetch(1);
+
+        List<String> ids = new ArrayList<>();
+        for (Submission s : paginator.accumulateMerged(10)) {
+            ids.add(s.getId());
+        }
+        assertEquals(ids, list("a", "b", "c", "d", "e"));
+    }
+
+    @Test
+    public void testPrefetchError() {
+        server.setDispatcher(new PageDispatcher(true));
+        paginator.setPrefetch(2);
+
+        paginator.next();
+        try {
+            paginator.next();
+            fail("Expected a NetworkException");
+        } catch (NetworkException e) {
+            assertEquals(e.getResponse().getStatusCode(), 404);
+        }
+    }
+
+    @Test
+    public void testReset() throws Exception {
+        server.setDispatcher(new PageDispatcher(false));
+        paginator.setPrefetch(1);
+        paginator.next();
+        paginator.reset();
+        assertEquals(ids(paginator.next()), list("a", "b"));
+    }
+
+    private static List<String> ids(Listing<Submission> listing) {
+        List<String> ids = new ArrayList<>();
+        for (Submission s : listing) {
+            ids.add(s.getId());
+        }
+        return ids;
+    }
+
+    private static List<String> list(String... values) {
+        List<String> list = new ArrayList<>();
+        for (String value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    /** Serves three pages, choosing which one based on the "after" query parameter */
+    private static class PageDispatcher extends Dispatcher {
+        private final boolean failSecondPage;
+
+        private PageDispatcher(boolean failSecondPage) {
+            this.failSecondPage = failSecondPage;
+        }
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            String path = request.getPath();
+            if (path.contains("after=t3_b")) {
+                if (failSecondPage)
+                    return json("{}").setResponseCode(404);
+                return json(listing("t3_d", "c", "d"));
+            }
+            if (path.contains("after=t3_d"))
+                return json(listing(null, "e"));
+            return json(listing("t3_b", "a", "b"));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package net.dean.jraw.test;
+
+import net.dean.jraw.http.FileRatelimiter;
+import net.dean.jraw.http.SharedRatelimiter;
+import net.dean.jraw.http.SmoothRatelimiter;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class RatelimiterTest {
+
+    @Test
+    public void testSmoothUpdate() {
+        SmoothRatelimiter ratelimiter = new SmoothRatelimiter(60);
+        ratelimiter.update(300, 60);
+        assertEquals(ratelimiter.getRate(), 300.0, 0.01);
+        // Never go below one request per minute
+        ratelimiter.update(0, 600);
+        assertEquals(ratelimiter.getRate(), 1.0, 0.01);
+    }
+
+    @Test
+    public void testSharedSpreadsRequests() {
+        MockClockRatelimiter ratelimiter = new MockClockRatelimiter(10, 10, TimeUnit.SECONDS);
+        assertTrue(ratelimiter.tryAcquire());
+        // 9 requests left for the remaining 10 seconds, one per second
+        assertFalse(ratelimiter.tryAcquire());
+        ratelimiter.time += 1000;
+        assertTrue(ratelimiter.tryAcquire());
+    }
+
+    @Test
+    public void testSharedExhausted() {
+        MockClockRatelimiter ratelimiter = new MockClockRatelimiter(10, 10, TimeUnit.SECONDS);
+        ratelimiter.update(0, 5);
+        assertFalse(ratelimiter.tryAcquire());
+        assertEquals(ratelimiter.getRate(), 0.0);
+
+        // A new period has started
+        ratelimiter.time += 5000;
+        assertTrue(ratelimiter.tryAcquire());
+    }
+
+    @Test
+    public void testSharedIgnoresStaleUpdates() {
+        MockClockRatelimiter ratelimiter = new MockClockRatelimiter(600, 10, TimeUnit.MINUTES);
+        ratelimiter.update(100, 300);
+        // A response that was sent earlier in the same period, but arrived later
+        ratelimiter.update(200, 300);
+        assertEquals(ratelimiter.getRate(), 20.0, 0.01);
+    }
+
+    @Test
+    public void testFileSharesState() throws IOException {
+        File file = File.createTempFile("jraw-ratelimit", null);
+        file.deleteOnExit();
+
+        FileRatelimiter first = new FileRatelimiter(file, 10, 1, TimeUnit.HOURS);
+        try {
+            first.update(60, 3600);
+            assertTrue(first.tryAcquire());
+        } finally {
+            first.close();
+        }
+
+        // Another process would see the state written by the first
+        FileRatelimiter second = new FileRatelimiter(file, 10, 1, TimeUnit.HOURS);
+        try {
+            assertFalse(second.tryAcquire());
+            assertEquals(second.getRate(), 59 / 60.0, 0.01);
+        } finally {
+            second.close();
+        }
+    }
+
+    private static class MockClockRatelimiter extends SharedRatelimiter {
+        private long time = 1_000_000;
+
+        public MockClockRatelimiter(int capacity, long period, TimeUnit unit) {
+            super(capacity, period, unit);
+        }
+
+        @Override
+        protected long now() {
+            return time;
+        }
+    }
+}
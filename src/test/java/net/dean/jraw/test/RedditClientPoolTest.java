@@ -0,0 +1,150 @@
+package net.dean.jraw.test;
+
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.RedditClientPool;
+import net.dean.jraw.http.HttpRequest;
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.http.Ratelimiter;
+import net.dean.jraw.http.UserAgent;
+import net.dean.jraw.util.Version;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+public class RedditClientPoolTest extends MockServerTest {
+
+    @Test
+    public void testSpreadsLoad() {
+        TicketRatelimiter first = new TicketRatelimiter(Integer.MAX_VALUE);
+        TicketRatelimiter second = new TicketRatelimiter(Integer.MAX_VALUE);
+        RedditClientPool pool = new RedditClientPool();
+        RedditClient a = newClient();
+        RedditClient b = newClient();
+        pool.add(a, first);
+        pool.add(b, second);
+
+        int[] uses = new int[2];
+        for (int i = 0; i < 4; i++) {
+            server.enqueue(json("{}"));
+            RedditClient used = pool.execute(sendRequest());
+            uses[used == a ? 0 : 1]++;
+        }
+
+        assertEquals(uses[0], 2);
+        assertEquals(uses[1], 2);
+        // The request sent by each task used the ticket taken when the client was chosen
+        assertEquals(first.taken.get(), 2);
+        assertEquals(second.taken.get(), 2);
+    }
+
+    @Test
+    public void testSkipsExhaustedClient() {
+        RedditClientPool pool = new RedditClientPool();
+        RedditClient a = newClient();
+        RedditClient b = newClient();
+        pool.add(a, new TicketRatelimiter(0));
+        pool.add(b, new TicketRatelimiter(Integer.MAX_VALUE));
+
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(json("{}"));
+            assertSame(pool.execute(sendRequest()), b);
+        }
+    }
+
+    @Test
+    public void testFurtherRequestsAreRatelimited() {
+        TicketRatelimiter ratelimiter = new TicketRatelimiter(Integer.MAX_VALUE);
+        RedditClientPool pool = new RedditClientPool();
+        pool.add(newClient(), ratelimiter);
+
+        server.enqueue(json("{}"));
+        server.enqueue(json("{}"));
+        pool.execute(new RedditClientPool.Task<Void>() {
+            @Override
+            public Void run(RedditClient reddit) throws NetworkException {
+                reddit.execute(get(reddit));
+                reddit.execute(get(reddit));
+                return null;
+            }
+        });
+        assertEquals(ratelimiter.taken.get(), 2);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testEmptyPool() {
+        new RedditClientPool().execute(sendRequest());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testAddTwice() {
+        RedditClientPool pool = new RedditClientPool();
+        pool.add(reddit);
+        pool.add(reddit);
+    }
+
+    private static RedditClientPool.Task<RedditClient> sendRequest() {
+        return new RedditClientPool.Task<RedditClient>() {
+            @Override
+            public RedditClient run(RedditClient reddit) throws NetworkException {
+                reddit.execute(get(reddit));
+                return reddit;
+            }
+        };
+    }
+
+    private static HttpRequest get(RedditClient reddit) {
+        return reddit.request().path("/foo").build();
+    }
+
+    private RedditClient newClient() {
+        return new RedditClient(UserAgent.of("desktop", "net.dean.jraw.test", "v" + Version.get().formatted(), "thatJavaNerd")) {
+            @Override
+            public HttpRequest.Builder request() {
+                return super.request()
+                        .https(false)
+                        .host(server.getHostName())
+                        .port(server.getPort());
+            }
+        };
+    }
+
+    /** Allows a fixed amount of requests and counts how many were taken */
+    private static class TicketRatelimiter implements Ratelimiter {
+        private final AtomicInteger remaining;
+        private final AtomicInteger taken = new AtomicInteger();
+
+        private TicketRatelimiter(int tickets) {
+            this.remaining = new AtomicInteger(tickets);
+        }
+
+        @Override
+        public double acquire() {
+            if (!tryAcquire())
+                throw new IllegalStateException("Out of tickets");
+            return 0;
+        }
+
+        @Override
+        public boolean tryAcquire() {
+            if (remaining.getAndDecrement() <= 0) {
+                remaining.incrementAndGet();
+                return false;
+            }
+            taken.incrementAndGet();
+            return true;
+        }
+
+        @Override
+        public double getRate() {
+            return remaining.get() > 0 ? 60 : 0;
+        }
+
+        @Override
+        public void setRate(int requestsPerMinute) {}
+
+        @Override
+        public void update(double remaining, int reset) {}
+    }
+}
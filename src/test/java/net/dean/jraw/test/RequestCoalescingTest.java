@@ -0,0 +1,141 @@
+package net.dean.jraw.test;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import net.dean.jraw.http.HttpRequest;
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.http.RestResponse;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class RequestCoalescingTest extends MockServerTest {
+    private static final int CALLERS = 4;
+    private CountDownLatch release;
+
+    @BeforeMethod
+    public void setUpCoalescing() {
+        reddit.setCoalesceRequests(true);
+        release = new CountDownLatch(1);
+    }
+
+    @Test
+    public void testConcurrentGetsShareResponse() throws Exception {
+        holdResponses(json("{\"foo\":\"bar\"}"));
+        List<RestResponse> responses = executeConcurrently(get("/foo"));
+
+        assertEquals(server.getRequestCount(), 1);
+        assertEquals(reddit.getCoalescedCount(), CALLERS - 1);
+        for (RestResponse response : responses) {
+            assertSame(response, responses.get(0));
+        }
+        assertEquals(responses.get(0).getJson().get("foo").asText(), "bar");
+    }
+
+    @Test
+    public void testFailureIsShared() throws Exception {
+        holdResponses(json("{}").setResponseCode(404));
+        try {
+            executeConcurrently(get("/foo"));
+            fail("Expected a NetworkException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof NetworkException, String.valueOf(e.getCause()));
+        }
+        assertEquals(server.getRequestCount(), 1);
+    }
+
+    @Test
+    public void testAsync() throws Exception {
+        holdResponses(json("{}"));
+        ListenableFuture<RestResponse> first = reddit.executeAsync(get("/foo"));
+        ListenableFuture<RestResponse> second = reddit.executeAsync(get("/foo"));
+        // Cancelling one caller's future does not affect the other
+        first.cancel(true);
+        release.countDown();
+
+        assertNotNull(second.get(5, TimeUnit.SECONDS));
+        assertEquals(server.getRequestCount(), 1);
+        assertEquals(reddit.getCoalescedCount(), 1);
+    }
+
+    @Test
+    public void testDifferentRequestsAreSent() throws Exception {
+        server.enqueue(json("{}"));
+        server.enqueue(json("{}"));
+        ListenableFuture<RestResponse> first = reddit.executeAsync(get("/foo"));
+        ListenableFuture<RestResponse> second = reddit.executeAsync(reddit.request().path("/foo").query("bar", "baz").build());
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertEquals(server.getRequestCount(), 2);
+        assertEquals(reddit.getCoalescedCount(), 0);
+    }
+
+    @Test
+    public void testPostIsNotCoalesced() throws Exception {
+        server.enqueue(json("{}"));
+        server.enqueue(json("{}"));
+        ListenableFuture<RestResponse> first = reddit.executeAsync(reddit.request().path("/foo").post().build());
+        ListenableFuture<RestResponse> second = reddit.executeAsync(reddit.request().path("/foo").post().build());
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertEquals(server.getRequestCount(), 2);
+    }
+
+    /** Makes the server answer every request with the given response once {@link #release} is counted down */
+    private void holdResponses(final MockResponse response) {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                release.await();
+                return response;
+            }
+        });
+    }
+
+    /** Executes the request on several threads at once, releasing the response once all but one have coalesced */
+    private List<RestResponse> executeConcurrently(final HttpRequest request) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<RestResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                futures.add(executor.submit(new Callable<RestResponse>() {
+                    @Override
+                    public RestResponse call() {
+                        return reddit.execute(request);
+                    }
+                }));
+            }
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (reddit.getCoalescedCount() < CALLERS - 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            List<RestResponse> responses = new ArrayList<>();
+            for (Future<RestResponse> future : futures) {
+                responses.add(future.get(5, TimeUnit.SECONDS));
+            }
+            return responses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return reddit.request().path(path).build();
+    }
+}
@@ -0,0 +1,104 @@
+package net.dean.jraw.test;
+
+import net.dean.jraw.Endpoints;
+import net.dean.jraw.http.LatencyHistogram;
+import net.dean.jraw.http.MetricsRecorder;
+import net.dean.jraw.http.MetricsRecorder.Phase;
+import net.dean.jraw.http.RestResponse;
+import net.dean.jraw.http.oauth.InvalidScopeException;
+import net.dean.jraw.models.Submission;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class RequestMetricsTest extends MockServerTest {
+    private MetricsRecorder metrics;
+
+    @BeforeMethod
+    public void setUpMetrics() {
+        metrics = new MetricsRecorder();
+        reddit.setRequestListener(metrics);
+    }
+
+    @Test
+    public void testPhasesAreRecordedByEndpoint() {
+        server.enqueue(json(listing(null, "a")));
+        RestResponse response = reddit.execute(reddit.request()
+                .endpoint(Endpoints.INFO)
+                .query("id", "t3_a")
+                .build());
+        response.asListing(Submission.class);
+
+        for (Phase phase : new Phase[] {Phase.RATELIMIT_WAIT, Phase.CONNECT, Phase.FIRST_BYTE, Phase.BODY_READ,
+                Phase.JSON_PARSE, Phase.MODEL_BINDING, Phase.TOTAL}) {
+            assertEquals(metrics.getHistogram(Endpoints.INFO, phase).getCount(), 1, phase.toString());
+        }
+        assertTrue(metrics.getEndpoints().contains(Endpoints.INFO));
+        assertEquals(metrics.getHistogram(null, Phase.TOTAL).getCount(), 0);
+        assertEquals(metrics.getResponseCount(), 1);
+    }
+
+    @Test
+    public void testRequestsWithoutEndpoint() {
+        server.enqueue(json("{}"));
+        reddit.execute(reddit.request().path("/custom").build());
+        assertEquals(metrics.getHistogram(null, Phase.TOTAL).getCount(), 1);
+        assertTrue(metrics.getEndpoints().isEmpty());
+    }
+
+    @Test
+    public void testServerErrorsAndRetries() {
+        server.enqueue(json("{}").setResponseCode(503));
+        server.enqueue(json("{}").setResponseCode(500));
+        server.enqueue(json("{}"));
+        reddit.execute(reddit.request().endpoint(Endpoints.OAUTH_ME).build());
+
+        assertEquals(metrics.getServerErrorCount(), 2);
+        assertEquals(metrics.getRetryCount(), 2);
+        assertEquals(metrics.getResponseCount(), 3);
+        assertEquals(metrics.getHistogram(Endpoints.OAUTH_ME, Phase.TOTAL).getCount(), 3);
+    }
+
+    @Test
+    public void testInvalidScope() {
+        server.enqueue(json("{}").setResponseCode(403).setHeader("WWW-Authenticate", "Bearer realm=\"reddit\""));
+        try {
+            reddit.execute(reddit.request().endpoint(Endpoints.OAUTH_ME).build());
+            fail("Expected an InvalidScopeException");
+        } catch (InvalidScopeException expected) {
+            // Expected
+        }
+        assertEquals(metrics.getInvalidScopeCount(), 1);
+        assertEquals(metrics.getRetryCount(), 0);
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+
+        assertEquals(histogram.getCount(), 1000);
+        assertEquals(histogram.getMax(), TimeUnit.MICROSECONDS.toNanos(1000));
+        assertEquals(histogram.getMean(), TimeUnit.MICROSECONDS.toNanos(1) * 500.5, 0.001);
+        assertWithin(histogram.getPercentile(50), TimeUnit.MICROSECONDS.toNanos(500));
+        assertWithin(histogram.getPercentile(99), TimeUnit.MICROSECONDS.toNanos(990));
+        assertEquals(histogram.getPercentile(100), histogram.getMax());
+
+        LatencyHistogram small = new LatencyHistogram();
+        small.record(7);
+        small.record(-1);
+        assertEquals(small.getPercentile(100), 7);
+        assertEquals(small.getPercentile(50), 0);
+        assertEquals(new LatencyHistogram().getPercentile(99), 0);
+    }
+
+    /** Asserts that a percentile is within the histogram's precision of the expected value */
+    private static void assertWithin(long actual, long expected) {
+        assertTrue(Math.abs(actual - expected) <= expected / 32, "Expected about " + expected + ", was " + actual);
+    }
+}
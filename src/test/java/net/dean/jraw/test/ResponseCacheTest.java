@@ -0,0 +1,108 @@
+package net.dean.jraw.test;
+
+import net.dean.jraw.http.HttpRequest;
+import net.dean.jraw.http.OkHttpAdapter;
+import net.dean.jraw.http.ResponseCache;
+import net.dean.jraw.http.RestResponse;
+import okhttp3.CacheControl;
+import okhttp3.mockwebserver.MockResponse;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class ResponseCacheTest extends MockServerTest {
+    private ResponseCache cache;
+
+    @BeforeMethod
+    public void setUpCache() {
+        cache = new ResponseCache(1024 * 1024);
+        reddit.setResponseCache(cache);
+    }
+
+    @Test
+    public void testRevalidate() throws Exception {
+        server.enqueue(json("{\"foo\":\"bar\"}").setHeader("ETag", "\"abc\""));
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        reddit.execute(get("/foo"));
+        RestResponse response = reddit.execute(get("/foo"));
+
+        server.takeRequest();
+        assertEquals(server.takeRequest().getHeader("If-None-Match"), "\"abc\"");
+        assertEquals(response.getJson().get("foo").asText(), "bar");
+        assertFalse(response.isFromCache());
+        assertEquals(cache.getMissCount(), 1);
+        assertEquals(cache.getRevalidationCount(), 1);
+    }
+
+    @Test
+    public void testMinimumFreshness() throws Exception {
+        cache.setMinimumFreshness(1, TimeUnit.MINUTES);
+        server.enqueue(json("{\"foo\":\"bar\"}"));
+
+        reddit.execute(get("/foo"));
+        RestResponse response = reddit.executeAsync(get("/foo")).get();
+
+        assertTrue(response.isFromCache());
+        assertEquals(response.getJson().get("foo").asText(), "bar");
+        assertEquals(server.getRequestCount(), 1);
+        assertEquals(cache.getHitCount(), 1);
+    }
+
+    @Test
+    public void testForceNetwork() throws Exception {
+        cache.setMinimumFreshness(1, TimeUnit.MINUTES);
+        server.enqueue(json("{}"));
+        server.enqueue(json("{}"));
+
+        reddit.execute(get("/foo"));
+        reddit.execute(reddit.request().path("/foo").cacheControl(CacheControl.FORCE_NETWORK).build());
+        assertEquals(server.getRequestCount(), 2);
+    }
+
+    @Test
+    public void testNoStore() throws Exception {
+        cache.setMinimumFreshness(1, TimeUnit.MINUTES);
+        server.enqueue(json("{}").setHeader("Cache-Control", "no-store"));
+        server.enqueue(json("{}"));
+
+        reddit.execute(get("/foo"));
+        reddit.execute(get("/foo"));
+        assertEquals(server.getRequestCount(), 2);
+        assertEquals(cache.getHitCount(), 0);
+    }
+
+    @Test
+    public void testPostNotCached() throws Exception {
+        cache.setMinimumFreshness(1, TimeUnit.MINUTES);
+        server.enqueue(json("{}"));
+        server.enqueue(json("{}"));
+
+        reddit.execute(reddit.request().path("/foo").post().build());
+        reddit.execute(reddit.request().path("/foo").post().build());
+        assertEquals(server.getRequestCount(), 2);
+        assertEquals(cache.size(), 0);
+    }
+
+    @Test
+    public void testStreamedResponsesAreWeighedWithoutSerializing() throws Exception {
+        ((OkHttpAdapter) reddit.getHttpAdapter()).setStreamJson(true);
+        cache.setMinimumFreshness(1, TimeUnit.MINUTES);
+        String body = "{ \"foo\" : \"bar\" }";
+        server.enqueue(json(body));
+
+        reddit.execute(get("/foo"));
+        RestResponse response = reddit.execute(get("/foo"));
+        assertTrue(response.isFromCache());
+        // The length read from the network, the JSON wasn't turned back into a String (which has no whitespace)
+        assertEquals(response.getBodyLength(), body.length());
+        assertEquals(response.getRaw(), "{\"foo\":\"bar\"}");
+    }
+
+    private HttpRequest get(String path) {
+        return reddit.request().path(path).build();
+    }
+}
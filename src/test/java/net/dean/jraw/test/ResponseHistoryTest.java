@@ -0,0 +1,126 @@
+package net.dean.jraw.test;
+
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.http.OkHttpAdapter;
+import net.dean.jraw.http.ResponseHistory;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class ResponseHistoryTest extends MockServerTest {
+    private ResponseHistory history;
+
+    @BeforeMethod
+    public void enableHistory() {
+        reddit.setSaveResponseHistory(true);
+        history = reddit.getHistory();
+    }
+
+    @Test
+    public void testOldestEntriesAreReplaced() {
+        history.setCapacity(3);
+        for (int i = 0; i < 5; i++) {
+            send("/" + i, "{}");
+        }
+
+        List<ResponseHistory.Entry> entries = history.getEntries();
+        assertEquals(entries.size(), 3);
+        assertTrue(entries.get(0).getUrl().endsWith("/2"), entries.toString());
+        assertTrue(entries.get(2).getUrl().endsWith("/4"), entries.toString());
+
+        history.setCapacity(2);
+        assertTrue(history.getEntries().get(0).getUrl().endsWith("/3"));
+    }
+
+    @Test
+    public void testFailuresAreRecorded() {
+        server.enqueue(json("{\"error\":404}").setResponseCode(404));
+        try {
+            reddit.execute(reddit.request().path("/missing").build());
+            fail("Expected a NetworkException");
+        } catch (NetworkException expected) {
+            // Expected
+        }
+        ResponseHistory.Entry entry = history.getEntries().get(0);
+        assertEquals(entry.getStatusCode(), 404);
+        assertEquals(entry.getBody(), "{\"error\":404}");
+    }
+
+    @Test
+    public void testBodiesAreTruncated() {
+        history.setMaxBodyLength(5);
+        send("/long", "{\"data\":\"a long body\"}");
+        ResponseHistory.Entry entry = history.getEntries().get(0);
+        assertEquals(entry.getBody(), "{\"dat");
+        assertTrue(entry.isBodyTruncated());
+        assertEquals(entry.getBodyLength(), 22);
+
+        history.setMaxBodyLength(0);
+        send("/none", "{}");
+        assertNull(history.getEntries().get(1).getBody());
+    }
+
+    @Test
+    public void testStreamedBodiesAreNotSerializedWhenDisabled() {
+        ((OkHttpAdapter) reddit.getHttpAdapter()).setStreamJson(true);
+        history.setMaxBodyLength(0);
+        String body = "{ \"foo\" : \"bar\" }";
+        send("/streamed", body);
+
+        ResponseHistory.Entry entry = history.getEntries().get(0);
+        assertNull(entry.getBody());
+        // The length read from the network rather than the length of the re-serialized JSON
+        assertEquals(entry.getBodyLength(), body.length());
+    }
+
+    @Test
+    public void testOldEntriesExpire() throws InterruptedException {
+        history.setMaxAge(50, TimeUnit.MILLISECONDS);
+        send("/old", "{}");
+        assertEquals(history.size(), 1);
+        Thread.sleep(100);
+        assertEquals(history.size(), 0);
+    }
+
+    @Test
+    public void testSampling() {
+        history.setSampleRate(2);
+        for (int i = 0; i < 4; i++) {
+            send("/" + i, "{}");
+        }
+        assertEquals(history.size(), 2);
+    }
+
+    @Test
+    public void testSpillFile() throws Exception {
+        File file = File.createTempFile("jraw-history", null);
+        file.deleteOnExit();
+        // Room for two of the bodies below
+        history.setSpillFile(file, 30);
+        try {
+            send("/first", "{\"n\":\"first\"}");
+            send("/second", "{\"n\":\"second\"}");
+            assertEquals(history.getEntries().get(0).getBody(), "{\"n\":\"first\"}");
+
+            // Wraps around and overwrites the first body
+            send("/third", "{\"n\":\"third\"}");
+            List<ResponseHistory.Entry> entries = history.getEntries();
+            assertNull(entries.get(0).getBody());
+            assertEquals(entries.get(1).getBody(), "{\"n\":\"second\"}");
+            assertEquals(entries.get(2).getBody(), "{\"n\":\"third\"}");
+        } finally {
+            history.close();
+        }
+        assertNull(history.getEntries().get(2).getBody());
+    }
+
+    private void send(String path, String body) {
+        server.enqueue(json(body));
+        reddit.execute(reddit.request().path(path).build());
+    }
+}
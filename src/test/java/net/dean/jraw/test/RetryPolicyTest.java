@@ -0,0 +1,136 @@
+package net.dean.jraw.test;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.http.RestResponse;
+import net.dean.jraw.http.RetryPolicy;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class RetryPolicyTest extends MockServerTest {
+    @Test
+    public void testTooManyRequestsIsRetried() {
+        server.enqueue(json("{}").setResponseCode(429));
+        server.enqueue(json("{\"ok\":true}"));
+        RestResponse response = reddit.execute(reddit.request().path("/test").build());
+        assertTrue(response.getJson().get("ok").asBoolean());
+        assertEquals(server.getRequestCount(), 2);
+    }
+
+    @Test
+    public void testRetryAfterIsHonoured() {
+        server.enqueue(json("{}").setResponseCode(503).setHeader("Retry-After", "1"));
+        server.enqueue(json("{}"));
+        long start = System.nanoTime();
+        reddit.execute(reddit.request().path("/test").build());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 1000, "Did not wait for Retry-After");
+        assertEquals(server.getRequestCount(), 2);
+    }
+
+    @Test
+    public void testInterruptStopsWaitingToRetry() {
+        server.enqueue(json("{}").setResponseCode(503).setHeader("Retry-After", "30"));
+        final Thread caller = Thread.currentThread();
+        new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException ignored) {
+                }
+                caller.interrupt();
+            }
+        }.start();
+        long start = System.nanoTime();
+        try {
+            reddit.execute(reddit.request().path("/test").build());
+            fail("Expected a NetworkException");
+        } catch (NetworkException e) {
+            assertEquals(e.getResponse().getStatusCode(), 503);
+            assertTrue(e.getSuppressed()[0] instanceof InterruptedException);
+        } finally {
+            // Also clears the flag for the next test
+            assertTrue(Thread.interrupted(), "The interrupt flag was not restored");
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 30, "Waited for Retry-After");
+        assertEquals(server.getRequestCount(), 1);
+    }
+
+    @Test
+    public void testRetryAfterTooLongIsNotRetried() {
+        server.enqueue(json("{}").setResponseCode(503).setHeader("Retry-After", "3600"));
+        try {
+            reddit.execute(reddit.request().path("/test").build());
+            fail("Expected a NetworkException");
+        } catch (NetworkException e) {
+            assertEquals(e.getResponse().getStatusCode(), 503);
+        }
+        assertEquals(server.getRequestCount(), 1);
+    }
+
+    @Test
+    public void testGivingUpThrowsNetworkException() throws InterruptedException {
+        reddit.setRetryLimit(2);
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(json("{}").setResponseCode(500));
+        }
+        try {
+            reddit.execute(reddit.request().path("/test").build());
+            fail("Expected a NetworkException");
+        } catch (NetworkException e) {
+            assertEquals(e.getResponse().getStatusCode(), 500);
+        }
+        assertEquals(server.getRequestCount(), 3);
+        // The rest of the policy is kept
+        assertEquals(reddit.getRetryPolicy().getBaseDelay(), 1);
+    }
+
+    @Test
+    public void testAsyncRetriesWithDelay() throws Exception {
+        reddit.setRetryPolicy(new RetryPolicy.Builder().baseDelay(200, TimeUnit.MILLISECONDS).build());
+        server.enqueue(json("{}").setResponseCode(502));
+        server.enqueue(json("{\"ok\":true}"));
+        long start = System.nanoTime();
+        ListenableFuture<RestResponse> future = reddit.executeAsync(reddit.request().path("/test").build());
+        assertTrue(future.get(5, TimeUnit.SECONDS).getJson().get("ok").asBoolean());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+
+        reddit.setRetryPolicy(RetryPolicy.NONE);
+        server.enqueue(json("{}").setResponseCode(502));
+        try {
+            reddit.executeAsync(reddit.request().path("/test").build()).get(5, TimeUnit.SECONDS);
+            fail("Expected a NetworkException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof NetworkException);
+        }
+    }
+
+    @Test
+    public void testJitterBounds() {
+        server.enqueue(json("{}").setResponseCode(500));
+        reddit.setRetryPolicy(RetryPolicy.NONE);
+        RestResponse error;
+        try {
+            reddit.execute(reddit.request().path("/test").build());
+            throw new AssertionError("Expected a NetworkException");
+        } catch (NetworkException e) {
+            error = e.getResponse();
+        }
+
+        RetryPolicy policy = new RetryPolicy.Builder()
+                .baseDelay(100, TimeUnit.MILLISECONDS)
+                .maxDelay(1, TimeUnit.SECONDS)
+                .build();
+        assertEquals(policy.getDelay(error, 0), 100);
+        long delay = 0;
+        for (int i = 0; i < 1000; i++) {
+            long next = policy.getDelay(error, delay);
+            assertTrue(next >= 100 && next <= Math.max(100, Math.min(1000, delay * 3)), next + " after " + delay);
+            delay = next;
+        }
+    }
+}
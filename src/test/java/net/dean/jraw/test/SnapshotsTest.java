@@ -0,0 +1,117 @@
+package net.dean.jraw.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import net.dean.jraw.models.Comment;
+import net.dean.jraw.models.CommentNode;
+import net.dean.jraw.models.CommentSort;
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.MoreChildren;
+import net.dean.jraw.models.Submission;
+import net.dean.jraw.models.Thing;
+import net.dean.jraw.models.meta.Snapshots;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+
+import static org.testng.Assert.*;
+
+public class SnapshotsTest {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testModel() throws IOException {
+        Submission submission = new Submission(objectMapper.readTree("{\"id\": \"abc\", \"name\": \"t3_abc\", " +
+                "\"title\": \"Unicode \\u00e9\\u4e2d\", \"score\": -5, \"created_utc\": 1450000000.0, " +
+                "\"num_comments\": 12345678901, \"likes\": null, \"saved\": false, \"media\": {\"oembed\": [1, 2.5]}}"));
+
+        byte[] bytes = Snapshots.toBytes(submission);
+        Submission read = Snapshots.fromBytes(bytes, Submission.class);
+        assertEquals(read, submission);
+        assertEquals(read.getScoreValue(), -5);
+
+        // Abstract classes are resolved using the kind
+        assertTrue(Snapshots.fromBytes(bytes, Thing.class) instanceof Submission);
+    }
+
+    @Test
+    public void testListing() throws IOException {
+        JsonNode json = objectMapper.readTree(MockServerTest.listing("t3_c", "a", "b", "c"));
+        Listing<Submission> listing = new Listing<>(json.get("data"), Submission.class);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Snapshots.writeListing(listing, out);
+        Listing<Submission> read = Snapshots.readListing(new ByteArrayInputStream(out.toByteArray()), Submission.class);
+
+        assertEquals(read, listing);
+        assertEquals(read.getAfter(), "t3_c");
+        assertTrue(out.size() < json.toString().length());
+    }
+
+    @Test
+    public void testTree() throws IOException {
+        Comment reply = comment("b", "t1_a", "");
+        JsonNode replies = objectMapper.createObjectNode().put("kind", "Listing").set("data",
+                objectMapper.createObjectNode().set("children", objectMapper.createArrayNode()
+                        .add(objectMapper.createObjectNode().put("kind", "t1").set("data", reply.getDataNode()))
+                        .add(objectMapper.readTree("{\"kind\": \"more\", \"data\": {\"id\": \"c\", \"name\": \"t1_c\", " +
+                                "\"parent_id\": \"t1_a\", \"count\": 1, \"children\": [\"c\"]}}"))));
+        MoreChildren more = new MoreChildren(objectMapper.readTree("{\"id\": \"d\", \"name\": \"t1_d\", " +
+                "\"parent_id\": \"t3_link\", \"count\": 1, \"children\": [\"d\"]}"));
+        CommentNode root = new CommentNode("t3_link",
+                Collections.singletonList(comment("a", "t3_link", replies)), more, CommentSort.TOP);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Snapshots.writeTree(root, out);
+        CommentNode read = Snapshots.readTree(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(read.getSubmissionName(), "t3_link");
+        assertEquals(read.getCommentSort(), CommentSort.TOP);
+        assertEquals(read.getMoreChildren(), more);
+        assertEquals(read.getTotalSize(), root.getTotalSize());
+        Iterator<CommentNode> expected = root.walkTree().iterator();
+        for (CommentNode node : read.walkTree()) {
+            CommentNode original = expected.next();
+            assertEquals(node.getComment().getId(), original.getComment().getId());
+            assertEquals(node.getDepth(), original.getDepth());
+            assertEquals(node.getMoreChildren(), original.getMoreChildren());
+        }
+        assertFalse(expected.hasNext());
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testNotASnapshot() throws IOException {
+        Snapshots.fromBytes("{\"kind\": \"t1\"}".getBytes("UTF-8"), Comment.class);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testWrongType() throws IOException {
+        Comment comment = comment("a", "t3_link", "");
+        Snapshots.readListing(new ByteArrayInputStream(Snapshots.toBytes(comment)), Comment.class);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testNewerVersion() throws IOException {
+        byte[] bytes = Snapshots.toBytes(comment("a", "t3_link", ""));
+        bytes[3] = (byte) (Snapshots.VERSION + 1);
+        Snapshots.fromBytes(bytes, Comment.class);
+    }
+
+    private static Comment comment(String id, String parentId, Object replies) {
+        ObjectNode data = objectMapper.createObjectNode()
+                .put("id", id)
+                .put("name", "t1_" + id)
+                .put("parent_id", parentId)
+                .put("body", "Comment " + id);
+        if (replies instanceof JsonNode)
+            data.set("replies", (JsonNode) replies);
+        else
+            data.put("replies", (String) replies);
+        return new Comment(data);
+    }
+}
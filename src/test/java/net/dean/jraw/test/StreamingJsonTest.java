@@ -0,0 +1,81 @@
+package net.dean.jraw.test;
+
+import net.dean.jraw.http.HttpRequest;
+import net.dean.jraw.http.OkHttpAdapter;
+import net.dean.jraw.http.RestResponse;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+import static org.testng.Assert.*;
+
+/** Tests {@link OkHttpAdapter#setStreamJson(boolean)} */
+public class StreamingJsonTest {
+    private MockWebServer server;
+    private OkHttpAdapter adapter;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        adapter = new OkHttpAdapter();
+        adapter.setStreamJson(true);
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void testParsesJson() throws IOException {
+        server.enqueue(response("application/json", "{\"kind\": \"t1\", \"data\": {\"score\": 5}}"));
+        RestResponse response = adapter.execute(request());
+        assertEquals(response.getJson().get("data").get("score").asInt(), 5);
+        assertFalse(response.hasErrors());
+        // The raw body is recreated from the JSON
+        assertEquals(response.getRaw(), "{\"kind\":\"t1\",\"data\":{\"score\":5}}");
+    }
+
+    @Test
+    public void testApiError() throws IOException {
+        server.enqueue(response("application/json", "{\"json\": {\"errors\": [[\"RATELIMIT\", \"slow down\"]]}}"));
+        RestResponse response = adapter.execute(request());
+        assertTrue(response.hasErrors());
+        assertEquals(response.getError().getReason(), "RATELIMIT");
+    }
+
+    @Test
+    public void testEmptyBody() throws IOException {
+        server.enqueue(response("application/json", ""));
+        RestResponse response = adapter.execute(request());
+        assertNull(response.getJson());
+        assertEquals(response.getRaw(), "");
+    }
+
+    @Test
+    public void testNotJson() throws IOException {
+        server.enqueue(response("text/css", "a { color: red; }"));
+        RestResponse response = adapter.execute(request());
+        assertNull(response.getJson());
+        assertEquals(response.getRaw(), "a { color: red; }");
+    }
+
+    private HttpRequest request() {
+        return new HttpRequest.Builder()
+                .host(server.getHostName())
+                .port(server.getPort())
+                .path("/foo")
+                .build();
+    }
+
+    private static MockResponse response(String contentType, String body) {
+        return new MockResponse()
+                .setHeader("Content-Type", contentType)
+                .setBody(body);
+    }
+}
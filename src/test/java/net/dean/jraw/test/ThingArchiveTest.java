@@ -0,0 +1,130 @@
+package net.dean.jraw.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.dean.jraw.ThingArchive;
+import net.dean.jraw.models.Comment;
+import net.dean.jraw.models.Submission;
+import net.dean.jraw.models.Thing;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+public class ThingArchiveTest {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private File file;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        file = File.createTempFile("jraw-archive", null);
+        assertTrue(file.delete());
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testQueries() throws IOException {
+        try (ThingArchive archive = new ThingArchive(file)) {
+            archive.putAll(Arrays.asList(
+                    submission("a", "pics", "alice", 1000),
+                    submission("b", "Pics", "bob", 2000),
+                    submission("c", "funny", "alice", 3000)));
+            archive.put(comment("d", "pics", "bob", 4000));
+
+            assertEquals(archive.size(), 4);
+            assertEquals(archive.get("t3_a").getFullName(), "t3_a");
+            assertTrue(archive.get("t1_d") instanceof Comment);
+            assertNull(archive.get("t3_z"));
+
+            assertEquals(fullnames(archive.getBySubreddit("PICS")), Arrays.asList("t3_a", "t3_b", "t1_d"));
+            assertEquals(fullnames(archive.getByAuthor("alice")), Arrays.asList("t3_a", "t3_c"));
+            assertEquals(fullnames(archive.getCreatedBetween(2000_000, 4000_000)), Arrays.asList("t3_b", "t3_c"));
+            assertTrue(archive.getByAuthor("nobody").isEmpty());
+        }
+    }
+
+    @Test
+    public void testReopen() throws IOException {
+        Submission original = submission("a", "pics", "alice", 1000);
+        try (ThingArchive archive = new ThingArchive(file)) {
+            archive.put(original);
+            // Replaced by a newer version in another subreddit
+            archive.put(submission("b", "pics", "bob", 2000));
+            archive.put(submission("b", "funny", "bob", 2000));
+        }
+
+        try (ThingArchive archive = new ThingArchive(file)) {
+            assertEquals(archive.size(), 2);
+            assertEquals(archive.get("t3_a"), original);
+            assertEquals(fullnames(archive.getBySubreddit("pics")), Arrays.asList("t3_a"));
+            assertEquals(fullnames(archive.getBySubreddit("funny")), Arrays.asList("t3_b"));
+
+            // New records can be added after existing ones
+            archive.put(submission("c", "pics", "carol", 3000));
+            assertEquals(fullnames(archive.getBySubreddit("pics")), Arrays.asList("t3_a", "t3_c"));
+        }
+    }
+
+    @Test
+    public void testIncompleteRecord() throws IOException {
+        try (ThingArchive archive = new ThingArchive(file)) {
+            archive.put(submission("a", "pics", "alice", 1000));
+            archive.put(submission("b", "pics", "bob", 2000));
+        }
+        // Cut off the end of the last record
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 10);
+        }
+
+        try (ThingArchive archive = new ThingArchive(file)) {
+            assertEquals(archive.size(), 1);
+            archive.put(submission("c", "pics", "carol", 3000));
+            assertEquals(fullnames(archive.getBySubreddit("pics")), Arrays.asList("t3_a", "t3_c"));
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testNotAnArchive() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.writeBytes("{\"kind\": \"t3\"}");
+        }
+        new ThingArchive(file).close();
+    }
+
+    private static Submission submission(String id, String subreddit, String author, long createdSeconds) {
+        return new Submission(objectMapper.createObjectNode()
+                .put("id", id)
+                .put("name", "t3_" + id)
+                .put("saved", false)
+                .put("subreddit", subreddit)
+                .put("author", author)
+                .put("created_utc", (double) createdSeconds));
+    }
+
+    private static Comment comment(String id, String subreddit, String author, long createdSeconds) {
+        return new Comment(objectMapper.createObjectNode()
+                .put("id", id)
+                .put("name", "t1_" + id)
+                .put("subreddit", subreddit)
+                .put("author", author)
+                .put("created_utc", (double) createdSeconds));
+    }
+
+    private static List<String> fullnames(List<Thing> things) {
+        String[] names = new String[things.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = things.get(i).getFullName();
+        }
+        return Arrays.asList(names);
+    }
+}
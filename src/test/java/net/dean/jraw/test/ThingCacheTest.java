@@ -0,0 +1,69 @@
+package net.dean.jraw.test;
+
+import net.dean.jraw.ThingCache;
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.Subreddit;
+import net.dean.jraw.models.Thing;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class ThingCacheTest extends MockServerTest {
+
+    @Test
+    public void testGetOnlyRequestsMissing() throws Exception {
+        reddit.setThingCache(new ThingCache(100, 1, TimeUnit.HOURS));
+        server.enqueue(json(listing(null, "a", "b")));
+        server.enqueue(json(listing(null, "c")));
+
+        Listing<Thing> first = reddit.get("t3_a", "t3_b");
+        assertEquals(first.size(), 2);
+
+        Listing<Thing> second = reddit.get("t3_c", "t3_a", "t3_b");
+        assertEquals(server.getRequestCount(), 2);
+        server.takeRequest();
+        RecordedRequest request = server.takeRequest();
+        assertTrue(request.getPath().contains("id=t3_c"), request.getPath());
+        assertFalse(request.getPath().contains("t3_a"), request.getPath());
+
+        // Requested order is kept and cached instances are reused
+        assertEquals(second.size(), 3);
+        assertEquals(second.get(0).getFullName(), "t3_c");
+        assertSame(second.get(1), first.get(0));
+        assertSame(second.get(2), first.get(1));
+
+        // Everything is cached now
+        reddit.get("t3_b", "t3_c");
+        assertEquals(server.getRequestCount(), 2);
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        reddit.setThingCache(new ThingCache(100, 0, TimeUnit.SECONDS));
+        server.enqueue(json(listing(null, "a")));
+        server.enqueue(json(listing(null, "a")));
+
+        reddit.get("t3_a");
+        reddit.get("t3_a");
+        assertEquals(server.getRequestCount(), 2);
+    }
+
+    @Test
+    public void testSubredditByName() throws Exception {
+        ThingCache cache = new ThingCache(100, 1, TimeUnit.HOURS);
+        reddit.setThingCache(cache);
+        server.enqueue(json("{\"kind\":\"t5\",\"data\":{\"id\":\"2qh0u\",\"name\":\"t5_2qh0u\"," +
+                "\"display_name\":\"pics\"}}"));
+
+        Subreddit subreddit = reddit.getSubreddit("pics");
+        assertSame(reddit.getSubreddit("Pics"), subreddit);
+        assertSame(reddit.get("t5_2qh0u").get(0), subreddit);
+        assertEquals(server.getRequestCount(), 1);
+
+        cache.invalidateAll();
+        assertNull(cache.getSubreddit("pics"));
+    }
+}
@@ -0,0 +1,126 @@
+package net.dean.jraw.test;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import net.dean.jraw.ThingLoader;
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.Thing;
+import net.dean.jraw.paginators.FullnamesPaginator;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class ThingLoaderTest extends MockServerTest {
+    /** The fullnames requested from /api/info, one list for every request */
+    private List<List<String>> requested;
+
+    @BeforeMethod
+    public void setUpDispatcher() {
+        requested = new ArrayList<>();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                HttpUrl url = HttpUrl.parse("http://localhost" + request.getPath());
+                List<String> ids = new ArrayList<>();
+                for (String fullname : url.queryParameter("id").split(",")) {
+                    // Pretend these don't exist
+                    if (!fullname.equals("t3_missing"))
+                        ids.add(fullname.substring("t3_".length()));
+                }
+                synchronized (ThingLoaderTest.this) {
+                    requested.add(new ArrayList<>(ids));
+                }
+                return json(listing(null, ids.toArray(new String[ids.size()])));
+            }
+        });
+    }
+
+    @Test
+    public void testBatchesLookups() throws Exception {
+        ThingLoader loader = new ThingLoader(reddit, 100, TimeUnit.MILLISECONDS);
+        List<ListenableFuture<Thing>> futures = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            futures.add(loader.load("t3_" + i));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals(futures.get(i).get(5, TimeUnit.SECONDS).getFullName(), "t3_" + i);
+        }
+        // A full batch is sent right away, the rest once the window ends
+        assertEquals(requested.size(), 2);
+        assertEquals(requested.get(0).size(), 100);
+        assertEquals(requested.get(1).size(), 50);
+        loader.close();
+    }
+
+    @Test
+    public void testDuplicatesAndMissing() throws Exception {
+        ThingLoader loader = new ThingLoader(reddit);
+        ListenableFuture<Thing> first = loader.load("t3_a");
+        ListenableFuture<Thing> second = loader.load("t3_a");
+        ListenableFuture<Thing> missing = loader.load("t3_missing");
+        assertEquals(loader.getPendingCount(), 2);
+        loader.flush();
+
+        assertEquals(first.get(5, TimeUnit.SECONDS).getFullName(), "t3_a");
+        assertSame(second.get(5, TimeUnit.SECONDS), first.get());
+        assertNull(missing.get(5, TimeUnit.SECONDS));
+        assertEquals(requested.size(), 1);
+        loader.close();
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return json("{}").setResponseCode(404);
+            }
+        });
+        ThingLoader loader = new ThingLoader(reddit);
+        ListenableFuture<Thing> future = loader.load("t3_a");
+        loader.close();
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("Expected the lookup to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof NetworkException);
+        }
+    }
+
+    @Test
+    public void testGetSplitsLargeRequests() {
+        String[] fullnames = new String[250];
+        for (int i = 0; i < fullnames.length; i++) {
+            fullnames[i] = "t3_" + i;
+        }
+        Listing<Thing> things = reddit.get(fullnames);
+        assertEquals(things.size(), 250);
+        assertEquals(requested.size(), 3);
+    }
+
+    @Test
+    public void testFullnamesPaginatorReturnsEveryFullname() {
+        FullnamesPaginator paginator = new FullnamesPaginator(reddit, new String[] {"t3_a", "t3_b", "t3_c", "t3_d", "t3_e"});
+        paginator.setLimit(2);
+        List<String> found = new ArrayList<>();
+        while (paginator.hasNext()) {
+            for (Thing thing : paginator.next()) {
+                found.add(thing.getFullName());
+            }
+        }
+        assertEquals(found.size(), 5);
+        assertEquals(found.get(4), "t3_e");
+        assertEquals(requested.size(), 3);
+    }
+}
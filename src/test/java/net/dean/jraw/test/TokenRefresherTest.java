@@ -0,0 +1,115 @@
+package net.dean.jraw.test;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.http.oauth.Credentials;
+import net.dean.jraw.http.oauth.OAuthData;
+import net.dean.jraw.http.oauth.TokenRefresher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class TokenRefresherTest extends MockServerTest {
+    private static final Credentials CREDENTIALS = Credentials.script("user", "password", "clientId", "clientSecret");
+    private RedditClient client;
+    private TokenRefresher refresher;
+
+    @BeforeMethod
+    public void setUpClient() {
+        client = redirectingClient();
+    }
+
+    @AfterMethod
+    public void closeRefresher() {
+        if (refresher != null)
+            refresher.close();
+    }
+
+    @Test
+    public void testRefreshesBeforeExpiry() throws Exception {
+        authenticate("first", 1);
+        refresher = new TokenRefresher(client, CREDENTIALS);
+        refresher.setMargin(800, TimeUnit.MILLISECONDS);
+
+        server.enqueue(json(token("second", 3600)));
+        refresher.start();
+
+        RecordedRequest request = server.takeRequest(5, TimeUnit.SECONDS);
+        assertNotNull(request, "The access token was not refreshed");
+        assertEquals(request.getPath(), "/api/v1/access_token");
+        waitForToken("second");
+
+        server.enqueue(json("{}"));
+        client.execute(client.request().path("/foo").build());
+        assertEquals(server.takeRequest().getHeader("Authorization"), "bearer second");
+    }
+
+    @Test
+    public void testConcurrentRefreshesAreShared() throws Exception {
+        authenticate("first", 3600);
+        refresher = new TokenRefresher(client, CREDENTIALS);
+        refresher.start();
+
+        // Hold the refresh request until both callers have asked for a refresh
+        server.enqueue(json(token("second", 3600)).setBodyDelay(200, TimeUnit.MILLISECONDS));
+        ListenableFuture<OAuthData> first = refresher.refresh();
+        ListenableFuture<OAuthData> second = refresher.refresh();
+        assertSame(first, second);
+        assertEquals(first.get(5, TimeUnit.SECONDS).getAccessToken(), "second");
+
+        // Only the initial authentication and a single refresh were requested
+        assertEquals(server.getRequestCount(), 2);
+        assertEquals(client.getOAuthData().getAccessToken(), "second");
+    }
+
+    @Test
+    public void testFailedRefreshKeepsToken() throws Exception {
+        authenticate("first", 3600);
+        refresher = new TokenRefresher(client, CREDENTIALS);
+        refresher.start();
+
+        server.enqueue(new MockResponse().setResponseCode(401));
+        try {
+            refresher.refresh().get(5, TimeUnit.SECONDS);
+            fail("Expected the refresh to fail");
+        } catch (ExecutionException e) {
+            // expected
+        }
+        assertEquals(client.getOAuthData().getAccessToken(), "first");
+    }
+
+    @Test
+    public void testExpirationDateIsFixed() throws Exception {
+        authenticate("first", 3600);
+        long expiration = client.getOAuthData().getExpirationDate().getTime();
+        Thread.sleep(20);
+        assertEquals(client.getOAuthData().getExpirationDate().getTime(), expiration);
+    }
+
+    private void authenticate(String accessToken, int expiresIn) throws Exception {
+        server.enqueue(json(token(accessToken, expiresIn)));
+        client.authenticate(client.getOAuthHelper().easyAuth(CREDENTIALS));
+        server.takeRequest();
+    }
+
+    private void waitForToken(String accessToken) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!accessToken.equals(client.getOAuthData().getAccessToken())) {
+            if (System.currentTimeMillis() > deadline)
+                fail("The new access token was not swapped in");
+            Thread.sleep(10);
+        }
+    }
+
+    private static String token(String accessToken, int expiresIn) {
+        return "{\"access_token\":\"" + accessToken + "\",\"token_type\":\"bearer\",\"expires_in\":" + expiresIn +
+                ",\"scope\":\"*\"}";
+    }
+}